@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+
+/**
+ * Option arguments attached to the option ({@code --string=x}, {@code -sx}) or given as the next
+ * token.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArgumentStyleBenchmark {
+
+	private final OptionSets.Sink sink = new OptionSets.Sink();
+
+	private GetOpt getOpt;
+
+	@Setup
+	public void setup() {
+		getOpt = OptionSets.generated(10, sink);
+	}
+
+	@Benchmark
+	public List<String> longAttached() {
+		return getOpt.processParams("--string=value", "--number=42", "file");
+	}
+
+	@Benchmark
+	public List<String> longSeparate() {
+		return getOpt.processParams("--string", "value", "--number", "42", "file");
+	}
+
+	@Benchmark
+	public List<String> shortAttached() {
+		return getOpt.processParams("-svalue", "-n42", "file");
+	}
+
+	@Benchmark
+	public List<String> shortSeparate() {
+		return getOpt.processParams("-s", "value", "-n", "42", "file");
+	}
+}
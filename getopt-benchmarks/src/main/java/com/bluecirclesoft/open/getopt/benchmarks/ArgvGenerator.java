@@ -0,0 +1,573 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import com.bluecirclesoft.open.getopt.ArgumentSpecification;
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.OptionConstraint;
+import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.OptionTable;
+import com.bluecirclesoft.open.getopt.TypeConverter;
+import com.bluecirclesoft.open.getopt.converters.BigDecimalConverter;
+import com.bluecirclesoft.open.getopt.converters.BigIntegerConverter;
+import com.bluecirclesoft.open.getopt.converters.BooleanConverter;
+import com.bluecirclesoft.open.getopt.converters.ByteConverter;
+import com.bluecirclesoft.open.getopt.converters.CharConverter;
+import com.bluecirclesoft.open.getopt.converters.DoubleConverter;
+import com.bluecirclesoft.open.getopt.converters.FloatConverter;
+import com.bluecirclesoft.open.getopt.converters.IntegerConverter;
+import com.bluecirclesoft.open.getopt.converters.LongConverter;
+import com.bluecirclesoft.open.getopt.converters.ShortConverter;
+import com.bluecirclesoft.open.getopt.flavors.CommandLineProcessingFlavors;
+
+/**
+ * Generates random command lines for an option set, for benchmarks and load tests. The command
+ * lines use the options' short and long names, abbreviations, short flags glommed together,
+ * attached ({@code -n5}, {@code --count=5}) and separate arguments with values suited to each
+ * converter, non-options, and "--". They are valid (including the required options and the
+ * constraints), except for the fraction chosen with {@link #setInvalidFraction(double)}, which each
+ * have one problem of a kind chosen with {@link #setInvalidKinds(Invalid...)}.
+ * <p></p>
+ * Command line {@code i} depends only on the seed, the settings and {@code i}, so workloads can be
+ * reproduced, and generated in parallel or in any order. Constraints are honored as far as they
+ * don't contradict each other. Arguments for custom converters are plain words.
+ */
+public class ArgvGenerator {
+
+	/**
+	 * The kinds of problem an invalid command line can have.
+	 */
+	public enum Invalid {
+		UNKNOWN_SHORT_OPTION,
+		UNKNOWN_LONG_OPTION,
+		AMBIGUOUS_ABBREVIATION,
+		MISSING_ARGUMENT,
+		BAD_VALUE,
+		MISSING_REQUIRED_OPTION,
+		CONFLICTING_OPTIONS
+	}
+
+	private static final String[] WORDS = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel"};
+
+	private final OptionTable table;
+
+	private final long seed;
+
+	private final boolean permute;
+
+	private final List<OptionSpecification> options;
+
+	private final List<OptionSpecification> required = new ArrayList<>();
+
+	private final List<OptionConstraint> constraints;
+
+	private final List<OptionConstraint> exclusions = new ArrayList<>();
+
+	/**
+	 * The options whose argument can be made unconvertible.
+	 */
+	private final List<OptionSpecification> convertible = new ArrayList<>();
+
+	/**
+	 * The options that can be left without their argument (a long option's optional argument can't
+	 * be).
+	 */
+	private final List<OptionSpecification> argumentNeeded = new ArrayList<>();
+
+	/**
+	 * Prefixes that match more than one long option (and aren't names themselves).
+	 */
+	private final List<String> ambiguousPrefixes = new ArrayList<>();
+
+	private final String[] longNames;
+
+	/**
+	 * For each of {@link #longNames}, the length of its shortest unique abbreviation, or the length
+	 * of the name if it can't be abbreviated.
+	 */
+	private final int[] uniqueLengths;
+
+	private final char unknownShortOption;
+
+	private final String unknownLongOption;
+
+	private int maxOptions = 6;
+
+	private int maxNonOptions = 3;
+
+	private double invalidFraction = 0;
+
+	private Set<Invalid> invalidKinds = EnumSet.allOf(Invalid.class);
+
+	/**
+	 * Make a generator. The option set's providers are loaded, so all its options are used.
+	 *
+	 * @param getOpt the option set
+	 * @param seed   the seed
+	 */
+	public ArgvGenerator(GetOpt getOpt, long seed) {
+		this.seed = seed;
+		this.permute = getOpt.getFlavorType() != CommandLineProcessingFlavors.GNU_GETOPT_POSIXLY_CORRECT;
+		this.table = getOpt.getOptionTable(null);
+		this.options = new ArrayList<>(table.getOptions());
+		this.constraints = table.getConstraints();
+		for (OptionSpecification option : options) {
+			if (option.isRequired()) {
+				required.add(option);
+			}
+			if (option.getArgumentSpecification() == ArgumentSpecification.REQUIRED ||
+					(option.getArgumentSpecification() == ArgumentSpecification.OPTIONAL && !option.getShortOptList().isEmpty())) {
+				argumentNeeded.add(option);
+			}
+			if (option.getArgumentSpecification() != ArgumentSpecification.NONE) {
+				if (badValue(option) != null) {
+					convertible.add(option);
+				}
+			}
+		}
+		for (OptionConstraint constraint : constraints) {
+			if (constraint.getKind() == OptionConstraint.Kind.MUTUALLY_EXCLUSIVE) {
+				exclusions.add(constraint);
+			}
+		}
+
+		longNames = table.getLongOptNames().toArray(new String[0]);
+		uniqueLengths = new int[longNames.length];
+		for (int i = 0; i < longNames.length; i++) {
+			int before = i > 0 ? commonPrefix(longNames[i - 1], longNames[i]) : 0;
+			int after = i + 1 < longNames.length ? commonPrefix(longNames[i], longNames[i + 1]) : 0;
+			uniqueLengths[i] = Math.min(longNames[i].length(), Math.max(before, after) + 1);
+			if (after > 0) {
+				String prefix = longNames[i].substring(0, after);
+				if (table.getLongOpt(prefix) == null && (ambiguousPrefixes.isEmpty() ||
+						!ambiguousPrefixes.get(ambiguousPrefixes.size() - 1).equals(prefix))) {
+					ambiguousPrefixes.add(prefix);
+				}
+			}
+		}
+
+		char unknown = 0;
+		for (char ch : "zyxwvutsrqponmlkjihgfedcbaZYXWVUTSRQPONMLKJIHGFEDCBA9876543210".toCharArray()) {
+			if (table.getShortOpt(ch) == null) {
+				unknown = ch;
+				break;
+			}
+		}
+		unknownShortOption = unknown;
+		String unknownLong = "undefined-option";
+		while (!table.getLongMatches(unknownLong).isEmpty()) {
+			unknownLong = "x" + unknownLong;
+		}
+		unknownLongOption = unknownLong;
+	}
+
+	private static int commonPrefix(String a, String b) {
+		int length = Math.min(a.length(), b.length());
+		int i = 0;
+		while (i < length && a.charAt(i) == b.charAt(i)) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Set the most options (besides the required ones) in a command line.
+	 *
+	 * @param maxOptions the number (default 6)
+	 * @return this
+	 */
+	public ArgvGenerator setMaxOptions(int maxOptions) {
+		this.maxOptions = maxOptions;
+		return this;
+	}
+
+	/**
+	 * Set the most non-option arguments in a command line.
+	 *
+	 * @param maxNonOptions the number (default 3)
+	 * @return this
+	 */
+	public ArgvGenerator setMaxNonOptions(int maxNonOptions) {
+		this.maxNonOptions = maxNonOptions;
+		return this;
+	}
+
+	/**
+	 * Set the fraction of command lines that are invalid.
+	 *
+	 * @param invalidFraction from 0 (the default) to 1
+	 * @return this
+	 */
+	public ArgvGenerator setInvalidFraction(double invalidFraction) {
+		this.invalidFraction = invalidFraction;
+		return this;
+	}
+
+	/**
+	 * Set the kinds of problem in the invalid command lines (default: all of them). A kind that the
+	 * option set can't have (e.g. a missing required option, when no option is required) is not
+	 * used; if no kind can be used, the command line is valid.
+	 *
+	 * @param invalidKinds the kinds
+	 * @return this
+	 */
+	public ArgvGenerator setInvalidKinds(Invalid... invalidKinds) {
+		this.invalidKinds = EnumSet.noneOf(Invalid.class);
+		this.invalidKinds.addAll(Arrays.asList(invalidKinds));
+		return this;
+	}
+
+	/**
+	 * Generate an endless stream of command lines, starting with command line 0.
+	 *
+	 * @return the stream
+	 */
+	public Stream<String[]> stream() {
+		return LongStream.iterate(0, i -> i + 1).mapToObj(this::generate);
+	}
+
+	/**
+	 * Generate command lines 0 to {@code count - 1}. The stream can be made parallel.
+	 *
+	 * @param count the number of command lines
+	 * @return the stream
+	 */
+	public Stream<String[]> stream(long count) {
+		return LongStream.range(0, count).mapToObj(this::generate);
+	}
+
+	private SplittableRandom randomFor(long index) {
+		// mix, so that neighboring indexes don't give overlapping sequences
+		long z = seed + index * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return new SplittableRandom(z ^ (z >>> 31));
+	}
+
+	/**
+	 * Tell what is wrong with a command line.
+	 *
+	 * @param index the command line's index
+	 * @return the kind of problem it has, or null if it is valid
+	 */
+	public Invalid getInvalidKind(long index) {
+		return invalidKind(randomFor(index));
+	}
+
+	private Invalid invalidKind(SplittableRandom random) {
+		if (invalidFraction <= 0 || random.nextDouble() >= invalidFraction) {
+			return null;
+		}
+		List<Invalid> possible = new ArrayList<>();
+		for (Invalid kind : invalidKinds) {
+			if (isPossible(kind)) {
+				possible.add(kind);
+			}
+		}
+		return possible.isEmpty() ? null : possible.get(random.nextInt(possible.size()));
+	}
+
+	private boolean isPossible(Invalid kind) {
+		switch (kind) {
+			case UNKNOWN_SHORT_OPTION:
+				return unknownShortOption != 0;
+			case AMBIGUOUS_ABBREVIATION:
+				return !ambiguousPrefixes.isEmpty();
+			case MISSING_ARGUMENT:
+				return !argumentNeeded.isEmpty();
+			case BAD_VALUE:
+				return !convertible.isEmpty();
+			case MISSING_REQUIRED_OPTION:
+				return !required.isEmpty();
+			case CONFLICTING_OPTIONS:
+				return !exclusions.isEmpty();
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * Generate one command line.
+	 *
+	 * @param index the command line's index
+	 * @return the command line
+	 */
+	public String[] generate(long index) {
+		SplittableRandom random = randomFor(index);
+		Invalid invalid = invalidKind(random);
+
+		Set<OptionSpecification> chosen = chooseOptions(random);
+		OptionSpecification badValue = null;
+		if (invalid == Invalid.MISSING_REQUIRED_OPTION) {
+			chosen.remove(required.get(random.nextInt(required.size())));
+		} else if (invalid == Invalid.CONFLICTING_OPTIONS) {
+			List<OptionSpecification> group = exclusions.get(random.nextInt(exclusions.size())).getOptions();
+			int first = random.nextInt(group.size());
+			chosen.add(group.get(first));
+			chosen.add(group.get((first + 1 + random.nextInt(group.size() - 1)) % group.size()));
+		} else if (invalid == Invalid.BAD_VALUE) {
+			badValue = convertible.get(random.nextInt(convertible.size()));
+			chosen.add(badValue);
+		}
+
+		List<OptionSpecification> order = new ArrayList<>(chosen);
+		shuffle(order, random);
+		List<List<String>> groups = new ArrayList<>();
+		for (OptionSpecification option : order) {
+			String value = null;
+			if (option.getArgumentSpecification() != ArgumentSpecification.NONE) {
+				value = option == badValue ? badValue(option) : value(option, random);
+			}
+			emit(option, value, groups, random);
+		}
+
+		if (invalid != null) {
+			List<String> problem = new ArrayList<>();
+			switch (invalid) {
+				case UNKNOWN_SHORT_OPTION:
+					problem.add("-" + unknownShortOption);
+					break;
+				case UNKNOWN_LONG_OPTION:
+					problem.add("--" + unknownLongOption);
+					break;
+				case AMBIGUOUS_ABBREVIATION:
+					problem.add("--" + ambiguousPrefixes.get(random.nextInt(ambiguousPrefixes.size())));
+					break;
+				default:
+					break;
+			}
+			if (!problem.isEmpty()) {
+				groups.add(random.nextInt(groups.size() + 1), problem);
+			}
+		}
+
+		List<String> nonOptions = new ArrayList<>();
+		int nonOptionCount = maxNonOptions <= 0 ? 0 : random.nextInt(maxNonOptions + 1);
+		for (int i = 0; i < nonOptionCount; i++) {
+			nonOptions.add(WORDS[random.nextInt(WORDS.length)] + "-" + random.nextInt(100) + ".txt");
+		}
+		boolean separator = random.nextInt(10) == 0;
+		List<String> argv = new ArrayList<>();
+		if (permute && !separator) {
+			// GNU mode: non-options can go anywhere between the options
+			for (String nonOption : nonOptions) {
+				groups.add(random.nextInt(groups.size() + 1), Arrays.asList(nonOption));
+			}
+			nonOptions.clear();
+		}
+		for (List<String> tokens : groups) {
+			argv.addAll(tokens);
+		}
+		if (invalid == Invalid.MISSING_ARGUMENT) {
+			// the option has to come last, so nothing else can be taken as its argument
+			OptionSpecification option = argumentNeeded.get(random.nextInt(argumentNeeded.size()));
+			List<Character> shortOpts = option.getShortOptList();
+			List<String> longOpts = option.getLongOptList();
+			if (!shortOpts.isEmpty() && (longOpts.isEmpty() || option.getArgumentSpecification() == ArgumentSpecification.OPTIONAL ||
+					random.nextBoolean())) {
+				argv.add("-" + shortOpts.get(random.nextInt(shortOpts.size())));
+			} else {
+				argv.add("--" + longOpts.get(random.nextInt(longOpts.size())));
+			}
+			return argv.toArray(new String[0]);
+		}
+		if (separator) {
+			argv.add("--");
+			// after "--", even these are non-options
+			nonOptions.add(random.nextBoolean() ? "-" + WORDS[random.nextInt(WORDS.length)] : "--" + unknownLongOption);
+		}
+		argv.addAll(nonOptions);
+		return argv.toArray(new String[0]);
+	}
+
+	/**
+	 * Choose the options for a valid command line: the required ones, some others, and whatever the
+	 * constraints call for.
+	 */
+	private Set<OptionSpecification> chooseOptions(SplittableRandom random) {
+		Set<OptionSpecification> chosen = new LinkedHashSet<>(required);
+		int count = options.isEmpty() || maxOptions <= 0 ? 0 : random.nextInt(maxOptions + 1);
+		for (int i = 0; i < count; i++) {
+			chosen.add(options.get(random.nextInt(options.size())));
+		}
+		for (int pass = 0; pass <= constraints.size(); pass++) {
+			boolean changed = false;
+			for (OptionConstraint constraint : constraints) {
+				List<OptionSpecification> group = constraint.getOptions();
+				switch (constraint.getKind()) {
+					case AT_LEAST_ONE:
+						if (group.stream().noneMatch(chosen::contains)) {
+							changed |= chosen.add(group.get(random.nextInt(group.size())));
+						}
+						break;
+					case REQUIRES:
+						if (chosen.contains(constraint.getTrigger())) {
+							changed |= chosen.addAll(group);
+						}
+						break;
+					case MUTUALLY_EXCLUSIVE:
+						boolean seen = false;
+						for (OptionSpecification option : group) {
+							if (chosen.contains(option)) {
+								if (seen && !option.isRequired()) {
+									chosen.remove(option);
+									changed = true;
+								}
+								seen = true;
+							}
+						}
+						break;
+					default:
+						break;
+				}
+			}
+			if (!changed) {
+				break;
+			}
+		}
+		return chosen;
+	}
+
+	private static <T> void shuffle(List<T> list, SplittableRandom random) {
+		for (int i = list.size() - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			T t = list.get(i);
+			list.set(i, list.get(j));
+			list.set(j, t);
+		}
+	}
+
+	/**
+	 * Add the tokens for one option: short or long, exact or abbreviated, glommed or not, argument
+	 * attached or separate.
+	 */
+	private void emit(OptionSpecification option, String value, List<List<String>> groups, SplittableRandom random) {
+		List<Character> shortOpts = option.getShortOptList();
+		List<String> longOpts = option.getLongOptList();
+		ArgumentSpecification argument = option.getArgumentSpecification();
+		if (!shortOpts.isEmpty() && (longOpts.isEmpty() || random.nextBoolean())) {
+			char ch = shortOpts.get(random.nextInt(shortOpts.size()));
+			List<String> last = groups.isEmpty() ? null : groups.get(groups.size() - 1);
+			boolean glom = last != null && last.size() == 1 && isFlagGroup(last.get(0)) && random.nextBoolean();
+			String token;
+			List<String> group;
+			if (glom) {
+				token = last.get(0) + ch;
+				group = last;
+				group.set(0, token);
+			} else {
+				token = "-" + ch;
+				group = new ArrayList<>();
+				group.add(token);
+				groups.add(group);
+			}
+			if (value != null) {
+				if (random.nextBoolean() && !value.isEmpty()) {
+					group.set(0, token + value);
+				} else {
+					group.add(value);
+				}
+			}
+		} else {
+			String name = longOpts.get(random.nextInt(longOpts.size()));
+			int index = Arrays.binarySearch(longNames, name);
+			if (uniqueLengths[index] < name.length() && random.nextInt(3) == 0) {
+				name = name.substring(0, uniqueLengths[index] + random.nextInt(name.length() - uniqueLengths[index]));
+			}
+			List<String> group = new ArrayList<>();
+			if (value == null) {
+				group.add("--" + name);
+			} else if (argument == ArgumentSpecification.OPTIONAL || random.nextBoolean()) {
+				group.add("--" + name + "=" + value);
+			} else {
+				group.add("--" + name);
+				group.add(value);
+			}
+			groups.add(group);
+		}
+	}
+
+	/**
+	 * Is this token a group of short flags (which another flag can be glommed onto)?
+	 */
+	private boolean isFlagGroup(String token) {
+		if (token.length() < 2 || token.charAt(0) != '-' || token.charAt(1) == '-') {
+			return false;
+		}
+		for (int i = 1; i < token.length(); i++) {
+			OptionSpecification option = table.getShortOpt(token.charAt(i));
+			if (option == null || option.getArgumentSpecification() != ArgumentSpecification.NONE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Make a valid argument for an option.
+	 */
+	private static String value(OptionSpecification option, SplittableRandom random) {
+		TypeConverter<?> converter = option.getConverter();
+		if (converter instanceof IntegerConverter) {
+			return Integer.toString(random.nextInt(-1000, 100000));
+		} else if (converter instanceof LongConverter) {
+			return Long.toString(random.nextLong());
+		} else if (converter instanceof ShortConverter) {
+			return Integer.toString(random.nextInt(Short.MIN_VALUE, Short.MAX_VALUE + 1));
+		} else if (converter instanceof ByteConverter) {
+			return Integer.toString(random.nextInt(Byte.MIN_VALUE, Byte.MAX_VALUE + 1));
+		} else if (converter instanceof DoubleConverter || converter instanceof FloatConverter ||
+				converter instanceof BigDecimalConverter) {
+			return Double.toString(Math.round(random.nextDouble(-1000, 1000) * 1000) / 1000.0);
+		} else if (converter instanceof BigIntegerConverter) {
+			return Long.toString(random.nextLong()) + random.nextInt(100000, 1000000);
+		} else if (converter instanceof BooleanConverter) {
+			return Boolean.toString(random.nextBoolean());
+		} else if (converter instanceof CharConverter) {
+			return String.valueOf((char) ('a' + random.nextInt(26)));
+		}
+		return WORDS[random.nextInt(WORDS.length)] + random.nextInt(1000);
+	}
+
+	/**
+	 * Make an argument the option's converter will reject.
+	 *
+	 * @return the argument, or null if the converter accepts anything
+	 */
+	private static String badValue(OptionSpecification option) {
+		TypeConverter<?> converter = option.getConverter();
+		if (converter instanceof IntegerConverter || converter instanceof LongConverter || converter instanceof ShortConverter ||
+				converter instanceof ByteConverter || converter instanceof DoubleConverter || converter instanceof FloatConverter ||
+				converter instanceof BigDecimalConverter || converter instanceof BigIntegerConverter) {
+			return "not-a-number";
+		} else if (converter instanceof CharConverter) {
+			return "xyz";
+		}
+		return null;
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import com.bluecirclesoft.open.getopt.ByArgument;
+import com.bluecirclesoft.open.getopt.ByFlag;
+
+/**
+ * A receptacle in the style of the GNU flavor tests, with a few more types.
+ */
+public class BenchReceptacle {
+
+	@ByArgument(documentation = "the a value", mnemonic = "value", shortOpt = "a", longOpt = "a-value")
+	private String a;
+
+	@ByArgument(documentation = "the b value", mnemonic = "value", shortOpt = "b", longOpt = "b-value")
+	private String b;
+
+	@ByArgument(documentation = "the c value", mnemonic = "value", shortOpt = "c", longOpt = "c-value")
+	private String c;
+
+	@ByFlag(documentation = "the m flag", shortOpt = "m", longOpt = "m-flag")
+	private boolean m;
+
+	@ByFlag(documentation = "be verbose", shortOpt = "v", longOpt = "verbose")
+	private boolean verbose;
+
+	@ByArgument(documentation = "the abc value", mnemonic = "value", longOpt = "abc")
+	private String abc;
+
+	@ByArgument(documentation = "how many", mnemonic = "n", shortOpt = "n", longOpt = "count")
+	private int count;
+
+	@ByArgument(documentation = "how long to wait", mnemonic = "ms", longOpt = "timeout")
+	private long timeout;
+
+	@ByArgument(documentation = "the scale factor", mnemonic = "factor", longOpt = "scale")
+	private double scale;
+
+	public String getA() {
+		return a;
+	}
+
+	public String getB() {
+		return b;
+	}
+
+	public String getC() {
+		return c;
+	}
+
+	public boolean isM() {
+		return m;
+	}
+
+	public boolean isVerbose() {
+		return verbose;
+	}
+
+	public String getAbc() {
+		return abc;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public double getScale() {
+		return scale;
+	}
+}
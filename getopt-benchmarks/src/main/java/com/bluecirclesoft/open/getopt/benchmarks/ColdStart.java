@@ -0,0 +1,242 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.SpecSnapshot;
+
+/**
+ * Measures time to first parse: starts a fresh JVM for each run of {@link ColdStartProbe}, and
+ * reports, for each way of defining the options and each option-set size, the time from main to
+ * the return of processParams, the time for the whole process, and the number of classes loaded
+ * (beyond what an empty main loads).
+ * <p></p>
+ * The ways compared are the fluent addFlag/addParam calls, createFromReceptacle on a generated
+ * receptacle class (compiled here, so this needs a JDK), loading a binary snapshot, and loading a
+ * JSON schema.
+ * <p></p>
+ * Run it from the benchmarks jar: {@code java -cp target/benchmarks.jar
+ * com.bluecirclesoft.open.getopt.benchmarks.ColdStart [-n runs] [-s sizes] [-o report]}.
+ */
+public class ColdStart {
+
+	private static final List<String> MODES = Arrays.asList("fluent", "reflective", "snapshot", "schema");
+
+	private final int runs;
+
+	private final Path work;
+
+	private final String classPath;
+
+	private long baselineClasses;
+
+	private ColdStart(int runs, Path work) {
+		this.runs = runs;
+		this.work = work;
+		this.classPath = System.getProperty("java.class.path") + File.pathSeparator + work;
+	}
+
+	public static void main(String... args) throws Exception {
+		final int[] runs = {10};
+		final String[] sizes = {"10,100,1000,10000"};
+		final String[] output = {null};
+		GetOpt options = GetOpt.create(ColdStart.class, null);
+		options.addParam("n", "the number of JVMs to start for each measurement (default 10)", false, Integer.class,
+				n -> runs[0] = n).addShortOpt('n').addLongOpt("runs");
+		options.addParam("sizes", "the option-set sizes, separated by commas (default 10,100,1000,10000)", false,
+				s -> sizes[0] = s).addShortOpt('s').addLongOpt("sizes");
+		options.addParam("file", "also write the report to this file", false, s -> output[0] = s).addShortOpt('o').addLongOpt("output");
+		try {
+			options.processParams(args);
+		} catch (CommandLineProcessingException e) {
+			System.err.println(e.getMessage());
+			return;
+		}
+
+		Path work = Files.createTempDirectory("coldstart");
+		ColdStart coldStart = new ColdStart(runs[0], work);
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-12s %8s %14s %14s %14s %10s", "mode", "options", "median ms", "min ms", "process ms", "classes"));
+		coldStart.baselineClasses = coldStart.measure(0, "baseline", 1).classes;
+		for (String size : sizes[0].split(",")) {
+			int n = Integer.parseInt(size.trim());
+			for (String mode : MODES) {
+				Measurement measurement = coldStart.measure(n, mode, coldStart.runs);
+				String line;
+				if (measurement == null) {
+					line = String.format("%-12s %8d %14s", mode, n, "(skipped: no Java compiler)");
+				} else {
+					line = String.format("%-12s %8d %14.2f %14.2f %14.2f %10d", mode, n, measurement.medianMillis, measurement.minMillis,
+							measurement.processMillis, measurement.classes - coldStart.baselineClasses);
+				}
+				System.out.println(line);
+				report.add(line);
+			}
+		}
+		if (output[0] != null) {
+			Files.write(new File(output[0]).toPath(), report, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Run the probe for one mode and size.
+	 *
+	 * @return the measurement, or null if the mode can't be run here
+	 */
+	private Measurement measure(int size, String mode, int count) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>(Arrays.asList(new File(System.getProperty("java.home"), "bin/java").getPath(), "-cp",
+				classPath, ColdStartProbe.class.getName(), mode, Integer.toString(size)));
+		switch (mode) {
+			case "reflective":
+				String receptacle = compileReceptacle(size);
+				if (receptacle == null) {
+					return null;
+				}
+				command.add(receptacle);
+				break;
+			case "snapshot":
+				Path snapshot = work.resolve("options-" + size + ".bin");
+				SpecSnapshot.write(OptionSets.generated(size, new OptionSets.Sink()), snapshot);
+				command.add(snapshot.toString());
+				break;
+			case "schema":
+				Path schema = work.resolve("options-" + size + ".json");
+				Files.write(schema, schemaSource(size).getBytes(StandardCharsets.UTF_8));
+				command.add(schema.toString());
+				break;
+			default:
+				break;
+		}
+
+		long[] inProcess = new long[count];
+		long[] process = new long[count];
+		long classes = 0;
+		for (int i = 0; i < count; i++) {
+			long start = System.nanoTime();
+			Process child = new ProcessBuilder(command).redirectErrorStream(true).start();
+			String result;
+			try (BufferedReader in = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+				result = in.readLine();
+				while (in.readLine() != null) {
+					// drain
+				}
+			}
+			int exit = child.waitFor();
+			process[i] = System.nanoTime() - start;
+			if (exit != 0 || result == null) {
+				throw new IllegalStateException("Probe failed (" + mode + ", " + size + "): " + result);
+			}
+			String[] fields = result.split(" ");
+			inProcess[i] = Long.parseLong(fields[0]);
+			classes = Long.parseLong(fields[1]);
+		}
+		return new Measurement(inProcess, process, classes);
+	}
+
+	/**
+	 * Write and compile a receptacle with the same options as {@link OptionSets#generated}.
+	 *
+	 * @return the class name, or null if there is no compiler
+	 */
+	private String compileReceptacle(int size) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			return null;
+		}
+		String className = "ColdReceptacle" + size;
+		StringBuilder source = new StringBuilder();
+		source.append("import com.bluecirclesoft.open.getopt.ByArgument;\n");
+		source.append("import com.bluecirclesoft.open.getopt.ByFlag;\n");
+		source.append("public class ").append(className).append(" {\n");
+		for (char ch = 'a'; ch <= 'd'; ch++) {
+			source.append(String.format("  @ByFlag(documentation = \"flag %c\", shortOpt = \"%c\", longOpt = \"flag-%c\")\n", ch, ch, ch));
+			source.append("  private boolean ").append(ch).append(";\n");
+		}
+		source.append("  @ByArgument(documentation = \"a number\", mnemonic = \"n\", shortOpt = \"n\", longOpt = \"number\")\n");
+		source.append("  private int n;\n");
+		source.append("  @ByArgument(documentation = \"a string\", mnemonic = \"s\", shortOpt = \"s\", longOpt = \"string\")\n");
+		source.append("  private String s;\n");
+		for (int i = 0; i < size; i++) {
+			source.append(String.format("  @ByArgument(documentation = \"generated option %d\", mnemonic = \"value\", longOpt = \"%s\")\n", i,
+					OptionSets.longName(i)));
+			source.append("  private String f").append(i).append(";\n");
+		}
+		source.append("}\n");
+		Path file = work.resolve(className + ".java");
+		Files.write(file, source.toString().getBytes(StandardCharsets.UTF_8));
+		int result = compiler.run(null, null, null, "-nowarn", "-cp", System.getProperty("java.class.path"), "-d", work.toString(),
+				file.toString());
+		if (result != 0) {
+			throw new IllegalStateException("Could not compile " + file);
+		}
+		return className;
+	}
+
+	/**
+	 * A JSON schema with the same options as {@link OptionSets#generated}.
+	 */
+	private static String schemaSource(int size) {
+		StringBuilder json = new StringBuilder("{\"program\": \"bench\", \"arguments\": \"file...\", \"options\": [\n");
+		for (char ch = 'a'; ch <= 'd'; ch++) {
+			json.append(String.format("{\"short\": \"%c\", \"long\": \"flag-%c\", \"type\": \"flag\", \"documentation\": \"flag %c\"},\n", ch,
+					ch, ch));
+		}
+		json.append("{\"short\": \"n\", \"long\": \"number\", \"mnemonic\": \"n\", \"type\": \"int\", \"documentation\": \"a number\"},\n");
+		json.append("{\"short\": \"s\", \"long\": \"string\", \"mnemonic\": \"s\", \"type\": \"string\", \"documentation\": \"a string\"}");
+		for (int i = 0; i < size; i++) {
+			json.append(String.format(",\n{\"long\": \"%s\", \"mnemonic\": \"value\", \"type\": \"string\", " +
+					"\"documentation\": \"generated option %d\"}", OptionSets.longName(i), i));
+		}
+		return json.append("]}\n").toString();
+	}
+
+	private static class Measurement {
+
+		private final double medianMillis;
+
+		private final double minMillis;
+
+		private final double processMillis;
+
+		private final long classes;
+
+		Measurement(long[] inProcess, long[] process, long classes) {
+			Arrays.sort(inProcess);
+			Arrays.sort(process);
+			this.medianMillis = inProcess[inProcess.length / 2] / 1e6;
+			this.minMillis = inProcess[0] / 1e6;
+			this.processMillis = process[process.length / 2] / 1e6;
+			this.classes = classes;
+		}
+	}
+}
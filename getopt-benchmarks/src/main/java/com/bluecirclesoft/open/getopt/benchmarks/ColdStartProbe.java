@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.OptionSchema;
+import com.bluecirclesoft.open.getopt.SpecSnapshot;
+
+/**
+ * The program {@link ColdStart} runs in a fresh JVM: it defines an option set in one of several
+ * ways, processes a command line, and prints the time from entering main to the return of
+ * processParams, and the number of classes loaded by then. Nothing is done before the clock starts;
+ * the class count is read afterwards, so the "baseline" mode (which does nothing) gives the count
+ * to subtract.
+ * <p></p>
+ * Arguments: the mode (baseline, fluent, reflective, snapshot or schema), the number of generated
+ * options, and for reflective the receptacle class, for snapshot and schema the file.
+ */
+public class ColdStartProbe {
+
+	public static void main(String... args) throws Exception {
+		long start = System.nanoTime();
+		String mode = args[0];
+		int size = Integer.parseInt(args[1]);
+		GetOpt getOpt;
+		switch (mode) {
+			case "baseline":
+				getOpt = null;
+				break;
+			case "fluent":
+				getOpt = OptionSets.generated(size, new OptionSets.Sink());
+				break;
+			case "reflective":
+				getOpt = GetOpt.createFromReceptacle(Class.forName(args[2]).getDeclaredConstructor().newInstance(), "bench", "file...");
+				break;
+			case "snapshot":
+				getOpt = SpecSnapshot.read(Paths.get(args[2]));
+				break;
+			case "schema":
+				getOpt = OptionSchema.load(Paths.get(args[2]));
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown mode " + mode);
+		}
+		if (getOpt != null) {
+			getOpt.processParams(commandLine(size));
+		}
+		long elapsed = System.nanoTime() - start;
+		long classes = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+		System.out.println(elapsed + " " + classes);
+	}
+
+	/**
+	 * The command line processed, the same for every mode.
+	 */
+	static String[] commandLine(int size) {
+		return new String[]{"-ab", "--number=42", "--" + OptionSets.longName(size / 2), "value", "file"};
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.converters.BigDecimalConverter;
+import com.bluecirclesoft.open.getopt.converters.BigIntegerConverter;
+import com.bluecirclesoft.open.getopt.converters.BooleanConverter;
+import com.bluecirclesoft.open.getopt.converters.ByteConverter;
+import com.bluecirclesoft.open.getopt.converters.CharConverter;
+import com.bluecirclesoft.open.getopt.converters.DoubleConverter;
+import com.bluecirclesoft.open.getopt.converters.FloatConverter;
+import com.bluecirclesoft.open.getopt.converters.IntegerConverter;
+import com.bluecirclesoft.open.getopt.converters.LongConverter;
+import com.bluecirclesoft.open.getopt.converters.ShortConverter;
+import com.bluecirclesoft.open.getopt.converters.StringConverter;
+
+/**
+ * Each of the standard converters, on a valid value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+	private final BigDecimalConverter bigDecimal = new BigDecimalConverter();
+
+	private final BigIntegerConverter bigInteger = new BigIntegerConverter();
+
+	private final BooleanConverter booleanConverter = new BooleanConverter();
+
+	private final ByteConverter byteConverter = new ByteConverter();
+
+	private final CharConverter charConverter = new CharConverter();
+
+	private final DoubleConverter doubleConverter = new DoubleConverter();
+
+	private final FloatConverter floatConverter = new FloatConverter();
+
+	private final IntegerConverter integerConverter = new IntegerConverter();
+
+	private final LongConverter longConverter = new LongConverter();
+
+	private final ShortConverter shortConverter = new ShortConverter();
+
+	private final StringConverter stringConverter = new StringConverter();
+
+	private GetOpt getOpt;
+
+	private OptionSpecification option;
+
+	@Setup
+	public void setup() {
+		getOpt = OptionSets.generated(0, new OptionSets.Sink());
+		option = getOpt.getDefinedShortOpt('s');
+	}
+
+	@Benchmark
+	public BigDecimal bigDecimal() {
+		return bigDecimal.convert("12345.6789", getOpt, option);
+	}
+
+	@Benchmark
+	public BigInteger bigInteger() {
+		return bigInteger.convert("123456789012345678901234567890", getOpt, option);
+	}
+
+	@Benchmark
+	public Boolean booleanValue() {
+		return booleanConverter.convert("true", getOpt, option);
+	}
+
+	@Benchmark
+	public Byte byteValue() {
+		return byteConverter.convert("42", getOpt, option);
+	}
+
+	@Benchmark
+	public Character charValue() {
+		return charConverter.convert("x", getOpt, option);
+	}
+
+	@Benchmark
+	public Double doubleValue() {
+		return doubleConverter.convert("3.14159", getOpt, option);
+	}
+
+	@Benchmark
+	public Float floatValue() {
+		return floatConverter.convert("3.14159", getOpt, option);
+	}
+
+	@Benchmark
+	public Integer intValue() {
+		return integerConverter.convert("123456", getOpt, option);
+	}
+
+	@Benchmark
+	public Long longValue() {
+		return longConverter.convert("1234567890123", getOpt, option);
+	}
+
+	@Benchmark
+	public Short shortValue() {
+		return shortConverter.convert("1234", getOpt, option);
+	}
+
+	@Benchmark
+	public String stringValue() {
+		return stringConverter.convert("value", getOpt, option);
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.ParsePolicy;
+import com.bluecirclesoft.open.getopt.ParseResult;
+
+/**
+ * Command lines that fail with a {@link CommandLineProcessingException}: the cost of finding the
+ * problem and building the exception (which carries the usage message). The garbage benchmarks
+ * parse a long command line of unknown options, reporting every problem and stopping at the first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+	@Param({"10", "1000"})
+	public int size;
+
+	private GetOpt getOpt;
+
+	private GetOpt failFast;
+
+	private final List<String> garbage = new ArrayList<>();
+
+	@Setup
+	public void setup() {
+		getOpt = OptionSets.generated(size, new OptionSets.Sink());
+		failFast = OptionSets.generated(size, new OptionSets.Sink()).setParsePolicy(ParsePolicy.failFast());
+		for (int i = 0; i < 10000; i++) {
+			garbage.add("--garbage-" + i);
+		}
+	}
+
+	private Object expectFailure(String... params) {
+		try {
+			List<String> result = getOpt.processParams(params);
+			throw new IllegalStateException("Command line was accepted: " + result);
+		} catch (CommandLineProcessingException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Object unknownShortOption() {
+		return expectFailure("-a", "-z", "file");
+	}
+
+	@Benchmark
+	public Object unknownLongOption() {
+		return expectFailure("--no-such-option", "file");
+	}
+
+	@Benchmark
+	public Object ambiguousLongOption() {
+		return expectFailure("--name-0000", "x", "file");
+	}
+
+	@Benchmark
+	public Object missingArgument() {
+		return expectFailure("-a", "--string");
+	}
+
+	@Benchmark
+	public Object badNumber() {
+		return expectFailure("--number=lots", "file");
+	}
+
+	@Benchmark
+	public Object exceptionMessage() {
+		return ((CommandLineProcessingException) expectFailure("--number=lots", "file")).getMessage();
+	}
+
+	@Benchmark
+	public ParseResult garbageCollectAll() {
+		return getOpt.parse(garbage);
+	}
+
+	@Benchmark
+	public ParseResult garbageFailFast() {
+		return failFast.parse(garbage);
+	}
+}
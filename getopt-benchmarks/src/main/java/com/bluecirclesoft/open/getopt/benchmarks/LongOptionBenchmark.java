@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.ParseResult;
+
+/**
+ * Long option lookup, by the exact name, by an abbreviation, and by an abbreviation that matches
+ * every generated option, as the option set grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongOptionBenchmark {
+
+	@Param({"10", "100", "1000", "10000", "100000"})
+	public int size;
+
+	private final OptionSets.Sink sink = new OptionSets.Sink();
+
+	private GetOpt getOpt;
+
+	private String exact;
+
+	private String abbreviated;
+
+	@Setup
+	public void setup() {
+		getOpt = OptionSets.generated(size, sink);
+		exact = "--" + OptionSets.longName(size / 2);
+		abbreviated = "--" + OptionSets.abbreviation(size / 2);
+	}
+
+	@Benchmark
+	public List<String> exact() {
+		return getOpt.processParams(exact, "value", "file");
+	}
+
+	@Benchmark
+	public List<String> abbreviated() {
+		return getOpt.processParams(abbreviated, "value", "file");
+	}
+
+	@Benchmark
+	public ParseResult ambiguous() {
+		return getOpt.parse("--name-", "value", "file");
+	}
+}
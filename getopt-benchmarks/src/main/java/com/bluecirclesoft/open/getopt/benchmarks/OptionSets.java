@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+
+/**
+ * Option sets for the benchmarks.
+ */
+final class OptionSets {
+
+	private OptionSets() {
+	}
+
+	/**
+	 * The long name of option {@code i} in a generated set; the names all have the same length, so
+	 * {@link #abbreviation(int)} is unique.
+	 */
+	static String longName(int i) {
+		return String.format("name-%06d-setting", i);
+	}
+
+	/**
+	 * A unique abbreviation of {@link #longName(int)}.
+	 */
+	static String abbreviation(int i) {
+		return String.format("name-%06d", i);
+	}
+
+	/**
+	 * Make an option set with the given number of long options taking an argument, plus the flags
+	 * -a, -b, -c, -d and the options -n (an integer) and -s (a string).
+	 *
+	 * @param size the number of generated long options
+	 * @param sink where the options' values go
+	 * @return the option set
+	 */
+	static GetOpt generated(int size, Sink sink) {
+		GetOpt getOpt = GetOpt.create("bench", "file...");
+		for (char ch = 'a'; ch <= 'd'; ch++) {
+			getOpt.addFlag("flag " + ch, sink::flag).addShortOpt(ch).addLongOpt("flag-" + ch);
+		}
+		getOpt.addParam("n", "a number", false, Integer.class, sink::number).addShortOpt('n').addLongOpt("number");
+		getOpt.addParam("s", "a string", false, sink::string).addShortOpt('s').addLongOpt("string");
+		for (int i = 0; i < size; i++) {
+			getOpt.addParam("value", "generated option " + i, false, sink::string).addLongOpt(longName(i));
+		}
+		return getOpt;
+	}
+
+	/**
+	 * Receives option values, so the consumers do real work.
+	 */
+	static class Sink {
+
+		int flags;
+
+		int number;
+
+		String string;
+
+		void flag(Boolean on) {
+			flags++;
+		}
+
+		void number(Integer value) {
+			number = value;
+		}
+
+		void string(String value) {
+			string = value;
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.OptionTable;
+
+/**
+ * Measures how the cost of an option set grows with the number of options: the time to define the
+ * options and freeze the set, the heap it retains (measured, and as estimated by getFootprint()),
+ * the latency of exact, abbreviated and unknown long option lookups, of detecting an ambiguous
+ * abbreviation (matching ten options, and matching all of them), and the time to render usage().
+ * <p></p>
+ * Each size runs in this JVM after a warm-up at the same size, so the figures are steady-state
+ * ones; {@link ColdStart} covers the first run. Run it from the benchmarks jar, with enough heap
+ * for the largest size: {@code java -Xmx2g -cp target/benchmarks.jar
+ * com.bluecirclesoft.open.getopt.benchmarks.Scalability [-n runs] [-s sizes] [-o report]}.
+ */
+public class Scalability {
+
+	/**
+	 * The number of lookups timed together, so the clock's resolution doesn't matter.
+	 */
+	private static final int LOOKUPS = 10000;
+
+	private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+	private final int runs;
+
+	private final OptionSets.Sink sink = new OptionSets.Sink();
+
+	/**
+	 * Results that must not be optimized away.
+	 */
+	private long blackhole;
+
+	private Scalability(int runs) {
+		this.runs = runs;
+	}
+
+	public static void main(String... args) throws Exception {
+		final int[] runs = {5};
+		final String[] sizes = {"10,100,1000,10000,100000"};
+		final String[] output = {null};
+		GetOpt options = GetOpt.create(Scalability.class, null);
+		options.addParam("n", "the number of runs to take the median of (default 5)", false, Integer.class, n -> runs[0] = n)
+				.addShortOpt('n')
+				.addLongOpt("runs");
+		options.addParam("sizes", "the option-set sizes, separated by commas (default 10,100,1000,10000,100000)", false,
+				s -> sizes[0] = s).addShortOpt('s').addLongOpt("sizes");
+		options.addParam("file", "also write the report to this file", false, s -> output[0] = s).addShortOpt('o').addLongOpt("output");
+		try {
+			options.processParams(args);
+		} catch (CommandLineProcessingException e) {
+			System.err.println(e.getMessage());
+			return;
+		}
+
+		Scalability scalability = new Scalability(runs[0]);
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%8s %10s %12s %12s %9s %9s %9s %11s %11s %10s", "options", "define ms", "heap KiB", "estimate KiB",
+				"exact ns", "abbrev ns", "unknown ns", "ambig10 us", "ambigAll us", "usage ms"));
+		System.out.println(report.get(0));
+		for (String size : sizes[0].split(",")) {
+			int n = Integer.parseInt(size.trim());
+			// once to warm up, once to measure
+			scalability.measure(n);
+			String line = scalability.measure(n);
+			System.out.println(line);
+			report.add(line);
+		}
+		if (output[0] != null) {
+			Files.write(new File(output[0]).toPath(), report, StandardCharsets.UTF_8);
+		}
+		if (scalability.blackhole == 42) {
+			System.out.println();
+		}
+	}
+
+	private String measure(int size) {
+		long[] define = new long[runs];
+		GetOpt getOpt = null;
+		for (int i = 0; i < runs; i++) {
+			getOpt = null;
+			long start = System.nanoTime();
+			getOpt = OptionSets.generated(size, sink).freeze();
+			define[i] = System.nanoTime() - start;
+		}
+		long heap = retainedHeap(size);
+
+		OptionTable table = getOpt.getOptionTable();
+		SplittableRandom random = new SplittableRandom(size);
+		String[] exact = new String[LOOKUPS];
+		String[] abbreviated = new String[LOOKUPS];
+		String[] unknown = new String[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++) {
+			int option = random.nextInt(size);
+			exact[i] = OptionSets.longName(option);
+			abbreviated[i] = OptionSets.abbreviation(option);
+			unknown[i] = "other-" + OptionSets.abbreviation(option);
+		}
+		double exactNanos = lookups(table, exact);
+		double abbreviatedNanos = lookups(table, abbreviated);
+		double unknownNanos = lookups(table, unknown);
+		// "name-00001" is a prefix of name-000010 to name-000019; "name-" is a prefix of all of them
+		String[] ambiguousTen = {String.format("name-%05d", random.nextInt(Math.max(1, size / 10)))};
+		double ambiguousTenNanos = lookups(table, ambiguousTen);
+		double ambiguousAllNanos = lookups(table, new String[]{"name-"});
+
+		long[] usage = new long[runs];
+		for (int i = 0; i < runs; i++) {
+			StringBuilder message = new StringBuilder();
+			long start = System.nanoTime();
+			getOpt.usage(message);
+			usage[i] = System.nanoTime() - start;
+			blackhole += message.length();
+		}
+
+		return String.format("%8d %10.2f %12d %12d %9.0f %9.0f %9.0f %11.1f %11.1f %10.2f", size, median(define) / 1e6, heap / 1024,
+				getOpt.getFootprint().getTotalBytes() / 1024, exactNanos, abbreviatedNanos, unknownNanos, ambiguousTenNanos / 1e3,
+				ambiguousAllNanos / 1e3, median(usage) / 1e6);
+	}
+
+	/**
+	 * The average time to resolve each of the names, including making the problem messages.
+	 */
+	private double lookups(OptionTable table, String[] names) {
+		int count = Math.max(LOOKUPS / names.length, 10);
+		long[] times = new long[runs];
+		List<String> problems = new ArrayList<>();
+		for (int run = 0; run < runs; run++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				for (String name : names) {
+					problems.clear();
+					blackhole += table.resolveLongOpt(name, problems) == null ? problems.size() : 1;
+				}
+			}
+			times[run] = System.nanoTime() - start;
+		}
+		return median(times) / (double) (count * names.length);
+	}
+
+	/**
+	 * Measure the heap held by a frozen option set of the given size: the growth of the used heap,
+	 * after full collections, when a few of them are kept.
+	 */
+	private long retainedHeap(int size) {
+		int copies = Math.max(1, Math.min(10, 100000 / Math.max(size, 1)));
+		long before = usedAfterGc();
+		GetOpt[] kept = new GetOpt[copies];
+		for (int i = 0; i < copies; i++) {
+			kept[i] = OptionSets.generated(size, sink).freeze();
+		}
+		long after = usedAfterGc();
+		blackhole += Arrays.hashCode(kept);
+		return Math.max(0, after - before) / copies;
+	}
+
+	private static long usedAfterGc() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return MEMORY.getHeapMemoryUsage().getUsed();
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.ParseResult;
+
+/**
+ * Parsing a reproducible mix of generated command lines, one at a time and in bulk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkloadBenchmark {
+
+	private static final int COMMAND_LINES = 1024;
+
+	@Param({"10", "1000"})
+	public int size;
+
+	@Param({"0", "0.1"})
+	public double invalidFraction;
+
+	private final OptionSets.Sink sink = new OptionSets.Sink();
+
+	private GetOpt getOpt;
+
+	private List<String[]> commandLines;
+
+	private int next;
+
+	@Setup
+	public void setup() {
+		getOpt = OptionSets.generated(size, sink);
+		commandLines = new ArgvGenerator(getOpt, 20151224L).setInvalidFraction(invalidFraction)
+				.stream(COMMAND_LINES)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public ParseResult parse() {
+		String[] argv = commandLines.get(next);
+		next = (next + 1) % COMMAND_LINES;
+		return getOpt.parse(argv);
+	}
+
+	/**
+	 * All the command lines at once; divide by {@value #COMMAND_LINES} for the time per command
+	 * line.
+	 */
+	@Benchmark
+	public List<ParseResult> parseAll() {
+		return getOpt.parseAll(commandLines);
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.bluecirclesoft.open.getopt.benchmarks;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.ParseResult;
+import com.bluecirclesoft.open.getopt.flavors.CommandLineProcessingFlavors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the generated command lines
+ */
+public class TestArgvGenerator {
+
+	private static GetOpt makeOptions(CommandLineProcessingFlavors flavor) {
+		GetOpt getOpt = GetOpt.create("test", "file...", flavor);
+		OptionSpecification json = getOpt.addFlag("json", on -> {
+		}).addShortOpt('j').addLongOpt("json");
+		OptionSpecification xml = getOpt.addFlag("xml", on -> {
+		}).addShortOpt('x').addLongOpt("xml");
+		getOpt.addFlag("verbose", on -> {
+		}).addShortOpt('v').addLongOpt("verbose");
+		getOpt.addFlag("quiet", on -> {
+		}).addShortOpt('q').addLongOpt("quiet");
+		getOpt.addParam("n", "count", false, Integer.class, n -> {
+		}).addShortOpt('n').addLongOpt("count");
+		getOpt.addParam("n", "big count", false, BigInteger.class, n -> {
+		}).addLongOpt("count-big");
+		getOpt.addParam("x", "ratio", false, Double.class, d -> {
+		}).addShortOpt('r').addLongOpt("ratio");
+		getOpt.addParam("c", "separator", false, Character.class, c -> {
+		}).addShortOpt('s').addLongOpt("separator");
+		getOpt.addParam("file", "configuration", true, s -> {
+		}).addShortOpt('c').addLongOpt("config");
+		OptionSpecification user = getOpt.addParam("name", "user", false, s -> {
+		}).addShortOpt('u').addLongOpt("user");
+		OptionSpecification password = getOpt.addParam("word", "password", false, s -> {
+		}).addShortOpt('p').addLongOpt("password");
+		getOpt.addMutuallyExclusive(json, xml);
+		getOpt.addRequires(user, password);
+		return getOpt;
+	}
+
+	@Test
+	public void testReproducible() {
+		GetOpt getOpt = makeOptions(CommandLineProcessingFlavors.GNU_GETOPT);
+		List<String> first = new ArgvGenerator(getOpt, 42).stream(50).map(Arrays::toString).collect(Collectors.toList());
+		List<String> second =
+				new ArgvGenerator(getOpt, 42).stream(50).parallel().map(Arrays::toString).collect(Collectors.toList());
+		Assert.assertEquals(first, second);
+		Assert.assertEquals(first.get(7), Arrays.toString(new ArgvGenerator(getOpt, 42).generate(7)));
+		Assert.assertFalse(first.equals(new ArgvGenerator(getOpt, 43).stream(50).map(Arrays::toString).collect(Collectors.toList())));
+	}
+
+	@Test
+	public void testValid() {
+		for (CommandLineProcessingFlavors flavor : Arrays.asList(CommandLineProcessingFlavors.GNU_GETOPT,
+				CommandLineProcessingFlavors.GNU_GETOPT_POSIXLY_CORRECT)) {
+			GetOpt getOpt = makeOptions(flavor);
+			new ArgvGenerator(getOpt, 1).stream(2000).forEach(argv -> {
+				ParseResult result = getOpt.parse(argv);
+				Assert.assertEquals(Arrays.toString(argv), Arrays.asList(), result.getProblems());
+			});
+		}
+	}
+
+	@Test
+	public void testInvalid() {
+		GetOpt getOpt = makeOptions(CommandLineProcessingFlavors.GNU_GETOPT);
+		ArgvGenerator generator = new ArgvGenerator(getOpt, 7).setInvalidFraction(1);
+		int[] seen = new int[ArgvGenerator.Invalid.values().length];
+		for (int i = 0; i < 2000; i++) {
+			ArgvGenerator.Invalid kind = generator.getInvalidKind(i);
+			Assert.assertNotNull(kind);
+			seen[kind.ordinal()]++;
+			String[] argv = generator.generate(i);
+			Assert.assertFalse(kind + " " + Arrays.toString(argv), getOpt.parse(argv).getProblems().isEmpty());
+		}
+		for (int count : seen) {
+			Assert.assertTrue(count > 0);
+		}
+
+		generator = new ArgvGenerator(getOpt, 7).setInvalidFraction(0.25).setInvalidKinds(ArgvGenerator.Invalid.BAD_VALUE);
+		long invalid = 0;
+		for (int i = 0; i < 2000; i++) {
+			ArgvGenerator.Invalid kind = generator.getInvalidKind(i);
+			Assert.assertEquals(kind != null, !getOpt.parse(generator.generate(i)).getProblems().isEmpty());
+			if (kind != null) {
+				Assert.assertEquals(ArgvGenerator.Invalid.BAD_VALUE, kind);
+				invalid++;
+			}
+		}
+		Assert.assertTrue(invalid > 400 && invalid < 600);
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.daemon;
+
+import java.io.PrintStream;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.ParseResult;
+
+/**
+ * A command served by the daemon.  Requests may run concurrently, so a command must not keep
+ * per-request state in fields; everything it needs is in the request and the parse result.
+ */
+public interface DaemonCommand {
+
+	/**
+	 * Get the options for this command.  Called once, when the command is registered; the daemon
+	 * freezes the option set and shares it between all requests, parsing with {@link
+	 * GetOpt#parse(String...)} so that no option consumers are invoked.
+	 *
+	 * @return the option set
+	 */
+	GetOpt getOptions();
+
+	/**
+	 * Run the command. Only called if the command line parsed without problems.
+	 *
+	 * @param request the request
+	 * @param result  the parsed command line
+	 * @param out     the client's standard output
+	 * @param err     the client's standard error
+	 * @return the exit code for the client
+	 * @throws Exception if the command fails; the stack trace is sent to the client's standard
+	 *                   error, and the exit code is 1
+	 */
+	int run(DaemonRequest request, ParseResult result, PrintStream out, PrintStream err) throws Exception;
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The wire format between the client and the daemon.  All integers are big-endian, and strings are
+ * an int byte count followed by that many bytes of UTF-8.
+ * <p></p>
+ * The client sends one request: the int {@link #VERSION}, the command name, an int argument count
+ * and the arguments, an int environment entry count and the name/value pairs, and the working
+ * directory.
+ * <p></p>
+ * The daemon answers with a series of frames, each a one-byte frame type followed by its payload:
+ * {@link #STDOUT} and {@link #STDERR} frames carry an int byte count and the bytes, and the final
+ * {@link #EXIT} frame carries the int exit code.
+ */
+public final class DaemonProtocol {
+
+	public static final int VERSION = 1;
+
+	public static final byte STDOUT = 1;
+
+	public static final byte STDERR = 2;
+
+	public static final byte EXIT = 3;
+
+	/**
+	 * Refuse strings longer than this, so a bad client can't make the daemon allocate without bound.
+	 */
+	static final int MAX_STRING_BYTES = 1 << 20;
+
+	/**
+	 * Refuse more arguments or environment entries than this.
+	 */
+	static final int MAX_ENTRIES = 1 << 16;
+
+	private DaemonProtocol() {
+	}
+
+	static void writeRequest(DataOutputStream out, DaemonRequest request) throws IOException {
+		out.writeInt(VERSION);
+		writeString(out, request.getCommand());
+		out.writeInt(request.getArguments().size());
+		for (String arg : request.getArguments()) {
+			writeString(out, arg);
+		}
+		out.writeInt(request.getEnvironment().size());
+		for (Map.Entry<String, String> entry : request.getEnvironment().entrySet()) {
+			writeString(out, entry.getKey());
+			writeString(out, entry.getValue());
+		}
+		writeString(out, request.getWorkingDirectory());
+		out.flush();
+	}
+
+	static DaemonRequest readRequest(DataInputStream in) throws IOException {
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported protocol version " + version);
+		}
+		String command = readString(in);
+		int argCount = readCount(in);
+		List<String> args = new ArrayList<>(argCount);
+		for (int i = 0; i < argCount; i++) {
+			args.add(readString(in));
+		}
+		int envCount = readCount(in);
+		Map<String, String> env = new LinkedHashMap<>();
+		for (int i = 0; i < envCount; i++) {
+			env.put(readString(in), readString(in));
+		}
+		String cwd = readString(in);
+		return new DaemonRequest(command, args, env, cwd);
+	}
+
+	private static int readCount(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		if (count < 0 || count > MAX_ENTRIES) {
+			throw new IOException("Bad entry count " + count);
+		}
+		return count;
+	}
+
+	static void writeString(DataOutputStream out, String str) throws IOException {
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > MAX_STRING_BYTES) {
+			throw new IOException("Bad string length " + length);
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
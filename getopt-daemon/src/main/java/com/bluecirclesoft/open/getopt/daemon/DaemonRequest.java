@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.daemon;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One invocation sent to the daemon by a client.
+ */
+public class DaemonRequest {
+
+	private final String command;
+
+	private final List<String> arguments;
+
+	private final Map<String, String> environment;
+
+	private final String workingDirectory;
+
+	/**
+	 * Constructor
+	 *
+	 * @param command          the name of the command to run
+	 * @param arguments        the command line arguments (not including the command name)
+	 * @param environment      the client's environment
+	 * @param workingDirectory the client's working directory
+	 */
+	public DaemonRequest(String command, List<String> arguments, Map<String, String> environment, String workingDirectory) {
+		this.command = command;
+		this.arguments = Collections.unmodifiableList(arguments);
+		this.environment = Collections.unmodifiableMap(environment);
+		this.workingDirectory = workingDirectory;
+	}
+
+	public String getCommand() {
+		return command;
+	}
+
+	public List<String> getArguments() {
+		return arguments;
+	}
+
+	public Map<String, String> getEnvironment() {
+		return environment;
+	}
+
+	public String getWorkingDirectory() {
+		return workingDirectory;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * A client for {@link GetOptDaemon}.  The protocol is simple enough (see {@link DaemonProtocol})
+ * that a native client can be written for the cases where starting even this class's JVM costs too
+ * much; this one is handy for testing, and as a reference.
+ * <p></p>
+ * Usage: {@code GetOptClient <socket file> <command> [ argument... ]}
+ */
+public final class GetOptClient {
+
+	private GetOptClient() {
+	}
+
+	/**
+	 * Send one request to the daemon, and copy its output.
+	 *
+	 * @param socketPath the daemon's socket file
+	 * @param request    the request
+	 * @param out        where to copy the command's standard output
+	 * @param err        where to copy the command's standard error
+	 * @return the command's exit code
+	 * @throws IOException if the daemon can't be reached, or hangs up early
+	 */
+	public static int run(Path socketPath, DaemonRequest request, OutputStream out, OutputStream err) throws IOException {
+		try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+			channel.connect(UnixDomainSocketAddress.of(socketPath));
+			DataOutputStream requestOut = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			DaemonProtocol.writeRequest(requestOut, request);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			while (true) {
+				byte frameType = in.readByte();
+				switch (frameType) {
+					case DaemonProtocol.STDOUT:
+					case DaemonProtocol.STDERR:
+						byte[] payload = new byte[in.readInt()];
+						in.readFully(payload);
+						OutputStream target = frameType == DaemonProtocol.STDOUT ? out : err;
+						target.write(payload);
+						target.flush();
+						break;
+					case DaemonProtocol.EXIT:
+						return in.readInt();
+					default:
+						throw new IOException("Unknown frame type " + frameType);
+				}
+			}
+		}
+	}
+
+	public static void main(String... args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("usage:\n" + GetOptClient.class.getName() + " socket-file command [ argument... ]");
+			System.exit(2);
+		}
+		DaemonRequest request = new DaemonRequest(args[1], Arrays.asList(args).subList(2, args.length), System.getenv(),
+				Paths.get("").toAbsolutePath().toString());
+		System.exit(run(Paths.get(args[0]), request, System.out, System.err));
+	}
+}
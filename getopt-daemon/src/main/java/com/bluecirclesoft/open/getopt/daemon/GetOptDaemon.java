@@ -0,0 +1,255 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.ParseResult;
+
+/**
+ * A resident process that parses and runs commands for thin clients over a Unix domain socket, so
+ * that each invocation pays neither JVM startup nor option definition. Each command's option set is
+ * built, frozen and warmed up once, when the command is registered.
+ * <p></p>
+ * Each connection is handled on its own virtual thread when the JVM supports them (Java 21 or
+ * later), and on a pooled platform thread otherwise. See {@link DaemonProtocol} for the wire
+ * format.
+ */
+public class GetOptDaemon implements Closeable {
+
+	private static final Logger logger = Logger.getLogger(GetOptDaemon.class.getName());
+
+	private final Path socketPath;
+
+	private final Map<String, RegisteredCommand> commands = new ConcurrentHashMap<>();
+
+	private final ExecutorService executor = newExecutor();
+
+	private ServerSocketChannel server;
+
+	private Thread acceptThread;
+
+	/**
+	 * Constructor
+	 *
+	 * @param socketPath the socket file to listen on; an existing file there is replaced
+	 */
+	public GetOptDaemon(Path socketPath) {
+		this.socketPath = socketPath;
+	}
+
+	/**
+	 * Register a command.  The command's option set is built, frozen and warmed up immediately.
+	 *
+	 * @param name    the name clients use to select the command
+	 * @param command the command
+	 * @return this
+	 */
+	public GetOptDaemon register(String name, DaemonCommand command) {
+		GetOpt getOpt = command.getOptions().freeze();
+		getOpt.parse();
+		getOpt.usage();
+		commands.put(name, new RegisteredCommand(command, getOpt));
+		return this;
+	}
+
+	/**
+	 * Start listening for clients.  Returns once the socket is bound.
+	 *
+	 * @return this
+	 * @throws IOException if the socket can't be bound
+	 */
+	public synchronized GetOptDaemon start() throws IOException {
+		Files.deleteIfExists(socketPath);
+		server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		server.bind(UnixDomainSocketAddress.of(socketPath));
+		acceptThread = new Thread(this::acceptLoop, "getopt-daemon-accept");
+		acceptThread.setDaemon(true);
+		acceptThread.start();
+		return this;
+	}
+
+	private void acceptLoop() {
+		while (true) {
+			SocketChannel client;
+			try {
+				client = server.accept();
+			} catch (ClosedChannelException e) {
+				return;
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Error accepting connection on " + socketPath, e);
+				return;
+			}
+			executor.execute(() -> serve(client));
+		}
+	}
+
+	private void serve(SocketChannel client) {
+		try (SocketChannel channel = client) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			DaemonRequest request = DaemonProtocol.readRequest(in);
+			PrintStream stdout = new PrintStream(new FrameOutputStream(out, DaemonProtocol.STDOUT), true, "UTF-8");
+			PrintStream stderr = new PrintStream(new FrameOutputStream(out, DaemonProtocol.STDERR), true, "UTF-8");
+			int exitCode;
+			try {
+				exitCode = handle(request, stdout, stderr);
+			} catch (RuntimeException e) {
+				logger.log(Level.WARNING, "Error handling command " + request.getCommand(), e);
+				stderr.println("error: " + e);
+				exitCode = 1;
+			}
+			stdout.flush();
+			stderr.flush();
+			synchronized (out) {
+				out.writeByte(DaemonProtocol.EXIT);
+				out.writeInt(exitCode);
+				out.flush();
+			}
+		} catch (IOException e) {
+			logger.log(Level.FINE, "Error serving client", e);
+		} catch (RuntimeException e) {
+			logger.log(Level.WARNING, "Error serving client", e);
+		}
+	}
+
+	private int handle(DaemonRequest request, PrintStream out, PrintStream err) {
+		RegisteredCommand registered = commands.get(request.getCommand());
+		if (registered == null) {
+			err.println("error: unknown command " + request.getCommand());
+			return 127;
+		}
+		ParseResult result = registered.getOpt.parse(request.getArguments());
+		if (!result.isSuccessful()) {
+			StringBuilder errStr = new StringBuilder();
+			errStr.append("\n");
+			for (String problem : result.getProblems()) {
+				errStr.append("error: ").append(problem).append("\n");
+			}
+			errStr.append("\n");
+			registered.getOpt.usage(errStr);
+			err.print(errStr);
+			return 2;
+		}
+		try {
+			return registered.command.run(request, result, out, err);
+		} catch (Exception e) {
+			e.printStackTrace(err);
+			return 1;
+		}
+	}
+
+	/**
+	 * Stop listening, and remove the socket file.  Requests already being served are allowed to
+	 * finish.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (server != null) {
+			server.close();
+			server = null;
+		}
+		executor.shutdown();
+		Files.deleteIfExists(socketPath);
+	}
+
+	private static ExecutorService newExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(r -> {
+				Thread thread = new Thread(r, "getopt-daemon-worker");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	private static class RegisteredCommand {
+
+		private final DaemonCommand command;
+
+		private final GetOpt getOpt;
+
+		private RegisteredCommand(DaemonCommand command, GetOpt getOpt) {
+			this.command = command;
+			this.getOpt = getOpt;
+		}
+	}
+
+	/**
+	 * Sends everything written to it as frames of one type.
+	 */
+	private static class FrameOutputStream extends OutputStream {
+
+		private final DataOutputStream out;
+
+		private final byte frameType;
+
+		private FrameOutputStream(DataOutputStream out, byte frameType) {
+			this.out = out;
+			this.frameType = frameType;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return;
+			}
+			synchronized (out) {
+				out.writeByte(frameType);
+				out.writeInt(len);
+				out.write(b, off, len);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			synchronized (out) {
+				out.flush();
+			}
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.daemon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bluecirclesoft.open.getopt.ByArgument;
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.ParseResult;
+import com.bluecirclesoft.open.getopt.TypeConverter;
+
+/**
+ * Runs the daemon and client against a socket file in a temporary directory.
+ */
+public class GetOptDaemonTest {
+
+	private Path directory;
+
+	private Path socket;
+
+	private GetOptDaemon daemon;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory("getopt-daemon");
+		socket = directory.resolve("daemon.sock");
+		daemon = new GetOptDaemon(socket).register("greet", new GreetCommand())
+				.register("broken", new BrokenCommand())
+				.start();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		daemon.close();
+		Files.deleteIfExists(directory);
+	}
+
+	private String[] run(String command, String... args) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		DaemonRequest request = new DaemonRequest(command, Arrays.asList(args), Collections.singletonMap("GREETING", "Hello"), "/tmp");
+		int exitCode = GetOptClient.run(socket, request, out, err);
+		return new String[]{String.valueOf(exitCode), out.toString(StandardCharsets.UTF_8.name()),
+				err.toString(StandardCharsets.UTF_8.name())};
+	}
+
+	@Test
+	public void testSuccess() throws Exception {
+		String[] result = run("greet", "-n", "world", "--shout");
+		Assert.assertEquals("0", result[0]);
+		Assert.assertEquals("HELLO, WORLD in /tmp\n", result[1]);
+		Assert.assertEquals("", result[2]);
+	}
+
+	@Test
+	public void testBadCommandLine() throws Exception {
+		String[] result = run("greet", "--bogus");
+		Assert.assertEquals("2", result[0]);
+		Assert.assertEquals("", result[1]);
+		Assert.assertTrue(result[2].contains("error: Unknown option: --bogus"));
+		Assert.assertTrue(result[2].contains("usage:"));
+	}
+
+	@Test
+	public void testUnknownCommand() throws Exception {
+		String[] result = run("nope");
+		Assert.assertEquals("127", result[0]);
+	}
+
+	@Test
+	public void testUnexpectedFailure() throws Exception {
+		String[] result = run("broken", "-x", "1");
+		Assert.assertEquals("1", result[0]);
+		Assert.assertTrue(result[2].contains("error: java.lang.IllegalStateException: broken converter"));
+	}
+
+	@Test
+	public void testConcurrentClients() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String[]>> futures = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				String name = "n" + i;
+				futures.add(pool.submit(() -> run("greet", "--name=" + name)));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				Assert.assertEquals("Hello, n" + i + " in /tmp\n", futures.get(i).get()[1]);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static class GreetCommand implements DaemonCommand {
+
+		private OptionSpecification name;
+
+		private OptionSpecification shout;
+
+		@Override
+		public GetOpt getOptions() {
+			GetOpt getOpt = GetOpt.create("greet", null);
+			name = getOpt.addParam("name", "who to greet", true, s -> {
+			}).addShortOpt('n').addLongOpt("name");
+			shout = getOpt.addFlag("shout the greeting", on -> {
+			}).addLongOpt("shout");
+			return getOpt;
+		}
+
+		@Override
+		public int run(DaemonRequest request, ParseResult result, PrintStream out, PrintStream err) {
+			String greeting = request.getEnvironment().get("GREETING") + ", " + result.getValues(name).get(0);
+			if (result.isSpecified(shout)) {
+				greeting = greeting.toUpperCase();
+			}
+			out.println(greeting + " in " + request.getWorkingDirectory());
+			return 0;
+		}
+	}
+
+	private static class BrokenCommand implements DaemonCommand {
+
+		@ByArgument(shortOpt = "x", mnemonic = "value", documentation = "a value that cannot be converted",
+				converter = BrokenConverter.class)
+		private String value;
+
+		@Override
+		public GetOpt getOptions() {
+			return GetOpt.createFromReceptacle(this, "broken", null);
+		}
+
+		@Override
+		public int run(DaemonRequest request, ParseResult result, PrintStream out, PrintStream err) {
+			return 0;
+		}
+	}
+
+	public static class BrokenConverter implements TypeConverter<String> {
+
+		@Override
+		public String convert(String input, GetOpt options, OptionSpecification option) {
+			throw new IllegalStateException("broken converter");
+		}
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The conversion of an option's argument; only recorded when it is slow (by default, 100
+ * microseconds or more).
+ */
+@Name("com.bluecirclesoft.open.getopt.GetOptConvert")
+@Label("GetOpt Convert")
+@Category("GetOpt")
+@Description("A slow conversion of an option argument")
+@Threshold("100 us")
+public class GetOptConvert extends Event {
+
+	@Label("Option")
+	String option;
+
+	@Label("Value")
+	@Description("The argument; only if the listener records command line values")
+	String value;
+
+	@Label("Succeeded")
+	boolean succeeded;
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Options defined from the annotations of a receptacle (createFromReceptacle).
+ */
+@Name("com.bluecirclesoft.open.getopt.GetOptDefine")
+@Label("GetOpt Define")
+@Category("GetOpt")
+@Description("Options defined from the annotations of a receptacle class")
+public class GetOptDefine extends Event {
+
+	@Label("Receptacle Class")
+	String receptacleClass;
+
+	@Label("Annotated Members")
+	int members;
+}
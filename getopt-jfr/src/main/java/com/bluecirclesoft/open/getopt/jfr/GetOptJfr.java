@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.jfr;
+
+import jdk.jfr.EventType;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+
+/**
+ * Makes GetOpt visible in JDK Flight Recorder recordings. Call {@link #install()} early in main
+ * (before the option sets are created), or attach a {@link JfrParseListener} to particular option
+ * sets with {@link GetOpt#setParseListener}.
+ * <p></p>
+ * The events are in the "GetOpt" category: GetOptDefine (createFromReceptacle), GetOptParse,
+ * GetOptConvert (only conversions over the threshold, 100 microseconds by default) and
+ * GetOptUsageRender.
+ */
+public final class GetOptJfr {
+
+	static final EventType DEFINE = EventType.getEventType(GetOptDefine.class);
+
+	static final EventType PARSE = EventType.getEventType(GetOptParse.class);
+
+	static final EventType CONVERT = EventType.getEventType(GetOptConvert.class);
+
+	static final EventType USAGE = EventType.getEventType(GetOptUsageRender.class);
+
+	private GetOptJfr() {
+	}
+
+	/**
+	 * Make every option set created from now on emit events, without command line values.
+	 *
+	 * @return the listener installed
+	 */
+	public static JfrParseListener install() {
+		return install(false);
+	}
+
+	/**
+	 * Make every option set created from now on emit events.
+	 *
+	 * @param recordValues whether to record command line values (which may be secrets) in the
+	 *                     events
+	 * @return the listener installed
+	 */
+	public static JfrParseListener install(boolean recordValues) {
+		JfrParseListener listener = new JfrParseListener(recordValues);
+		GetOpt.setDefaultParseListener(listener);
+		return listener;
+	}
+}
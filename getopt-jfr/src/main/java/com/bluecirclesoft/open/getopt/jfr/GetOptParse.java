@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One parse of a command line (processParams, parse or an incremental parse).
+ */
+@Name("com.bluecirclesoft.open.getopt.GetOptParse")
+@Label("GetOpt Parse")
+@Category("GetOpt")
+@Description("A command line parsed by GetOpt")
+public class GetOptParse extends Event {
+
+	@Label("Program")
+	String program;
+
+	@Label("Tokens")
+	int tokens;
+
+	@Label("Succeeded")
+	boolean succeeded;
+
+	@Label("Problems")
+	int problems;
+
+	@Label("First Problem Code")
+	String firstProblemCode;
+
+	@Label("First Problem")
+	@Description("The first problem's message; only if the listener records command line values")
+	String firstProblem;
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.jfr;
+
+import java.util.List;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.ParseListener;
+import com.bluecirclesoft.open.getopt.Problem;
+
+/**
+ * A {@link ParseListener} that emits JDK Flight Recorder events. When an event type isn't enabled
+ * in the recording (or nothing is recording), its hooks only check that and return.
+ * <p></p>
+ * An event is started by one hook and committed by the matching one on the same thread, so each
+ * thread keeps its events in progress; only one of each kind can be in progress on a thread.
+ * <p></p>
+ * Command line values (option arguments, and the problem messages that quote them) may be
+ * passwords or tokens, so they are only recorded if asked for.
+ *
+ * @see GetOptJfr#install()
+ */
+public class JfrParseListener implements ParseListener {
+
+	/**
+	 * The events in progress on a thread.
+	 */
+	private static class InProgress {
+
+		GetOptDefine define;
+
+		GetOptParse parse;
+
+		GetOptConvert convert;
+
+		GetOptUsageRender usage;
+	}
+
+	private final ThreadLocal<InProgress> inProgress = ThreadLocal.withInitial(InProgress::new);
+
+	private final boolean recordValues;
+
+	/**
+	 * Constructor, for a listener that doesn't record command line values.
+	 */
+	public JfrParseListener() {
+		this(false);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param recordValues whether to record the arguments of slow conversions, and the message of
+	 *                     a parse's first problem
+	 */
+	public JfrParseListener(boolean recordValues) {
+		this.recordValues = recordValues;
+	}
+
+	/**
+	 * Only while one of the events is enabled, so that parses don't read the clock otherwise.
+	 */
+	@Override
+	public boolean isEnabled() {
+		return GetOptJfr.PARSE.isEnabled() || GetOptJfr.CONVERT.isEnabled() || GetOptJfr.DEFINE.isEnabled() ||
+				GetOptJfr.USAGE.isEnabled();
+	}
+
+	@Override
+	public void definitionStarted(Class<?> receptacleClass) {
+		if (GetOptJfr.DEFINE.isEnabled()) {
+			GetOptDefine event = new GetOptDefine();
+			event.begin();
+			inProgress.get().define = event;
+		}
+	}
+
+	@Override
+	public void definitionFinished(Class<?> receptacleClass, int members, long elapsedNanos) {
+		if (!GetOptJfr.DEFINE.isEnabled()) {
+			return;
+		}
+		InProgress events = inProgress.get();
+		GetOptDefine event = events.define;
+		if (event != null) {
+			events.define = null;
+			event.end();
+			if (event.shouldCommit()) {
+				event.receptacleClass = receptacleClass.getName();
+				event.members = members;
+				event.commit();
+			}
+		}
+	}
+
+	@Override
+	public void parseStarted(GetOpt getOpt) {
+		if (GetOptJfr.PARSE.isEnabled()) {
+			GetOptParse event = new GetOptParse();
+			event.begin();
+			event.program = getOpt.getProgramName();
+			inProgress.get().parse = event;
+		}
+	}
+
+	@Override
+	public void conversionStarted(OptionSpecification option, String value) {
+		if (GetOptJfr.CONVERT.isEnabled()) {
+			GetOptConvert event = new GetOptConvert();
+			event.begin();
+			inProgress.get().convert = event;
+		}
+	}
+
+	@Override
+	public void conversionFinished(OptionSpecification option, String value, long elapsedNanos, boolean succeeded) {
+		if (!GetOptJfr.CONVERT.isEnabled()) {
+			return;
+		}
+		InProgress events = inProgress.get();
+		GetOptConvert event = events.convert;
+		if (event != null) {
+			events.convert = null;
+			event.end();
+			if (event.shouldCommit()) {
+				event.option = option.makeOptionDescriptor();
+				event.value = recordValues ? value : null;
+				event.succeeded = succeeded;
+				event.commit();
+			}
+		}
+	}
+
+	@Override
+	public void parseCompleted(int tokens, List<Problem> problems, long elapsedNanos) {
+		if (!GetOptJfr.PARSE.isEnabled()) {
+			return;
+		}
+		InProgress events = inProgress.get();
+		GetOptParse event = events.parse;
+		if (event != null) {
+			events.parse = null;
+			event.end();
+			if (event.shouldCommit()) {
+				event.tokens = tokens;
+				event.succeeded = problems.isEmpty();
+				event.problems = problems.size();
+				if (!problems.isEmpty()) {
+					event.firstProblemCode = problems.get(0).getCode().name();
+					event.firstProblem = recordValues ? problems.get(0).getMessage() : null;
+				}
+				event.commit();
+			}
+		}
+	}
+
+	@Override
+	public void usageStarted(GetOpt getOpt) {
+		if (GetOptJfr.USAGE.isEnabled()) {
+			GetOptUsageRender event = new GetOptUsageRender();
+			event.begin();
+			inProgress.get().usage = event;
+		}
+	}
+
+	@Override
+	public void usageFinished(GetOpt getOpt, int length, long elapsedNanos) {
+		if (!GetOptJfr.USAGE.isEnabled()) {
+			return;
+		}
+		InProgress events = inProgress.get();
+		GetOptUsageRender event = events.usage;
+		if (event != null) {
+			events.usage = null;
+			event.end();
+			if (event.shouldCommit()) {
+				event.program = getOpt.getProgramName();
+				event.length = length;
+				event.commit();
+			}
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.jfr;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bluecirclesoft.open.getopt.ByArgument;
+import com.bluecirclesoft.open.getopt.ByFlag;
+import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
+import com.bluecirclesoft.open.getopt.GetOpt;
+
+/**
+ * Tests for the Flight Recorder events
+ */
+public class TestJfrEvents {
+
+	public static class Receptacle {
+
+		@ByFlag(documentation = "be chatty", shortOpt = "v", longOpt = "verbose")
+		private boolean verbose;
+
+		@ByArgument(documentation = "how many", mnemonic = "n", shortOpt = "n", longOpt = "count")
+		private int count;
+	}
+
+	@After
+	public void tearDown() {
+		GetOpt.setDefaultParseListener(null);
+	}
+
+	private static List<RecordedEvent> events(Recording recording, String name) throws Exception {
+		Path file = Files.createTempFile("getopt", ".jfr");
+		try {
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file).stream().filter(e -> e.getEventType().getName().equals(name)).collect(
+					Collectors.toList());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testEvents() throws Exception {
+		GetOptJfr.install();
+		try (Recording recording = new Recording()) {
+			recording.enable(GetOptDefine.class);
+			recording.enable(GetOptParse.class);
+			recording.enable(GetOptConvert.class).withThreshold(java.time.Duration.ZERO);
+			recording.enable(GetOptUsageRender.class);
+			recording.start();
+
+			GetOpt getOpt = GetOpt.createFromReceptacle(new Receptacle(), "recorded", "file...");
+			getOpt.processParams("-v", "--count", "3", "file");
+			try {
+				getOpt.processParams("--count=lots");
+				Assert.fail();
+			} catch (CommandLineProcessingException e) {
+				// expected; reading the message renders the usage message
+				Assert.assertTrue(e.getMessage().contains("usage:"));
+			}
+			recording.stop();
+
+			List<RecordedEvent> defines = events(recording, "com.bluecirclesoft.open.getopt.GetOptDefine");
+			Assert.assertEquals(1, defines.size());
+			Assert.assertEquals(Receptacle.class.getName(), defines.get(0).getString("receptacleClass"));
+			Assert.assertEquals(2, defines.get(0).getInt("members"));
+
+			List<RecordedEvent> parses = events(recording, "com.bluecirclesoft.open.getopt.GetOptParse");
+			Assert.assertEquals(2, parses.size());
+			Assert.assertEquals("recorded", parses.get(0).getString("program"));
+			Assert.assertEquals(4, parses.get(0).getInt("tokens"));
+			Assert.assertTrue(parses.get(0).getBoolean("succeeded"));
+			Assert.assertFalse(parses.get(1).getBoolean("succeeded"));
+			Assert.assertEquals(1, parses.get(1).getInt("problems"));
+			Assert.assertEquals("NOT_A_NUMBER", parses.get(1).getString("firstProblemCode"));
+			// values aren't recorded unless asked for
+			Assert.assertNull(parses.get(1).getString("firstProblem"));
+
+			List<RecordedEvent> conversions = events(recording, "com.bluecirclesoft.open.getopt.GetOptConvert");
+			Assert.assertEquals(2, conversions.size());
+			Assert.assertEquals("-n", conversions.get(0).getString("option"));
+			Assert.assertNull(conversions.get(0).getString("value"));
+			Assert.assertFalse(conversions.get(1).getBoolean("succeeded"));
+
+			List<RecordedEvent> usages = events(recording, "com.bluecirclesoft.open.getopt.GetOptUsageRender");
+			Assert.assertEquals(1, usages.size());
+			Assert.assertTrue(usages.get(0).getInt("length") > 0);
+		}
+	}
+
+	@Test
+	public void testRecordingValues() throws Exception {
+		GetOptJfr.install(true);
+		try (Recording recording = new Recording()) {
+			recording.enable(GetOptParse.class);
+			recording.enable(GetOptConvert.class).withThreshold(java.time.Duration.ZERO);
+			recording.start();
+			GetOpt.createFromReceptacle(new Receptacle(), "recorded", "file...").parse("--count=lots");
+			recording.stop();
+
+			List<RecordedEvent> parses = events(recording, "com.bluecirclesoft.open.getopt.GetOptParse");
+			Assert.assertTrue(parses.get(0).getString("firstProblem").contains("'lots'"));
+			List<RecordedEvent> conversions = events(recording, "com.bluecirclesoft.open.getopt.GetOptConvert");
+			Assert.assertEquals("lots", conversions.get(0).getString("value"));
+		}
+	}
+
+	@Test
+	public void testNotRecording() {
+		GetOpt getOpt = GetOpt.createFromReceptacle(new Receptacle(), "quiet", "file...");
+		JfrParseListener listener = new JfrParseListener();
+		getOpt.setParseListener(listener);
+		Assert.assertFalse(listener.isEnabled());
+		Assert.assertNull(getOpt.getEnabledParseListener());
+		Assert.assertEquals(1, getOpt.processParams("-v", "-n", "2", "file").size());
+	}
+}
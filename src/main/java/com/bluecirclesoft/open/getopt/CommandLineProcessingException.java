@@ -17,24 +17,130 @@
 
 package com.bluecirclesoft.open.getopt;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * This exception is thrown when there's an error in the user-supplied command line arguments (user
  * did not meet the expectation of the software).
+ * <p></p>
+ * The message (the problems, followed by the usage message) is only rendered if it is asked for,
+ * so a caller that catches the exception and looks at {@link #getProblems()} pays for neither.
  *
  * @see GetOptSetupException
  */
 
 public class CommandLineProcessingException extends RuntimeException {
 
+	private final List<Problem> problems;
+
+	/**
+	 * True if the problems are listed one per "error: " line, as processParams() reports them.
+	 */
+	private final boolean listed;
+
+	private final GetOpt options;
+
+	private volatile String message;
+
 	public CommandLineProcessingException(String s, GetOpt options) {
-		super(createExceptionMessage(s, options));
+		this(Problem.message(s), options);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param problem the problem
+	 * @param options the option set, for the usage message (may be null)
+	 */
+	public CommandLineProcessingException(Problem problem, GetOpt options) {
+		this.problems = Collections.singletonList(problem);
+		this.listed = false;
+		this.options = options;
+	}
+
+	/**
+	 * Constructor, for a command line with several problems.
+	 *
+	 * @param problems the problems
+	 * @param options  the option set, for the usage message (may be null)
+	 */
+	public CommandLineProcessingException(List<Problem> problems, GetOpt options) {
+		this.problems = Collections.unmodifiableList(problems);
+		this.listed = true;
+		this.options = options;
 	}
 
-	private static String createExceptionMessage(String s, GetOpt options) {
+	private CommandLineProcessingException(List<Problem> problems, boolean listed, GetOpt options) {
+		this.problems = problems;
+		this.listed = listed;
+		this.options = options;
+	}
+
+	/**
+	 * Get a copy of this exception, with its problems placed at a token of the command line (e.g.
+	 * one thrown by a converter, which doesn't know where its argument came from).
+	 *
+	 * @param argvIndex the token's index
+	 * @return the copy (or this, if its problems are already placed there)
+	 */
+	public CommandLineProcessingException withArgvIndex(int argvIndex) {
+		Problem[] placed = new Problem[problems.size()];
+		boolean moved = false;
+		for (int i = 0; i < placed.length; i++) {
+			placed[i] = problems.get(i).withArgvIndex(argvIndex);
+			moved |= placed[i] != problems.get(i);
+		}
+		if (!moved) {
+			return this;
+		}
+		CommandLineProcessingException copy =
+				new CommandLineProcessingException(Collections.unmodifiableList(Arrays.asList(placed)), listed, options);
+		copy.initCause(getCause());
+		copy.setStackTrace(getStackTrace());
+		return copy;
+	}
+
+	/**
+	 * Get the problem with the command line, without the usage message.
+	 *
+	 * @return the problem
+	 */
+	public String getProblem() {
+		if (!listed) {
+			return problems.get(0).getMessage();
+		}
 		StringBuilder sb = new StringBuilder();
-		sb.append(s);
 		sb.append("\n");
-		options.usage(sb);
+		for (Problem problem : problems) {
+			sb.append("error: ").append(problem.getMessage()).append("\n");
+		}
 		return sb.toString();
 	}
+
+	/**
+	 * Get the problems with the command line.
+	 *
+	 * @return the problems
+	 */
+	public List<Problem> getProblems() {
+		return problems;
+	}
+
+	@Override
+	public String getMessage() {
+		String result = message;
+		if (result == null) {
+			StringBuilder sb = new StringBuilder();
+			sb.append(getProblem());
+			sb.append("\n");
+			if (options != null) {
+				options.usage(sb);
+			}
+			result = sb.toString();
+			message = result;
+		}
+		return result;
+	}
 }
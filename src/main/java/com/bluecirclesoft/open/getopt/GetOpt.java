@@ -21,22 +21,34 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.bluecirclesoft.open.getopt.converters.ConverterUtil;
 import com.bluecirclesoft.open.getopt.converters.UseTheDefaultConverter;
+import com.bluecirclesoft.open.getopt.flavors.BootstrapScan;
 import com.bluecirclesoft.open.getopt.flavors.CommandLineProcessingFlavor;
 import com.bluecirclesoft.open.getopt.flavors.CommandLineProcessingFlavors;
+import com.bluecirclesoft.open.getopt.flavors.GnuGetoptFlavor;
+import com.bluecirclesoft.open.getopt.flavors.IncrementalParser;
 
 /**
  * Simple class for doing command line argument processing. <ul> <li>Supports both flags (option is
@@ -98,61 +110,231 @@ public class GetOpt {
 
 	private final String restOfParamsDescription;
 
+	private final CommandLineProcessingFlavors flavorType;
+
 	private final CommandLineProcessingFlavor flavor;
 
-	private final Map<Character, OptionSpecification> byShort_ = new HashMap<>();
+	/**
+	 * The usage message, when it was rendered ahead of time (see {@link SpecSnapshot}).
+	 */
+	private volatile Supplier<String> prerenderedUsage;
+
+	/*
+	 * The option definitions, while options are being added. They are dropped when the option set
+	 * is frozen; from then on, only the (much more compact) OptionTable is kept.
+	 */
+
+	private Map<Character, OptionSpecification> byShort_ = new HashMap<>();
+
+	private NavigableMap<String, OptionSpecification> byLong_ = new TreeMap<>();
+
+	/**
+	 * The options, indexed by {@link OptionSpecification#getId()}. An option that has no id yet
+	 * hasn't been added.
+	 */
+	private List<OptionSpecification> optionsById = new ArrayList<>();
+
+	/**
+	 * Mnemonics and documentation, so options that share them share one string.
+	 */
+	private Map<String, String> sharedStrings = new HashMap<>();
+
+	/**
+	 * The ids of the required options.
+	 */
+	private long[] requiredMask = new long[0];
+
+	private final List<OptionConstraint> constraints = new ArrayList<>();
+
+	/**
+	 * The ids of the options that are required or take part in a constraint.
+	 */
+	private long[] constrainedMask = new long[0];
+
+	private final SortedMap<String, SubcommandDefinition> subcommands = new TreeMap<>();
+
+	private final List<OptionProvider> pendingProviders = new ArrayList<>();
+
+	/**
+	 * Guards the option definitions above. Readers don't take it; they use {@link #table}.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * The published snapshot of the option definitions, or null if none has been asked for yet.
+	 * Once one has, each change (or batch of changes) publishes a new snapshot, under the lock, so
+	 * readers never take the lock.
+	 */
+	private volatile OptionTable table;
+
+	/**
+	 * Set once a snapshot has been published; guarded by the lock.
+	 */
+	private boolean published = false;
+
+	/**
+	 * How many {@link #batch(Runnable)} calls are underway, and whether the options changed during
+	 * them; guarded by the lock.
+	 */
+	private int batchDepth = 0;
+
+	private boolean changedInBatch = false;
+
+	private volatile boolean hasPendingProviders = false;
+
+	private volatile boolean frozen = false;
+
+	private boolean transactional = false;
 
-	private final SortedMap<String, OptionSpecification> byLong_ = new TreeMap<>();
+	private volatile ParsePolicy parsePolicy = ParsePolicy.collectAll();
 
-	private final Set<OptionSpecification> options = new HashSet<>();
+	private static volatile ParseListener defaultParseListener;
 
-	private boolean hasShortOpt(Character ch) {
-		return byShort_.containsKey(ch);
+	private volatile ParseListener parseListener = defaultParseListener;
+
+	/**
+	 * Get a snapshot of the options defined so far. The snapshot doesn't change, even if more
+	 * options are added afterwards, so a parse should use one snapshot throughout.
+	 *
+	 * @return the snapshot
+	 */
+	public OptionTable getOptionTable() {
+		OptionTable snapshot = table;
+		if (snapshot == null) {
+			// only until the first snapshot is published, so that defining the options doesn't
+			// rebuild it after every change
+			synchronized (lock) {
+				snapshot = table;
+				if (snapshot == null) {
+					snapshot = publish();
+				}
+			}
+		}
+		return snapshot;
 	}
 
-	public OptionSpecification getShortOptProcessing(Character ch) {
-		OptionSpecification def = byShort_.get(ch);
-		if (def == null) {
-			throw new CommandLineProcessingException("No such option -" + ch, this);
+	/**
+	 * Build and publish a snapshot of the current definitions. Must hold the lock.
+	 */
+	private OptionTable publish() {
+		OptionTable snapshot = new OptionTable(byShort_, byLong_, optionsById, requiredMask, constraints, constrainedMask);
+		table = snapshot;
+		published = true;
+		return snapshot;
+	}
+
+	/**
+	 * The definitions changed: publish a new snapshot, unless none has been asked for yet, or a
+	 * batch is underway. Must hold the lock.
+	 */
+	private void changed() {
+		if (!published) {
+			return;
+		}
+		if (batchDepth > 0) {
+			changedInBatch = true;
+		} else {
+			publish();
 		}
-		return def;
 	}
 
-	private List<String> getLongMatches(String str) {
-		SortedMap<String, OptionSpecification> tail = byLong_.tailMap(str);
-		Iterator<Entry<String, OptionSpecification>> possibleMatchIt = tail.entrySet().iterator();
-		List<String> possibleMatches = new ArrayList<>();
-		while (possibleMatchIt.hasNext()) {
-			Entry<String, OptionSpecification> ent = possibleMatchIt.next();
-			if (ent.getKey().startsWith(str)) {
-				possibleMatches.add(ent.getKey());
-			} else {
-				break;
+	/**
+	 * Make several changes to the option set at once. Parses in other threads see either none or
+	 * all of the changes, and the snapshot that parses use is only rebuilt once, instead of after
+	 * every change. The definitions are run under the option set's lock, so they shouldn't block.
+	 *
+	 * @param definitions the changes
+	 * @return this
+	 */
+	public GetOpt batch(Runnable definitions) {
+		synchronized (lock) {
+			checkNotFrozen();
+			batchDepth++;
+			try {
+				definitions.run();
+			} finally {
+				batchDepth--;
+				if (batchDepth == 0 && changedInBatch) {
+					changedInBatch = false;
+					publish();
+				}
 			}
 		}
-		return possibleMatches;
+		return this;
 	}
 
-	public OptionSpecification getLongOpt(String str, Collection<String> problems) {
-		if (byLong_.containsKey(str)) {
-			return byLong_.get(str);
+	/**
+	 * Get a snapshot of the options, after defining the options of any pending option providers
+	 * that could define a long option.
+	 *
+	 * @param longOptionName the long option (possibly abbreviated) as given on the command line, or
+	 *                       {@code null} to load all pending providers
+	 * @return the snapshot
+	 * @see OptionProvider
+	 */
+	public OptionTable getOptionTable(String longOptionName) {
+		if (hasPendingProviders) {
+			loadOptionProviders(provider -> longOptionName == null || couldDefine(provider, longOptionName));
 		}
-		List<String> matches = getLongMatches(str);
-		if (matches.isEmpty()) {
-			problems.add("Unknown option: --" + str);
-			return null;
-		} else if (matches.size() > 1) {
-			for (int i = 0; i < matches.size(); i++) {
-				matches.set(i, "--" + matches.get(i));
-			}
-			problems.add("Option --" + str + " is not unique; it matches:");
-			for (String match : matches) {
-				problems.add("    --" + match);
-			}
-			return null;
-		} else {
-			return byLong_.get(matches.get(0));
+		return getOptionTable();
+	}
+
+	/**
+	 * Are there option providers whose options haven't been defined yet?
+	 *
+	 * @return yes or no
+	 */
+	public boolean hasPendingOptionProviders() {
+		return hasPendingProviders;
+	}
+
+	/**
+	 * Look up a short option.
+	 *
+	 * @param ch the option character
+	 * @return the option, or {@code null} if there is no such option
+	 */
+	public OptionSpecification getShortOpt(Character ch) {
+		OptionSpecification def = getOptionTable().getShortOpt(ch);
+		if (def == null && hasPendingProviders) {
+			// providers are keyed by long option, so any of them might define this
+			def = getOptionTable(null).getShortOpt(ch);
 		}
+		return def;
+	}
+
+	/**
+	 * Look up a short option among the options defined so far, without loading any option
+	 * providers.
+	 *
+	 * @param ch the option character
+	 * @return the option, or {@code null} if there is no such option yet
+	 */
+	public OptionSpecification getDefinedShortOpt(Character ch) {
+		return getOptionTable().getShortOpt(ch);
+	}
+
+	/**
+	 * Look up a long option by its exact name among the options defined so far, without loading
+	 * any option providers.
+	 *
+	 * @param name the option name, without dashes
+	 * @return the option, or {@code null} if there is no such option yet
+	 */
+	public OptionSpecification getDefinedLongOpt(String name) {
+		return getOptionTable().getLongOpt(name);
+	}
+
+	public OptionSpecification getShortOptProcessing(Character ch) {
+		OptionSpecification def = getShortOpt(ch);
+		if (def == null) {
+			throw new CommandLineProcessingException(new Problem(ProblemCode.NO_SUCH_OPTION, null, "-" + ch), this);
+		}
+		return def;
+	}
+
+	public OptionSpecification getLongOpt(String str, Collection<String> problems) {
+		return getOptionTable(str).resolveLongOpt(str, problems);
 	}
 
 	/**
@@ -162,6 +344,7 @@ public class GetOpt {
 	 */
 	private GetOpt(String programName, CommandLineProcessingFlavors flavor, String restOfParamsDescription) {
 		this.programName = programName;
+		this.flavorType = flavor;
 		this.flavor = flavor.getBuilder().apply(this);
 		this.restOfParamsDescription = restOfParamsDescription;
 	}
@@ -230,6 +413,24 @@ public class GetOpt {
 	}
 
 	private void defineFromClass(Object receptacle) {
+		ParseListener listener = getEnabledParseListener();
+		if (listener == null) {
+			defineMembers(receptacle);
+		} else {
+			listener.definitionStarted(receptacle.getClass());
+			long start = System.nanoTime();
+			int members = defineMembers(receptacle);
+			listener.definitionFinished(receptacle.getClass(), members, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Define the options for the annotated fields and methods of a receptacle.
+	 *
+	 * @return the number of annotated fields and methods
+	 */
+	private int defineMembers(Object receptacle) {
+		int members = 0;
 		Class definitionClass = receptacle.getClass();
 		for (Field field : definitionClass.getDeclaredFields()) {
 			ByArgument byArgument = field.getAnnotation(ByArgument.class);
@@ -239,6 +440,7 @@ public class GetOpt {
 				throw new GetOptSetupException(
 						"Both @ByFlag and @ByArgument set on " + field + "; " + "should be one or the other, but not both");
 			} else if (byArgument != null) {
+				members++;
 				processParameterAnnotation(byArgument, type, (Object newValue) -> {
 					field.setAccessible(true);
 					try {
@@ -248,6 +450,7 @@ public class GetOpt {
 					}
 				});
 			} else if (byFlag != null) {
+				members++;
 				if (type != Boolean.class && type != Boolean.TYPE) {
 					throw new GetOptSetupException("Field " + field + " must be boolean to " + "be annotated with @ByFlag");
 				}
@@ -275,6 +478,7 @@ public class GetOpt {
 				throw new GetOptSetupException("Method " + method + ": methods annotated " +
 						"with @Flag or @Parameter must be 'setters'; that is, they must take " + "one parameter and return 'void'");
 			}
+			members++;
 			Class type = method.getParameters()[0].getType();
 			if (byArgument != null) {
 				processParameterAnnotation(byArgument, type, (Object newValue) -> {
@@ -299,6 +503,7 @@ public class GetOpt {
 				});
 			}
 		}
+		return members;
 	}
 
 	private <M> void processParameterAnnotation(ByArgument byArgument, Class<M> type, Consumer<M> setter) {
@@ -318,9 +523,8 @@ public class GetOpt {
 		}
 
 		OptionSpecification def =
-				OptionSpecification.makeOption(this, byArgument.mnemonic(), byArgument.documentation(), byArgument.required(),
-						ArgumentSpecification.REQUIRED, null,
-						(argument, opt) -> setter.accept(converter.convert(argument, GetOpt.this, opt)));
+				OptionSpecification.makeConvertedOption(this, share(byArgument.mnemonic()), share(byArgument.documentation()),
+						byArgument.required(), converter, setter);
 		for (String opt : byArgument.shortOpt()) {
 			Character shortOptChar = null;
 			if (opt != null && !opt.isEmpty()) {
@@ -341,7 +545,7 @@ public class GetOpt {
 	}
 
 	private void processFlagAnnotation(ByFlag byFlag, Consumer<Boolean> setter) {
-		OptionSpecification def = OptionSpecification.makeFlag(this, byFlag.documentation(), setter);
+		OptionSpecification def = OptionSpecification.makeFlag(this, share(byFlag.documentation()), setter);
 		for (String opt : byFlag.shortOpt()) {
 			Character shortOptChar = null;
 			if (opt != null && !opt.isEmpty()) {
@@ -376,13 +580,17 @@ public class GetOpt {
 		// Step 1 - determine whether we need to throw any exceptions,
 		// so that 'this' will be left in a consistent state
 
+		checkNotFrozen();
 		if (documentation == null || documentation.isEmpty()) {
 			throw new GetOptSetupException("documentation is not specified");
 		}
 
 		// Step 2 - add the options to this
-		OptionSpecification ph = OptionSpecification.makeFlag(this, documentation, onEncounter);
-		options.add(ph);
+		OptionSpecification ph = OptionSpecification.makeFlag(this, share(documentation), onEncounter);
+		synchronized (lock) {
+			checkNotFrozen();
+			register(ph);
+		}
 		return ph;
 	}
 
@@ -400,6 +608,7 @@ public class GetOpt {
 	 */
 	public <T> OptionSpecification addParam(String paramMnemonic, String documentation, boolean required, Class<T> type,
 	                                        Consumer<T> onEncounter) {
+		checkNotFrozen();
 		if (documentation == null || documentation.isEmpty()) {
 			throw new GetOptSetupException("documentation is not specified");
 		}
@@ -407,10 +616,16 @@ public class GetOpt {
 			throw new GetOptSetupException("argument mnemonic is not specified");
 		}
 
+		TypeConverter<T> converter = ConverterUtil.getDefaultConverter(type);
+		if (converter == null) {
+			throw new GetOptSetupException("Could not find a type converter class for " + "type " + type.getName());
+		}
 		OptionSpecification ph =
-				OptionSpecification.makeOption(this, paramMnemonic, documentation, required, ArgumentSpecification.REQUIRED, null,
-						(argument, opt) -> onEncounter.accept(ConverterUtil.getDefaultConverter(type).convert(argument, this, opt)));
-		options.add(ph);
+				OptionSpecification.makeConvertedOption(this, share(paramMnemonic), share(documentation), required, converter, onEncounter);
+		synchronized (lock) {
+			checkNotFrozen();
+			register(ph);
+		}
 		return ph;
 	}
 
@@ -441,6 +656,25 @@ public class GetOpt {
 	 * @param errStr the output string builder
 	 */
 	public void usage(StringBuilder errStr) {
+		ParseListener listener = getEnabledParseListener();
+		if (listener == null) {
+			renderUsage(errStr);
+		} else {
+			listener.usageStarted(this);
+			long start = System.nanoTime();
+			int length = errStr.length();
+			renderUsage(errStr);
+			listener.usageFinished(this, errStr.length() - length, System.nanoTime() - start);
+		}
+	}
+
+	private void renderUsage(StringBuilder errStr) {
+		Supplier<String> prerendered = prerenderedUsage;
+		if (prerendered != null) {
+			errStr.append(prerendered.get());
+			return;
+		}
+		Set<OptionSpecification> options = getOptionTable(null).getOptions();
 		Set<OptionSpecification> sampleCommandDisplayed = new HashSet<>();
 		errStr.append("usage:\n");
 		errStr.append(programName);
@@ -521,34 +755,435 @@ public class GetOpt {
 				errStr.append('\n');
 			}
 		}
+
+		if (!subcommands.isEmpty()) {
+			errStr.append("\ncommands:\n");
+			for (SubcommandDefinition subcommand : subcommands.values()) {
+				ParameterDescription desc = new ParameterDescription();
+				desc.setDocumentation(subcommand.documentation);
+				errStr.append("  ");
+				errStr.append(subcommand.name);
+				errStr.append('\n');
+				for (String doc : desc.getBrokenDocumentation()) {
+					errStr.append("    ");
+					errStr.append(doc);
+					errStr.append('\n');
+				}
+			}
+		}
 	}
 
 	public <T> void addShortOpt(OptionSpecification optionSpecification, Character opt) {
-		if (hasShortOpt(opt)) {
-			throw new GetOptSetupException("Short option -" + opt + " specified more than once");
+		synchronized (lock) {
+			checkNotFrozen();
+			if (byShort_.containsKey(opt)) {
+				throw new GetOptSetupException("Short option -" + opt + " specified more than once");
+			}
+			byShort_.put(opt, optionSpecification);
+			optionSpecification.appendShortOpt(opt);
+			register(optionSpecification);
 		}
-		byShort_.put(opt, optionSpecification);
-		options.add(optionSpecification);
 	}
 
 	public <T> void addLongOpt(OptionSpecification optionSpecification, String opt) {
-		if (byLong_.containsKey(opt)) {
-			throw new GetOptSetupException("Long option " + opt + " has already been defined");
+		synchronized (lock) {
+			checkNotFrozen();
+			if (byLong_.containsKey(opt)) {
+				throw new GetOptSetupException("Long option " + opt + " has already been defined");
+			}
+			byLong_.put(opt, optionSpecification);
+			optionSpecification.appendLongOpt(opt);
+			register(optionSpecification);
+		}
+	}
+
+	/**
+	 * Add an option to the option set, giving it the next id, unless it has one already (each of
+	 * its names registers it), and publish the change. Must hold the lock.
+	 */
+	private void register(OptionSpecification optionSpecification) {
+		if (optionSpecification.getId() < 0) {
+			int id = optionsById.size();
+			optionSpecification.setId(id);
+			optionsById.add(optionSpecification);
+			if (optionSpecification.isRequired()) {
+				requiredMask = setBit(requiredMask, id);
+				constrainedMask = setBit(constrainedMask, id);
+			}
+			if (optionSpecification.getShortOptList().isEmpty() && optionSpecification.getLongOptList().isEmpty()) {
+				// it can't be used until it has a name, which publishes it
+				return;
+			}
+		}
+		changed();
+	}
+
+	private static long[] setBit(long[] bits, int id) {
+		int word = id >>> 6;
+		if (word >= bits.length) {
+			bits = Arrays.copyOf(bits, word + 1);
+		}
+		bits[word] |= 1L << id;
+		return bits;
+	}
+
+	/**
+	 * Get the number of options defined; option ids are from 0 to this, exclusive.
+	 *
+	 * @return the number of options
+	 */
+	public int getOptionCount() {
+		return getOptionTable().getOptionCount();
+	}
+
+	/**
+	 * Get an option by its id.
+	 *
+	 * @param id the id
+	 * @return the option
+	 */
+	public OptionSpecification getOption(int id) {
+		return getOptionTable().getOption(id);
+	}
+
+	/**
+	 * Allow at most one of a group of options on the command line.
+	 *
+	 * @param group the options
+	 */
+	public void addMutuallyExclusive(OptionSpecification... group) {
+		addConstraint(new OptionConstraint(OptionConstraint.Kind.MUTUALLY_EXCLUSIVE, null, checkGroup(group)));
+	}
+
+	/**
+	 * Require at least one of a group of options on the command line.
+	 *
+	 * @param group the options
+	 */
+	public void addAtLeastOneOf(OptionSpecification... group) {
+		addConstraint(new OptionConstraint(OptionConstraint.Kind.AT_LEAST_ONE, null, checkGroup(group)));
+	}
+
+	/**
+	 * If an option is given on the command line, require some other options too.
+	 *
+	 * @param option   the option
+	 * @param required the options it needs
+	 */
+	public void addRequires(OptionSpecification option, OptionSpecification... required) {
+		checkGroup(option);
+		addConstraint(new OptionConstraint(OptionConstraint.Kind.REQUIRES, option, checkGroup(required)));
+	}
+
+	private List<OptionSpecification> checkGroup(OptionSpecification... group) {
+		checkNotFrozen();
+		if (group.length == 0) {
+			throw new GetOptSetupException("No options given for the constraint");
+		}
+		for (OptionSpecification option : group) {
+			if (option.getId() < 0 || option.getId() >= optionsById.size() || optionsById.get(option.getId()) != option) {
+				throw new GetOptSetupException("Option " + option.makeOptionDescriptor() + " does not belong to this option set");
+			}
+		}
+		return Arrays.asList(group.clone());
+	}
+
+	private void addConstraint(OptionConstraint constraint) {
+		synchronized (lock) {
+			checkNotFrozen();
+			long[] mask = Arrays.copyOf(constrainedMask, Math.max(constrainedMask.length, (optionsById.size() + 63) >>> 6));
+			constraint.addTo(mask);
+			constrainedMask = mask;
+			constraints.add(constraint);
+			changed();
+		}
+	}
+
+	private void checkNotFrozen() {
+		if (frozen) {
+			throw new GetOptSetupException("Options cannot be added after the option set has been frozen");
+		}
+	}
+
+	/**
+	 * Freeze the option definitions.  Once frozen, no more options may be added, and the option set
+	 * may be shared by any number of threads calling {@link #parse(String...)} at once.
+	 *
+	 * @return this
+	 */
+	public GetOpt freeze() {
+		synchronized (lock) {
+			if (!frozen) {
+				loadOptionProviders(provider -> true);
+				frozen = true;
+				getOptionTable();
+				// the table has everything now
+				byShort_ = Collections.emptyMap();
+				byLong_ = Collections.emptyNavigableMap();
+				optionsById = Collections.emptyList();
+				sharedStrings = null;
+			}
+		}
+		return this;
+	}
+
+	public String getProgramName() {
+		return programName;
+	}
+
+	String getRestOfParamsDescription() {
+		return restOfParamsDescription;
+	}
+
+	/**
+	 * Get the kind of command line processing this option set does.
+	 *
+	 * @return the flavor
+	 */
+	public CommandLineProcessingFlavors getFlavorType() {
+		return flavorType;
+	}
+
+	/**
+	 * Add an option that was made outside the add methods (e.g. read from a snapshot), giving it
+	 * the next id.
+	 */
+	void define(OptionSpecification optionSpecification) {
+		synchronized (lock) {
+			checkNotFrozen();
+			register(optionSpecification);
+		}
+	}
+
+	/**
+	 * Use a usage message rendered ahead of time. Only for frozen option sets, whose usage can't
+	 * change.
+	 */
+	void setPrerenderedUsage(Supplier<String> usage) {
+		if (!frozen) {
+			throw new GetOptSetupException("Only a frozen option set can have a prerendered usage message");
+		}
+		prerenderedUsage = usage;
+	}
+
+	/**
+	 * Share equal mnemonic and documentation strings between options.
+	 */
+	private String share(String string) {
+		if (string == null) {
+			return null;
+		}
+		synchronized (lock) {
+			if (sharedStrings == null) {
+				return string;
+			}
+			String shared = sharedStrings.putIfAbsent(string, string);
+			return shared == null ? string : shared;
+		}
+	}
+
+	/**
+	 * Estimate the memory held by this option set, e.g. to compare it before and after {@link
+	 * #freeze()}.
+	 *
+	 * @return the estimate
+	 */
+	public OptionFootprint getFootprint() {
+		OptionTable snapshot = getOptionTable();
+		long optionBytes = 0;
+		Map<String, String> strings = new IdentityHashMap<>();
+		for (OptionSpecification option : snapshot.getOptions()) {
+			optionBytes += option.estimateBytes();
+			for (String longOpt : option.getLongOptList()) {
+				strings.put(longOpt, longOpt);
+			}
+			if (option.getMnemonic() != null) {
+				strings.put(option.getMnemonic(), option.getMnemonic());
+			}
+			strings.put(option.getDocumentation(), option.getDocumentation());
+		}
+		long stringBytes = 0;
+		for (String string : strings.keySet()) {
+			stringBytes += OptionFootprint.string(string);
+		}
+		long builderBytes = 0;
+		synchronized (lock) {
+			if (!frozen) {
+				builderBytes = OptionFootprint.hashMap(byShort_.size()) + OptionFootprint.treeMap(byLong_.size()) +
+						OptionFootprint.arrayList(optionsById.size()) + OptionFootprint.hashMap(sharedStrings.size());
+			}
+		}
+		return new OptionFootprint(snapshot.getOptionCount(), strings.size(), optionBytes, stringBytes, snapshot.estimateBytes(),
+				builderBytes);
+	}
+
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * In transactional mode, {@link #processParams(String...)} checks the whole command line
+	 * (including converting the option arguments) before invoking any option consumers, so a bad
+	 * command line leaves the consumers untouched. Without it, consumers are invoked as the options
+	 * are found.
+	 *
+	 * @param transactional transactional or not
+	 * @return this
+	 * @see ParseResult#commit()
+	 */
+	public GetOpt setTransactional(boolean transactional) {
+		checkNotFrozen();
+		this.transactional = transactional;
+		return this;
+	}
+
+	public boolean isTransactional() {
+		return transactional;
+	}
+
+	/**
+	 * Set how much of a bad command line a parse examines, and the limits on what any command line
+	 * can cost. Like the listener, this can be changed at any time; parses already underway keep the
+	 * policy they started with.
+	 *
+	 * @param parsePolicy the policy, or null for {@link ParsePolicy#collectAll()}
+	 * @return this
+	 */
+	public GetOpt setParsePolicy(ParsePolicy parsePolicy) {
+		this.parsePolicy = parsePolicy == null ? ParsePolicy.collectAll() : parsePolicy;
+		return this;
+	}
+
+	public ParsePolicy getParsePolicy() {
+		return parsePolicy;
+	}
+
+	/**
+	 * Install a listener to be told what each parse does (for instance, {@link ParseStatistics}).
+	 * Unlike the rest of the setup, this can be changed at any time, even after the option set is
+	 * frozen; parses already underway keep the listener they started with.
+	 *
+	 * @param parseListener the listener, or null for none
+	 * @return this
+	 */
+	public GetOpt setParseListener(ParseListener parseListener) {
+		this.parseListener = parseListener;
+		return this;
+	}
+
+	public ParseListener getParseListener() {
+		return parseListener;
+	}
+
+	/**
+	 * Get the listener, if there is one and it wants to hear about what is starting now.
+	 *
+	 * @return the listener, or null
+	 * @see ParseListener#isEnabled()
+	 */
+	public ParseListener getEnabledParseListener() {
+		ParseListener listener = parseListener;
+		return listener != null && listener.isEnabled() ? listener : null;
+	}
+
+	/**
+	 * Set the listener that option sets created from now on start with (so it also sees the
+	 * options defined by {@link #createFromReceptacle(Object, String, String)}).
+	 *
+	 * @param parseListener the listener, or null for none
+	 * @see #setParseListener(ParseListener)
+	 */
+	public static void setDefaultParseListener(ParseListener parseListener) {
+		defaultParseListener = parseListener;
+	}
+
+	public static ParseListener getDefaultParseListener() {
+		return defaultParseListener;
+	}
+
+	/**
+	 * Register a provider whose options are only defined when the command line could use them.
+	 *
+	 * @param provider the provider
+	 * @see OptionProvider
+	 */
+	public void addOptionProvider(OptionProvider provider) {
+		synchronized (lock) {
+			checkNotFrozen();
+			pendingProviders.add(provider);
+			hasPendingProviders = true;
+		}
+	}
+
+	/**
+	 * Register all the {@link OptionProvider}s found by {@link ServiceLoader}.
+	 *
+	 * @param classLoader the class loader to search
+	 * @see OptionProvider
+	 */
+	public void loadOptionProviders(ClassLoader classLoader) {
+		for (OptionProvider provider : ServiceLoader.load(OptionProvider.class, classLoader)) {
+			addOptionProvider(provider);
+		}
+	}
+
+	/**
+	 * Could the provider define a long option that the given (possibly abbreviated) option name
+	 * selects?
+	 */
+	private static boolean couldDefine(OptionProvider provider, String str) {
+		for (String prefix : provider.getLongOptionPrefixes()) {
+			if (str.startsWith(prefix) || prefix.startsWith(str)) {
+				return true;
+			}
+		}
+		for (String name : provider.getLongOptionNames()) {
+			if (name.startsWith(str)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void loadOptionProviders(Predicate<OptionProvider> selector) {
+		// the providers are run under the lock, so that a parse in another thread that needs the
+		// same provider waits for its options rather than finding them missing
+		synchronized (lock) {
+			Iterator<OptionProvider> it = pendingProviders.iterator();
+			List<OptionProvider> selected = new ArrayList<>();
+			while (it.hasNext()) {
+				OptionProvider provider = it.next();
+				if (selector.test(provider)) {
+					selected.add(provider);
+					it.remove();
+				}
+			}
+			hasPendingProviders = !pendingProviders.isEmpty();
+			if (!selected.isEmpty()) {
+				batch(() -> {
+					for (OptionProvider provider : selected) {
+						provider.defineOptions(this);
+					}
+				});
+			}
 		}
-		byLong_.put(opt, optionSpecification);
-		options.add(optionSpecification);
 	}
 
 	public boolean isFlagSet(char shortOpt) {
-		OptionSpecification optionSpecification = byShort_.get(shortOpt);
+		OptionSpecification optionSpecification = getOptionTable().getShortOpt(shortOpt);
 		if (optionSpecification == null) {
 			throw new GetOptSetupException("Short option '" + shortOpt + "' not defined");
 		}
 		return optionSpecification.isSpecified();
 	}
 
+	/**
+	 * Get the options defined so far.
+	 *
+	 * @return the options, in the order they were defined
+	 */
 	public Set<OptionSpecification> getOptions() {
-		return options;
+		return getOptionTable().getOptions();
 	}
 
 	/**
@@ -576,4 +1211,296 @@ public class GetOpt {
 		return flavor.processParams(params);
 	}
 
+	/**
+	 * Process only the early options on the command line (those marked with {@link
+	 * OptionSpecification#setEarly(boolean)}), e.g. to find the configuration file that decides
+	 * which other options exist. Tokens that aren't early options are left alone, without
+	 * complaint.  Once the rest of the options are defined, finish with {@link
+	 * #processParams(BootstrapScan)}, which picks up where the scan left off; the early options are
+	 * not processed twice.
+	 *
+	 * @param params The command line parameters
+	 * @return the scan state
+	 */
+	public BootstrapScan bootstrap(String... params) {
+		return flavor.bootstrap(Arrays.asList(params));
+	}
+
+	/**
+	 * Process only the early options on the command line.
+	 *
+	 * @param params The command line parameters
+	 * @return the scan state
+	 * @see #bootstrap(String...)
+	 */
+	public BootstrapScan bootstrap(List<String> params) {
+		return flavor.bootstrap(params);
+	}
+
+	/**
+	 * Process the rest of a command line after {@link #bootstrap(String...)}.
+	 *
+	 * @param scan the bootstrap scan
+	 * @return The remaining parameters after processing is over
+	 * @throws CommandLineProcessingException if any of the command line processing semantics are
+	 *                                        violated
+	 */
+	public List<String> processParams(BootstrapScan scan) {
+		if (scan.getCreator() != this) {
+			throw new GetOptSetupException("The bootstrap scan was made by a different GetOpt");
+		}
+		return flavor.processParams(scan);
+	}
+
+	/**
+	 * Parse the command line without invoking any of the option consumers.
+	 *
+	 * @param params The command line parameters
+	 * @return the result of the parse; check {@link ParseResult#isSuccessful()} for problems
+	 */
+	public ParseResult parse(String... params) {
+		return flavor.parse(Arrays.asList(params));
+	}
+
+	/**
+	 * Parse the command line without invoking any of the option consumers.
+	 *
+	 * @param params The command line parameters
+	 * @return the result of the parse; check {@link ParseResult#isSuccessful()} for problems
+	 */
+	public ParseResult parse(List<String> params) {
+		return flavor.parse(params);
+	}
+
+	/**
+	 * Parse many command lines in parallel. The option set is frozen first, and the results are
+	 * returned in the same order as the command lines.
+	 *
+	 * @param commandLines the command lines to parse
+	 * @return one result per command line
+	 */
+	public List<ParseResult> parseAll(List<String[]> commandLines) {
+		freeze();
+		return commandLines.parallelStream().map(this::parse).collect(Collectors.toList());
+	}
+
+	/**
+	 * Parse a stream of command lines in parallel. The option set is frozen first. If the source
+	 * stream is ordered, the results keep the same order as the command lines.
+	 *
+	 * @param commandLines the command lines to parse
+	 * @return a stream with one result per command line
+	 */
+	public Stream<ParseResult> parseAll(Stream<String[]> commandLines) {
+		freeze();
+		return commandLines.parallel().map(this::parse);
+	}
+
+	/**
+	 * Create a parser that is given the command line one token at a time (for interactive use).
+	 * Like {@link #parse(String...)}, the parser does not invoke any of the option consumers.
+	 *
+	 * @return the parser
+	 */
+	public IncrementalParser incrementalParser() {
+		return flavor.newIncrementalParser();
+	}
+
+	/**
+	 * Find the completions for a partially typed command line word.  Options are only offered if
+	 * the word starts with a dash and could be an option at that point of the command line (not
+	 * after "--", and not where an option's argument is expected). Long options are looked up by
+	 * prefix in the sorted long option table. A word of short options (e.g. "-vx") is completed to
+	 * itself if every option in it is defined, and if its last option is a flag, to itself followed
+	 * by each short option that could be glommed on.
+	 *
+	 * @param argvSoFar the complete words before the one being completed
+	 * @param partial   the word being completed
+	 * @return the possible completions, sorted; empty if no option fits (the caller might want to
+	 * fall back to completing file names)
+	 */
+	public List<String> complete(String[] argvSoFar, String partial) {
+		IncrementalParser parser = incrementalParser();
+		for (String word : argvSoFar) {
+			parser.feed(word);
+		}
+		List<String> result = new ArrayList<>();
+		if (!parser.acceptsOptions() || !partial.startsWith("-")) {
+			return result;
+		}
+		String longPrefix = partial.startsWith("--") ? partial.substring(2) : "";
+		OptionTable options = getOptionTable(longPrefix);
+		if ("-".equals(partial)) {
+			for (Character ch : options.getShortOptNames()) {
+				result.add("-" + ch);
+			}
+			for (String longOpt : options.getLongOptNames()) {
+				result.add("--" + longOpt);
+			}
+		} else if (partial.startsWith("--")) {
+			if (partial.indexOf('=') < 0) {
+				for (String longOpt : options.getLongMatches(partial.substring(2))) {
+					result.add("--" + longOpt);
+				}
+			}
+		} else {
+			// a glom of short options: each one before the last has to be a flag, or the rest of
+			// the word is its argument
+			OptionSpecification last = null;
+			for (int i = 1; i < partial.length(); i++) {
+				if (last != null && !last.isFlag()) {
+					return result;
+				}
+				last = options.getShortOpt(partial.charAt(i));
+				if (last == null) {
+					return result;
+				}
+			}
+			result.add(partial);
+			if (last.isFlag()) {
+				for (Character ch : options.getShortOptNames()) {
+					result.add(partial + ch);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Add a subcommand (as in {@code git commit}). The subcommand's options are only defined if the
+	 * subcommand is selected, so the number of subcommands does not affect startup time.
+	 *
+	 * @param name          the subcommand name, as given on the command line
+	 * @param documentation documentation for the usage message
+	 * @param definition    builds the subcommand's option set
+	 * @throws GetOptSetupException if the subcommand has already been defined
+	 */
+	public void addSubcommand(String name, String documentation, Supplier<GetOpt> definition) {
+		addSubcommand(new SubcommandDefinition(name, documentation, definition, null));
+	}
+
+	/**
+	 * Add a subcommand whose options are defined by an annotated receptacle. The receptacle is only
+	 * created (and reflected) if the subcommand is selected.
+	 *
+	 * @param name          the subcommand name, as given on the command line
+	 * @param documentation documentation for the usage message
+	 * @param receptacle    creates the receptacle
+	 * @throws GetOptSetupException if the subcommand has already been defined
+	 */
+	public void addReceptacleSubcommand(String name, String documentation, Supplier<?> receptacle) {
+		addSubcommand(new SubcommandDefinition(name, documentation, null, receptacle));
+	}
+
+	/**
+	 * Add the subcommands listed in the build-time subcommand indexes (see {@link
+	 * com.bluecirclesoft.open.getopt.Subcommand}). No receptacle classes are loaded until a
+	 * subcommand is selected.
+	 *
+	 * @param classLoader the class loader to find the indexes and load the receptacles with
+	 * @throws GetOptSetupException if an index can't be read, or a subcommand has already been
+	 *                              defined
+	 */
+	public void addIndexedSubcommands(ClassLoader classLoader) {
+		for (SubcommandIndex.Entry entry : SubcommandIndex.load(classLoader).getEntries()) {
+			addReceptacleSubcommand(entry.getName(), entry.getDocumentation(), () -> entry.createReceptacle(classLoader));
+		}
+	}
+
+	private void addSubcommand(SubcommandDefinition subcommand) {
+		checkNotFrozen();
+		if (subcommand.name == null || subcommand.name.isEmpty()) {
+			throw new GetOptSetupException("subcommand name is not specified");
+		}
+		if (subcommand.documentation == null || subcommand.documentation.isEmpty()) {
+			throw new GetOptSetupException("documentation is not specified");
+		}
+		if (subcommands.containsKey(subcommand.name)) {
+			throw new GetOptSetupException("Subcommand " + subcommand.name + " has already been defined");
+		}
+		subcommands.put(subcommand.name, subcommand);
+	}
+
+	/**
+	 * Process a command line of the form <i>global options</i> <i>subcommand</i> <i>subcommand
+	 * options</i>. The global options (this option set) are processed up to the first non-option,
+	 * which names the subcommand; then only that subcommand's option set is built, and the rest of
+	 * the command line is processed with it. Unless the subcommand's option set has a policy of its
+	 * own, it gets this one's, and the limits are applied to the whole command line; the same goes
+	 * for the parse listener.
+	 *
+	 * @param params The command line parameters
+	 * @return the selected subcommand, and the parameters left over
+	 * @throws CommandLineProcessingException if any of the command line processing semantics are
+	 *                                        violated, or the subcommand is missing or unknown
+	 */
+	public SubcommandInvocation processSubcommand(String... params) {
+		return processSubcommand(Arrays.asList(params));
+	}
+
+	/**
+	 * Process a command line of the form <i>global options</i> <i>subcommand</i> <i>subcommand
+	 * options</i>.
+	 *
+	 * @param params The command line parameters
+	 * @return the selected subcommand, and the parameters left over
+	 * @throws CommandLineProcessingException if any of the command line processing semantics are
+	 *                                        violated, or the subcommand is missing or unknown
+	 * @see #processSubcommand(String...)
+	 */
+	public SubcommandInvocation processSubcommand(List<String> params) {
+		List<String> rest = new GnuGetoptFlavor(this, false).processParams(params);
+		if (rest.isEmpty()) {
+			throw new CommandLineProcessingException(Collections.singletonList(new Problem(ProblemCode.NO_COMMAND, null, null)),
+					this);
+		}
+		SubcommandDefinition subcommand = subcommands.get(rest.get(0));
+		if (subcommand == null) {
+			// option processing stops at the subcommand, so everything from it on is left over
+			Problem problem = new Problem(ProblemCode.UNKNOWN_COMMAND, null, params.size() - rest.size(), rest.get(0));
+			throw new CommandLineProcessingException(Collections.singletonList(problem), this);
+		}
+		Object receptacle = null;
+		GetOpt subOptions;
+		if (subcommand.definition != null) {
+			subOptions = subcommand.definition.get();
+		} else {
+			receptacle = subcommand.receptacle.get();
+			subOptions = createFromReceptacle(receptacle, programName + " " + subcommand.name, null);
+		}
+		if (subOptions.getParsePolicy() == ParsePolicy.collectAll()) {
+			// a subcommand that doesn't set its own policy is held to the same limits
+			subOptions.setParsePolicy(parsePolicy);
+		}
+		if (subOptions.getParseListener() == defaultParseListener) {
+			// likewise the listener, so that it hears about the whole parse
+			subOptions.setParseListener(parseListener);
+		}
+		// the tokens up to the subcommand name count towards the limits, and keep the problems
+		// placed in the whole command line
+		List<String> remaining = subOptions.flavor.processParams(params, params.size() - rest.size() + 1);
+		return new SubcommandInvocation(subcommand.name, subOptions, receptacle, remaining);
+	}
+
+	/**
+	 * A registered subcommand; exactly one of definition or receptacle is set.
+	 */
+	private static class SubcommandDefinition {
+
+		private final String name;
+
+		private final String documentation;
+
+		private final Supplier<GetOpt> definition;
+
+		private final Supplier<?> receptacle;
+
+		private SubcommandDefinition(String name, String documentation, Supplier<GetOpt> definition, Supplier<?> receptacle) {
+			this.name = name;
+			this.documentation = documentation;
+			this.definition = definition;
+			this.receptacle = receptacle;
+		}
+	}
+
 }
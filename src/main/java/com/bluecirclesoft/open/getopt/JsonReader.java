@@ -0,0 +1,313 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+
+/**
+ * A small pull reader for JSON: the caller asks for the values it expects, in order, and nothing
+ * more than the current token is held in memory.
+ */
+class JsonReader {
+
+	enum Token {
+		BEGIN_OBJECT,
+		END_OBJECT,
+		BEGIN_ARRAY,
+		END_ARRAY,
+		STRING,
+		NUMBER,
+		BOOLEAN,
+		NULL
+	}
+
+	/**
+	 * Nothing read yet in this container.
+	 */
+	private static final int EMPTY = 0;
+
+	/**
+	 * A value was read; a comma or the end of the container comes next.
+	 */
+	private static final int AFTER_VALUE = 1;
+
+	/**
+	 * Ready for the next value (after a comma, an object member name, or at the top level).
+	 */
+	private static final int READY = 2;
+
+	private final Reader in;
+
+	private final Deque<int[]> states = new ArrayDeque<>();
+
+	private int peeked = -2;
+
+	private int line = 1;
+
+	private int column = 0;
+
+	JsonReader(Reader in) {
+		this.in = in;
+		states.push(new int[]{READY});
+	}
+
+	private int read() throws IOException {
+		int c;
+		if (peeked != -2) {
+			c = peeked;
+			peeked = -2;
+		} else {
+			c = in.read();
+		}
+		if (c == '\n') {
+			line++;
+			column = 0;
+		} else {
+			column++;
+		}
+		return c;
+	}
+
+	private int peekChar() throws IOException {
+		if (peeked == -2) {
+			peeked = in.read();
+		}
+		return peeked;
+	}
+
+	private int peekNonWhitespace() throws IOException {
+		while (true) {
+			int c = peekChar();
+			if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+				read();
+			} else {
+				return c;
+			}
+		}
+	}
+
+	private void expect(char expected) throws IOException {
+		int c = peekNonWhitespace();
+		if (c != expected) {
+			throw error("expected '" + expected + "'" + (c < 0 ? " but the input ended" : " but found '" + (char) c + "'"));
+		}
+		read();
+	}
+
+	GetOptSetupException error(String message) {
+		return new GetOptSetupException("JSON error at line " + line + ", column " + column + ": " + message);
+	}
+
+	/**
+	 * Is there another element in the current object or array?
+	 */
+	boolean hasNext() throws IOException {
+		int[] state = states.peek();
+		if (state[0] == READY) {
+			return true;
+		}
+		int c = peekNonWhitespace();
+		if (c == '}' || c == ']') {
+			return false;
+		}
+		if (state[0] == AFTER_VALUE) {
+			expect(',');
+		}
+		state[0] = READY;
+		return true;
+	}
+
+	private void beforeValue() throws IOException {
+		if (!hasNext()) {
+			throw error("expected a value");
+		}
+		states.peek()[0] = AFTER_VALUE;
+	}
+
+	Token peek() throws IOException {
+		if (!hasNext()) {
+			return peekNonWhitespace() == '}' ? Token.END_OBJECT : Token.END_ARRAY;
+		}
+		int c = peekNonWhitespace();
+		switch (c) {
+			case '{':
+				return Token.BEGIN_OBJECT;
+			case '[':
+				return Token.BEGIN_ARRAY;
+			case '"':
+				return Token.STRING;
+			case 't':
+			case 'f':
+				return Token.BOOLEAN;
+			case 'n':
+				return Token.NULL;
+			default:
+				if (c == '-' || (c >= '0' && c <= '9')) {
+					return Token.NUMBER;
+				}
+				throw error(c < 0 ? "unexpected end of input" : "unexpected '" + (char) c + "'");
+		}
+	}
+
+	void beginObject() throws IOException {
+		beforeValue();
+		expect('{');
+		states.push(new int[]{EMPTY});
+	}
+
+	void endObject() throws IOException {
+		expect('}');
+		states.pop();
+	}
+
+	void beginArray() throws IOException {
+		beforeValue();
+		expect('[');
+		states.push(new int[]{EMPTY});
+	}
+
+	void endArray() throws IOException {
+		expect(']');
+		states.pop();
+	}
+
+	/**
+	 * Read the name of the next object member, and the colon after it.
+	 */
+	String nextName() throws IOException {
+		beforeValue();
+		String name = readString();
+		expect(':');
+		states.peek()[0] = READY;
+		return name;
+	}
+
+	String nextString() throws IOException {
+		beforeValue();
+		return readString();
+	}
+
+	boolean nextBoolean() throws IOException {
+		beforeValue();
+		String word = readWord();
+		if ("true".equals(word)) {
+			return true;
+		} else if ("false".equals(word)) {
+			return false;
+		}
+		throw error("expected true or false but found " + word);
+	}
+
+	/**
+	 * Skip the next value, whatever it is.
+	 */
+	void skipValue() throws IOException {
+		switch (peek()) {
+			case BEGIN_OBJECT:
+				beginObject();
+				while (hasNext()) {
+					nextName();
+					skipValue();
+				}
+				endObject();
+				break;
+			case BEGIN_ARRAY:
+				beginArray();
+				while (hasNext()) {
+					skipValue();
+				}
+				endArray();
+				break;
+			case STRING:
+				nextString();
+				break;
+			default:
+				beforeValue();
+				readWord();
+				break;
+		}
+	}
+
+	private String readWord() throws IOException {
+		peekNonWhitespace();
+		StringBuilder word = new StringBuilder();
+		while (true) {
+			int c = peekChar();
+			if (c < 0 || c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+				return word.toString();
+			}
+			word.append((char) read());
+		}
+	}
+
+	private String readString() throws IOException {
+		expect('"');
+		StringBuilder result = new StringBuilder();
+		while (true) {
+			int c = read();
+			if (c < 0) {
+				throw error("unterminated string");
+			} else if (c == '"') {
+				return result.toString();
+			} else if (c == '\\') {
+				int escaped = read();
+				switch (escaped) {
+					case '"':
+					case '\\':
+					case '/':
+						result.append((char) escaped);
+						break;
+					case 'b':
+						result.append('\b');
+						break;
+					case 'f':
+						result.append('\f');
+						break;
+					case 'n':
+						result.append('\n');
+						break;
+					case 'r':
+						result.append('\r');
+						break;
+					case 't':
+						result.append('\t');
+						break;
+					case 'u':
+						int code = 0;
+						for (int i = 0; i < 4; i++) {
+							int digit = Character.digit(read(), 16);
+							if (digit < 0) {
+								throw error("bad \\u escape");
+							}
+							code = code * 16 + digit;
+						}
+						result.append((char) code);
+						break;
+					default:
+						throw error("bad escape");
+				}
+			} else {
+				result.append((char) c);
+			}
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A relation between options that is checked after the command line has been scanned. The options
+ * involved are kept as a bit mask over the option ids, so checking a constraint is a few word
+ * operations against the set of options that were specified.
+ */
+public class OptionConstraint {
+
+	/**
+	 * The kinds of relation.
+	 */
+	public enum Kind {
+		/**
+		 * At most one of the options may be given.
+		 */
+		MUTUALLY_EXCLUSIVE,
+
+		/**
+		 * At least one of the options must be given.
+		 */
+		AT_LEAST_ONE,
+
+		/**
+		 * If the trigger is given, all of the options must be.
+		 */
+		REQUIRES
+	}
+
+	private final Kind kind;
+
+	/**
+	 * For REQUIRES, the option that needs the others; otherwise null.
+	 */
+	private final OptionSpecification trigger;
+
+	private final List<OptionSpecification> options;
+
+	private final long[] mask;
+
+	OptionConstraint(Kind kind, OptionSpecification trigger, List<OptionSpecification> options) {
+		this.kind = kind;
+		this.trigger = trigger;
+		this.options = options;
+		int maxId = trigger == null ? 0 : trigger.getId();
+		for (OptionSpecification option : options) {
+			maxId = Math.max(maxId, option.getId());
+		}
+		this.mask = new long[(maxId >>> 6) + 1];
+		for (OptionSpecification option : options) {
+			mask[option.getId() >>> 6] |= 1L << option.getId();
+		}
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Get the option that needs the others, for {@link Kind#REQUIRES}.
+	 *
+	 * @return the option, or null for the other kinds
+	 */
+	public OptionSpecification getTrigger() {
+		return trigger;
+	}
+
+	public List<OptionSpecification> getOptions() {
+		return Collections.unmodifiableList(options);
+	}
+
+	/**
+	 * Add the options involved in this constraint to a mask.
+	 *
+	 * @param target the mask, which must be large enough
+	 */
+	void addTo(long[] target) {
+		for (int i = 0; i < mask.length; i++) {
+			target[i] |= mask[i];
+		}
+		if (trigger != null) {
+			target[trigger.getId() >>> 6] |= 1L << trigger.getId();
+		}
+	}
+
+	/**
+	 * Check the constraint.
+	 *
+	 * @param specified the ids of the options that were specified
+	 * @return the problem, or {@code null} if the constraint is satisfied
+	 */
+	Problem check(long[] specified) {
+		switch (kind) {
+			case MUTUALLY_EXCLUSIVE: {
+				int count = 0;
+				for (int i = 0; i < mask.length && i < specified.length; i++) {
+					count += Long.bitCount(mask[i] & specified[i]);
+				}
+				if (count > 1) {
+					return new Problem(ProblemCode.CONFLICTING_OPTIONS, null, null, select(specified, true));
+				}
+				return null;
+			}
+			case AT_LEAST_ONE: {
+				for (int i = 0; i < mask.length && i < specified.length; i++) {
+					if ((mask[i] & specified[i]) != 0) {
+						return null;
+					}
+				}
+				return new Problem(ProblemCode.ONE_OF_OPTIONS_REQUIRED, null, null, select(specified, false));
+			}
+			case REQUIRES: {
+				if (!isSet(specified, trigger.getId())) {
+					return null;
+				}
+				for (int i = 0; i < mask.length; i++) {
+					long word = i < specified.length ? specified[i] : 0;
+					if ((mask[i] & ~word) != 0) {
+						List<OptionSpecification> missing = new ArrayList<>();
+						for (OptionSpecification option : options) {
+							if (!isSet(specified, option.getId())) {
+								missing.add(option);
+							}
+						}
+						return new Problem(ProblemCode.REQUIRES_OPTIONS, trigger, null, missing);
+					}
+				}
+				return null;
+			}
+			default:
+				throw new InternalException("Unhandled constraint kind " + kind);
+		}
+	}
+
+	/**
+	 * List the options of this constraint
+	 *
+	 * @param specified     the ids of the options that were specified
+	 * @param onlySpecified only list the ones that were specified
+	 */
+	private List<OptionSpecification> select(long[] specified, boolean onlySpecified) {
+		return options.stream().filter(option -> !onlySpecified || isSet(specified, option.getId())).collect(Collectors.toList());
+	}
+
+	static boolean isSet(long[] bits, int id) {
+		int word = id >>> 6;
+		return word < bits.length && (bits[word] & (1L << id)) != 0;
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+/**
+ * An estimate of the memory held by an option set, from {@link GetOpt#getFootprint()}. Sizes are
+ * computed from the structures' shapes, assuming a 64-bit JVM with compressed references (12 byte
+ * object headers, 4 byte references, 8 byte alignment) and compact (Latin-1) strings; they don't
+ * include the option consumers, which belong to the application.
+ */
+public class OptionFootprint {
+
+	private final int options;
+
+	private final int distinctStrings;
+
+	private final long optionBytes;
+
+	private final long stringBytes;
+
+	private final long tableBytes;
+
+	private final long builderBytes;
+
+	OptionFootprint(int options, int distinctStrings, long optionBytes, long stringBytes, long tableBytes, long builderBytes) {
+		this.options = options;
+		this.distinctStrings = distinctStrings;
+		this.optionBytes = optionBytes;
+		this.stringBytes = stringBytes;
+		this.tableBytes = tableBytes;
+		this.builderBytes = builderBytes;
+	}
+
+	public int getOptions() {
+		return options;
+	}
+
+	/**
+	 * Get the number of distinct string objects held for option names, mnemonics and
+	 * documentation.
+	 *
+	 * @return the number of strings
+	 */
+	public int getDistinctStrings() {
+		return distinctStrings;
+	}
+
+	/**
+	 * Get the bytes held by the option specifications, including their name arrays.
+	 *
+	 * @return the estimate
+	 */
+	public long getOptionBytes() {
+		return optionBytes;
+	}
+
+	/**
+	 * Get the bytes held by the distinct strings.
+	 *
+	 * @return the estimate
+	 */
+	public long getStringBytes() {
+		return stringBytes;
+	}
+
+	/**
+	 * Get the bytes held by the published lookup table.
+	 *
+	 * @return the estimate
+	 */
+	public long getTableBytes() {
+		return tableBytes;
+	}
+
+	/**
+	 * Get the bytes held by the maps used while options are being defined; zero once the option set
+	 * is frozen.
+	 *
+	 * @return the estimate
+	 */
+	public long getBuilderBytes() {
+		return builderBytes;
+	}
+
+	public long getTotalBytes() {
+		return optionBytes + stringBytes + tableBytes + builderBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "options:          " + options + "\n" + "distinct strings: " + distinctStrings + "\n" + "option bytes:     " +
+				optionBytes + "\n" + "string bytes:     " + stringBytes + "\n" + "table bytes:      " + tableBytes + "\n" +
+				"builder bytes:    " + builderBytes + "\n" + "total bytes:      " + getTotalBytes() + "\n";
+	}
+
+	static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+
+	/**
+	 * An object with some reference or int fields.
+	 */
+	static long object(int fields) {
+		return align(12 + 4L * fields);
+	}
+
+	static long refArray(int length) {
+		return align(16 + 4L * length);
+	}
+
+	static long intArray(int length) {
+		return align(16 + 4L * length);
+	}
+
+	static long longArray(int length) {
+		return align(16 + 8L * length);
+	}
+
+	static long charArray(int length) {
+		return align(16 + 2L * length);
+	}
+
+	static long string(String s) {
+		return object(3) + align(16 + s.length());
+	}
+
+	/**
+	 * A java.util.HashMap (or HashSet's map), with its table and nodes.
+	 */
+	static long hashMap(int size) {
+		int capacity = 16;
+		while (capacity * 3 / 4 < size) {
+			capacity *= 2;
+		}
+		return object(9) + (size == 0 ? 0 : refArray(capacity)) + size * object(4);
+	}
+
+	static long treeMap(int size) {
+		return object(7) + size * object(7);
+	}
+
+	static long arrayList(int size) {
+		return object(3) + refArray(size + size / 2);
+	}
+}
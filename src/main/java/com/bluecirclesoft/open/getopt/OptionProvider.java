@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Contributes options to a GetOpt on demand, for instance from a plugin.  A provider declares the
+ * long options it could define, by prefix or by name; GetOpt only calls {@link
+ * #defineOptions(GetOpt)} when a long option on the command line could match one of them (or when
+ * the usage message or completions are generated).
+ * <p></p>
+ * Providers may be registered with {@link GetOpt#addOptionProvider(OptionProvider)}, or found with
+ * {@link GetOpt#loadOptionProviders(ClassLoader)} through {@link java.util.ServiceLoader}.  Either
+ * way, the provider object itself is created up front, so it should be cheap to construct; do the
+ * expensive work in {@code defineOptions}.
+ * <p></p>
+ * Options defined by a provider that is never loaded are not known to GetOpt at all, so they can't
+ * be required. Short options defined by a provider are only found once some provider-owned long
+ * option has been used, or as a last resort before an unknown short option is reported.
+ */
+public interface OptionProvider {
+
+	/**
+	 * Get the prefixes of the long options this provider defines (e.g. {@code s3-} for {@code
+	 * --s3-bucket} and {@code --s3-region}).
+	 *
+	 * @return the prefixes, without dashes
+	 */
+	default Collection<String> getLongOptionPrefixes() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Get the names of the long options this provider defines, for options that don't share a
+	 * prefix.
+	 *
+	 * @return the names, without dashes
+	 */
+	default Collection<String> getLongOptionNames() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Define this provider's options (using {@link GetOpt#addFlag(String, java.util.function.Consumer)},
+	 * {@link GetOpt#addParam(String, String, boolean, java.util.function.Consumer)}, etc). Called at
+	 * most once per GetOpt.
+	 *
+	 * @param getOpt the option set to add to
+	 */
+	void defineOptions(GetOpt getOpt);
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.bluecirclesoft.open.getopt.flavors.CommandLineProcessingFlavors;
+
+/**
+ * Builds an option set from a description in a file, for programs whose options are configured
+ * rather than coded. The description can be JSON:
+ * <pre>
+ * {
+ *   "program": "tool",
+ *   "arguments": "file...",
+ *   "flavor": "GNU_GETOPT",
+ *   "options": [
+ *     { "short": "v", "long": "verbose", "type": "flag", "documentation": "be chatty" },
+ *     { "short": ["o"], "long": ["output", "out"], "mnemonic": "file", "type": "string",
+ *       "required": true, "documentation": "where to write" }
+ *   ]
+ * }
+ * </pre>
+ * or properties, with one group of keys per option:
+ * <pre>
+ * program=tool
+ * arguments=file...
+ * option.verbose.short=v
+ * option.verbose.long=verbose
+ * option.verbose.type=flag
+ * option.verbose.documentation=be chatty
+ * option.output.short=o
+ * option.output.long=output,out
+ * ...
+ * </pre>
+ * The type is "flag", one of the names string, int, long, short, byte, double, float, boolean,
+ * char, bigdecimal and biginteger, or the name of a class that has a default converter. An option
+ * can also be marked "early" (see {@link OptionSpecification#setEarly(boolean)}).
+ * <p></p>
+ * JSON is read as a stream, a value at a time. The option set returned is frozen, and its options
+ * have no consumers: it is meant for {@link GetOpt#parse(String...)}, whose results carry the
+ * converted values. {@link #load(Path)} keeps the option sets it builds, and only reads a file
+ * again when its modification time or size changes.
+ */
+public final class OptionSchema {
+
+	private static final Map<String, Class<?>> TYPES = new HashMap<>();
+
+	static {
+		TYPES.put("string", String.class);
+		TYPES.put("int", Integer.class);
+		TYPES.put("integer", Integer.class);
+		TYPES.put("long", Long.class);
+		TYPES.put("short", Short.class);
+		TYPES.put("byte", Byte.class);
+		TYPES.put("double", Double.class);
+		TYPES.put("float", Float.class);
+		TYPES.put("boolean", Boolean.class);
+		TYPES.put("char", Character.class);
+		TYPES.put("character", Character.class);
+		TYPES.put("bigdecimal", BigDecimal.class);
+		TYPES.put("biginteger", BigInteger.class);
+	}
+
+	private static final Map<Path, Compiled> cache = new ConcurrentHashMap<>();
+
+	private OptionSchema() {
+	}
+
+	/**
+	 * Load an option set from a file; files whose names end in ".json" are read as JSON, others as
+	 * properties. The option set is cached, keyed by the file's modification time and size.
+	 *
+	 * @param file the file
+	 * @return the option set (frozen)
+	 * @throws IOException          if the file can't be read
+	 * @throws GetOptSetupException if the description is invalid
+	 */
+	public static GetOpt load(Path file) throws IOException {
+		Path key = file.toAbsolutePath().normalize();
+		BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+		long modified = attributes.lastModifiedTime().toMillis();
+		long size = attributes.size();
+		Compiled compiled = cache.get(key);
+		if (compiled == null || compiled.modified != modified || compiled.size != size) {
+			GetOpt getOpt;
+			try (Reader reader = Files.newBufferedReader(key, StandardCharsets.UTF_8)) {
+				if (key.getFileName().toString().endsWith(".json")) {
+					getOpt = readJson(reader);
+				} else {
+					getOpt = readProperties(reader);
+				}
+			}
+			compiled = new Compiled(modified, size, getOpt);
+			cache.put(key, compiled);
+		}
+		return compiled.getOpt;
+	}
+
+	/**
+	 * Forget the option sets loaded by {@link #load(Path)}.
+	 */
+	public static void clearCache() {
+		cache.clear();
+	}
+
+	/**
+	 * Build an option set from a JSON description.
+	 *
+	 * @param in the description
+	 * @return the option set (frozen)
+	 * @throws IOException          if the description can't be read
+	 * @throws GetOptSetupException if the description is invalid
+	 */
+	public static GetOpt readJson(Reader in) throws IOException {
+		JsonReader json = new JsonReader(in instanceof BufferedReader ? in : new BufferedReader(in));
+		String program = null;
+		String arguments = null;
+		String flavor = null;
+		List<OptionDescription> options = new ArrayList<>();
+		json.beginObject();
+		while (json.hasNext()) {
+			String name = json.nextName();
+			switch (name) {
+				case "program":
+					program = json.nextString();
+					break;
+				case "arguments":
+					arguments = json.nextString();
+					break;
+				case "flavor":
+					flavor = json.nextString();
+					break;
+				case "options":
+					json.beginArray();
+					while (json.hasNext()) {
+						options.add(readJsonOption(json));
+					}
+					json.endArray();
+					break;
+				default:
+					json.skipValue();
+					break;
+			}
+		}
+		json.endObject();
+		return build(program, arguments, flavor, options);
+	}
+
+	private static OptionDescription readJsonOption(JsonReader json) throws IOException {
+		OptionDescription option = new OptionDescription();
+		json.beginObject();
+		while (json.hasNext()) {
+			String name = json.nextName();
+			switch (name) {
+				case "short":
+					for (String shortOpt : readJsonNames(json)) {
+						option.addShortOpt(shortOpt);
+					}
+					break;
+				case "long":
+					option.longOpts.addAll(readJsonNames(json));
+					break;
+				case "mnemonic":
+					option.mnemonic = json.nextString();
+					break;
+				case "type":
+					option.type = json.nextString();
+					break;
+				case "documentation":
+					option.documentation = json.nextString();
+					break;
+				case "required":
+					option.required = json.nextBoolean();
+					break;
+				case "early":
+					option.early = json.nextBoolean();
+					break;
+				default:
+					json.skipValue();
+					break;
+			}
+		}
+		json.endObject();
+		return option;
+	}
+
+	private static List<String> readJsonNames(JsonReader json) throws IOException {
+		List<String> names = new ArrayList<>();
+		if (json.peek() == JsonReader.Token.BEGIN_ARRAY) {
+			json.beginArray();
+			while (json.hasNext()) {
+				names.add(json.nextString());
+			}
+			json.endArray();
+		} else {
+			names.add(json.nextString());
+		}
+		return names;
+	}
+
+	/**
+	 * Build an option set from a properties description. Options are defined in the order of their
+	 * keys.
+	 *
+	 * @param in the description
+	 * @return the option set (frozen)
+	 * @throws IOException          if the description can't be read
+	 * @throws GetOptSetupException if the description is invalid
+	 */
+	public static GetOpt readProperties(Reader in) throws IOException {
+		Properties properties = new Properties();
+		properties.load(in);
+		Map<String, OptionDescription> options = new TreeMap<>();
+		for (String name : properties.stringPropertyNames()) {
+			if (!name.startsWith("option.")) {
+				continue;
+			}
+			int dot = name.lastIndexOf('.');
+			if (dot <= "option.".length()) {
+				throw new GetOptSetupException("Bad option property " + name);
+			}
+			OptionDescription option = options.computeIfAbsent(name.substring("option.".length(), dot), k -> new OptionDescription());
+			String value = properties.getProperty(name).trim();
+			switch (name.substring(dot + 1)) {
+				case "short":
+					for (String shortOpt : splitList(value)) {
+						option.addShortOpt(shortOpt);
+					}
+					break;
+				case "long":
+					option.longOpts.addAll(splitList(value));
+					break;
+				case "mnemonic":
+					option.mnemonic = value;
+					break;
+				case "type":
+					option.type = value;
+					break;
+				case "documentation":
+					option.documentation = value;
+					break;
+				case "required":
+					option.required = Boolean.parseBoolean(value);
+					break;
+				case "early":
+					option.early = Boolean.parseBoolean(value);
+					break;
+				default:
+					throw new GetOptSetupException("Bad option property " + name);
+			}
+		}
+		return build(properties.getProperty("program"), properties.getProperty("arguments"), properties.getProperty("flavor"),
+				new ArrayList<>(options.values()));
+	}
+
+	private static List<String> splitList(String value) {
+		List<String> result = new ArrayList<>();
+		for (String item : value.split(",")) {
+			if (!item.trim().isEmpty()) {
+				result.add(item.trim());
+			}
+		}
+		return result;
+	}
+
+	private static GetOpt build(String program, String arguments, String flavorName, List<OptionDescription> options) {
+		if (program == null || program.isEmpty()) {
+			throw new GetOptSetupException("The program name is not specified");
+		}
+		CommandLineProcessingFlavors flavor = CommandLineProcessingFlavors.GNU_GETOPT;
+		if (flavorName != null) {
+			try {
+				flavor = CommandLineProcessingFlavors.valueOf(flavorName);
+			} catch (IllegalArgumentException e) {
+				throw new GetOptSetupException("Unknown flavor " + flavorName, e);
+			}
+		}
+		GetOpt getOpt = GetOpt.create(program, arguments, flavor);
+		for (OptionDescription option : options) {
+			option.define(getOpt);
+		}
+		return getOpt.freeze();
+	}
+
+	/**
+	 * One option, as read from the description.
+	 */
+	private static class OptionDescription {
+
+		private final List<Character> shortOpts = new ArrayList<>();
+
+		private final List<String> longOpts = new ArrayList<>();
+
+		private String mnemonic;
+
+		private String type;
+
+		private String documentation;
+
+		private boolean required;
+
+		private boolean early;
+
+		void addShortOpt(String shortOpt) {
+			if (shortOpt.length() != 1) {
+				throw new GetOptSetupException("Short option " + shortOpt + " is not a single character");
+			}
+			shortOpts.add(shortOpt.charAt(0));
+		}
+
+		void define(GetOpt getOpt) {
+			OptionSpecification spec;
+			if (type == null || "flag".equals(type)) {
+				if (mnemonic != null || required) {
+					throw new GetOptSetupException("Flag " + describe() + " can't have a mnemonic or be required");
+				}
+				spec = getOpt.addFlag(documentation, on -> {
+				});
+			} else {
+				spec = getOpt.addParam(mnemonic, documentation, required, typeFor(), value -> {
+				});
+			}
+			for (Character shortOpt : shortOpts) {
+				spec.addShortOpt(shortOpt);
+			}
+			for (String longOpt : longOpts) {
+				spec.addLongOpt(longOpt);
+			}
+			spec.setEarly(early);
+		}
+
+		private Class<?> typeFor() {
+			Class<?> known = TYPES.get(type);
+			if (known != null) {
+				return known;
+			}
+			try {
+				return Class.forName(type);
+			} catch (ClassNotFoundException e) {
+				throw new GetOptSetupException("Unknown type " + type + " for option " + describe(), e);
+			}
+		}
+
+		private String describe() {
+			if (!longOpts.isEmpty()) {
+				return "--" + longOpts.get(0);
+			} else if (!shortOpts.isEmpty()) {
+				return "-" + shortOpts.get(0);
+			}
+			return "(unnamed)";
+		}
+	}
+
+	private static class Compiled {
+
+		private final long modified;
+
+		private final long size;
+
+		private final GetOpt getOpt;
+
+		Compiled(long modified, long size, GetOpt getOpt) {
+			this.modified = modified;
+			this.size = size;
+			this.getOpt = getOpt;
+		}
+	}
+}
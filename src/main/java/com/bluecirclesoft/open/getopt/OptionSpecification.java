@@ -17,16 +17,27 @@
 
 package com.bluecirclesoft.open.getopt;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 public class OptionSpecification {
 
-	private final List<Character> shortOptList = new ArrayList<>();
+	private static final char[] NO_SHORT_OPTS = new char[0];
 
-	private final List<String> longOptList = new ArrayList<>();
+	private static final String[] NO_LONG_OPTS = new String[0];
+
+	/**
+	 * The names, replaced (never modified) under the option set's lock when a name is added, before
+	 * the option set publishes a snapshot with the new name.
+	 */
+	private volatile char[] shortOpts = NO_SHORT_OPTS;
+
+	private volatile String[] longOpts = NO_LONG_OPTS;
 
 	private final ArgumentSpecification argumentSpecification;
 
@@ -38,11 +49,31 @@ public class OptionSpecification {
 
 	private boolean specified = false;
 
+	private boolean early = false;
+
+	private int id = -1;
+
 	private final GetOpt parent;
 
-	private final List<Consumer<Boolean>> onEncounterNoArgument = new ArrayList<>();
+	/*
+	 * Almost every option has exactly one consumer, so the first is kept in a field, and a list is
+	 * only made for the rest.
+	 */
+
+	private Consumer<Boolean> onEncounterNoArgument;
+
+	private List<Consumer<Boolean>> moreOnEncounterNoArgument;
 
-	private final List<BiConsumer<String, OptionSpecification>> onEncounterWithArgument = new ArrayList<>();
+	private BiConsumer<String, OptionSpecification> onEncounterWithArgument;
+
+	private List<BiConsumer<String, OptionSpecification>> moreOnEncounterWithArgument;
+
+	/**
+	 * Converts the argument for {@link #onConverted}; null if the option only has string consumers.
+	 */
+	private final TypeConverter<?> converter;
+
+	private final Consumer<Object> onConverted;
 
 	/**
 	 * Constructor
@@ -59,13 +90,38 @@ public class OptionSpecification {
 	 */
 	OptionSpecification(GetOpt parent, boolean required, ArgumentSpecification argumentSpecification, String mnemonic, String documentation,
 	                    Consumer<Boolean> onEncounterNoArg, BiConsumer<String, OptionSpecification> onEncounterWithArg) {
+		this(parent, required, argumentSpecification, mnemonic, documentation, onEncounterNoArg, onEncounterWithArg, null, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param parent                the option processor that created this instance
+	 * @param required              is this option required to be specified?
+	 * @param argumentSpecification is there an argument for this option
+	 * @param mnemonic              the mnemonic for the option for usage
+	 * @param documentation         the documentation for the option for usage
+	 * @param onEncounterNoArg      the function to call when this option is encountered on the
+	 *                              command line (with no argument)
+	 * @param onEncounterWithArg    the function to call when this option is encountered on the
+	 *                              command line (with an argument)
+	 * @param converter             the converter for the argument, or null
+	 * @param onConverted           the function to call with the converted argument, or null
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> OptionSpecification(GetOpt parent, boolean required, ArgumentSpecification argumentSpecification, String mnemonic,
+	                                String documentation, Consumer<Boolean> onEncounterNoArg,
+	                                BiConsumer<String, OptionSpecification> onEncounterWithArg, TypeConverter<T> converter,
+	                                Consumer<T> onConverted) {
+		// with a converter, the typed consumer takes the argument
+		boolean consumesArgument = onEncounterWithArg != null || converter != null;
 		switch (argumentSpecification) {
 			case NONE:
 				if (onEncounterNoArg == null) {
 					throw new GetOptSetupException(
 							"onEncounterNoArg must be set if " + "argumentSpecification is " + argumentSpecification);
 				}
-				if (onEncounterWithArg != null) {
+				if (consumesArgument) {
 					throw new GetOptSetupException(
 							"onEncounterWithArg cannot be set if " + "argumentSpecification is " + argumentSpecification);
 				}
@@ -75,7 +131,7 @@ public class OptionSpecification {
 					throw new GetOptSetupException(
 							"onEncounterNoArg cannot be set if " + "argumentSpecification is " + argumentSpecification);
 				}
-				if (onEncounterWithArg == null) {
+				if (!consumesArgument) {
 					throw new GetOptSetupException(
 							"onEncounterWithArg must be set if " + "argumentSpecification is " + argumentSpecification);
 				}
@@ -85,7 +141,7 @@ public class OptionSpecification {
 					throw new GetOptSetupException(
 							"onEncounterNoArg must be set if " + "argumentSpecification is " + argumentSpecification);
 				}
-				if (onEncounterWithArg == null) {
+				if (!consumesArgument) {
 					throw new GetOptSetupException(
 							"onEncounterWithArg must be set if " + "argumentSpecification is " + argumentSpecification);
 				}
@@ -98,28 +154,90 @@ public class OptionSpecification {
 		this.required = required;
 		this.mnemonic = mnemonic;
 		this.documentation = documentation;
-		onEncounterNoArgument.add(onEncounterNoArg);
-		onEncounterWithArgument.add(onEncounterWithArg);
+		this.converter = converter;
+		this.onConverted = (Consumer<Object>) onConverted;
+		this.onEncounterNoArgument = onEncounterNoArg;
+		this.onEncounterWithArgument = onEncounterWithArg;
 	}
 
 	public OptionSpecification addShortOpt(Character opt) {
 		parent.addShortOpt(this, opt);
-		shortOptList.add(opt);
 		return this;
 	}
 
 	public OptionSpecification addLongOpt(String opt) {
 		parent.addLongOpt(this, opt);
-		longOptList.add(opt);
 		return this;
 	}
 
+	/**
+	 * Record a short name; called by the option set, under its lock.
+	 */
+	void appendShortOpt(char opt) {
+		char[] opts = shortOpts;
+		char[] newShortOpts = Arrays.copyOf(opts, opts.length + 1);
+		newShortOpts[opts.length] = opt;
+		shortOpts = newShortOpts;
+	}
+
+	/**
+	 * Record a long name; called by the option set, under its lock.
+	 */
+	void appendLongOpt(String opt) {
+		String[] opts = longOpts;
+		String[] newLongOpts = Arrays.copyOf(opts, opts.length + 1);
+		newLongOpts[opts.length] = opt;
+		longOpts = newLongOpts;
+	}
+
+	/**
+	 * Mark this option as an early option: one that is processed by {@link
+	 * GetOpt#bootstrap(String...)}, before the rest of the options are defined (e.g. {@code
+	 * --config}).
+	 *
+	 * @param early is this an early option?
+	 * @return this
+	 */
+	public OptionSpecification setEarly(boolean early) {
+		this.early = early;
+		return this;
+	}
+
+	/**
+	 * Get this option's id: its position among the options of its option set, assigned when it is
+	 * added to the set.
+	 *
+	 * @return the id, or -1 if the option hasn't been added to its option set yet
+	 */
+	public int getId() {
+		return id;
+	}
+
+	void setId(int id) {
+		this.id = id;
+	}
+
+	public boolean isEarly() {
+		return early;
+	}
+
 	public List<Character> getShortOptList() {
-		return shortOptList;
+		char[] opts = shortOpts;
+		return new AbstractList<Character>() {
+			@Override
+			public Character get(int index) {
+				return opts[index];
+			}
+
+			@Override
+			public int size() {
+				return opts.length;
+			}
+		};
 	}
 
 	public List<String> getLongOptList() {
-		return longOptList;
+		return Collections.unmodifiableList(Arrays.asList(longOpts));
 	}
 
 	public boolean isRequired() {
@@ -147,19 +265,24 @@ public class OptionSpecification {
 	}
 
 	public String makeOptionDescriptor() {
-		if (!shortOptList.isEmpty()) {
-			return "-" + shortOptList.get(0);
-		} else {
-			return "--" + longOptList.get(0);
+		char[] shorts = shortOpts;
+		if (shorts.length != 0) {
+			return "-" + shorts[0];
+		}
+		String[] longs = longOpts;
+		if (longs.length != 0) {
+			return "--" + longs[0];
 		}
+		// only while another thread is still naming it
+		return "option #" + id;
 	}
 
 	ParameterDescription getDescription() {
 		ParameterDescription result = new ParameterDescription();
-		for (Character shortOpt : shortOptList) {
+		for (char shortOpt : shortOpts) {
 			result.addOptionDescription("-" + shortOpt, mnemonic);
 		}
-		for (String longOpt : longOptList) {
+		for (String longOpt : longOpts) {
 			result.addOptionDescription("--" + longOpt, mnemonic);
 		}
 		result.setDocumentation((required ? "(required) " : "") + documentation);
@@ -167,12 +290,42 @@ public class OptionSpecification {
 	}
 
 	public void encounter(String argument) {
+		apply(argument, convert(argument));
+	}
+
+	/**
+	 * Convert an argument to this option's type, without invoking any consumers.
+	 *
+	 * @param argument the argument from the command line
+	 * @return the converted argument, or the argument itself if this option has no converter
+	 * @throws CommandLineProcessingException if the argument can't be converted
+	 */
+	public Object convert(String argument) {
+		return converter == null ? argument : converter.convert(argument, parent, this);
+	}
+
+	/**
+	 * Invoke the consumers for an argument that has already been converted with {@link
+	 * #convert(String)}.
+	 *
+	 * @param argument  the argument from the command line
+	 * @param converted the converted argument
+	 */
+	public void apply(String argument, Object converted) {
 		if (argumentSpecification == ArgumentSpecification.NONE) {
 			throw new GetOptSetupException("Option " + makeOptionDescriptor() + " does not take an argument");
 		}
 		specified = true;
-		for (BiConsumer<String, OptionSpecification> acceptor : onEncounterWithArgument) {
-			acceptor.accept(argument, this);
+		if (onConverted != null) {
+			onConverted.accept(converted);
+		}
+		if (onEncounterWithArgument != null) {
+			onEncounterWithArgument.accept(argument, this);
+			if (moreOnEncounterWithArgument != null) {
+				for (BiConsumer<String, OptionSpecification> acceptor : moreOnEncounterWithArgument) {
+					acceptor.accept(argument, this);
+				}
+			}
 		}
 	}
 
@@ -181,8 +334,13 @@ public class OptionSpecification {
 			throw new GetOptSetupException("Option " + makeOptionDescriptor() + " requires an argument");
 		}
 		specified = true;
-		for (Consumer<Boolean> acceptor : onEncounterNoArgument) {
-			acceptor.accept(on);
+		if (onEncounterNoArgument != null) {
+			onEncounterNoArgument.accept(on);
+			if (moreOnEncounterNoArgument != null) {
+				for (Consumer<Boolean> acceptor : moreOnEncounterNoArgument) {
+					acceptor.accept(on);
+				}
+			}
 		}
 	}
 
@@ -206,17 +364,72 @@ public class OptionSpecification {
 				onEncounterWithArgument);
 	}
 
+	/**
+	 * Make an option whose argument is converted, and given to a typed consumer.
+	 */
+	static <T> OptionSpecification makeConvertedOption(GetOpt parent, String mnemonic, String documentation, boolean required,
+	                                                   TypeConverter<T> converter, Consumer<T> onEncounter) {
+		return new OptionSpecification(parent, required, ArgumentSpecification.REQUIRED, mnemonic, documentation, null, null, converter,
+				onEncounter);
+	}
+
 	public OptionReceiver<Boolean> makeFlagReceiver() {
 		final OptionReceiver<Boolean> receiver = new OptionReceiver<>();
-		onEncounterNoArgument.add(receiver::setResult);
+		if (onEncounterNoArgument == null) {
+			onEncounterNoArgument = receiver::setResult;
+		} else {
+			if (moreOnEncounterNoArgument == null) {
+				moreOnEncounterNoArgument = new ArrayList<>(1);
+			}
+			moreOnEncounterNoArgument.add(receiver::setResult);
+		}
 		return receiver;
 	}
 
 	public OptionReceiver<String> makeArgumentReceiver() {
 		final OptionReceiver<String> receiver = new OptionReceiver<>();
-		onEncounterWithArgument.add((s, optionSpecification) -> receiver.addResult(s));
+		BiConsumer<String, OptionSpecification> consumer = (s, optionSpecification) -> receiver.addResult(s);
+		if (onEncounterWithArgument == null) {
+			onEncounterWithArgument = consumer;
+		} else {
+			if (moreOnEncounterWithArgument == null) {
+				moreOnEncounterWithArgument = new ArrayList<>(1);
+			}
+			moreOnEncounterWithArgument.add(consumer);
+		}
 		return receiver;
 	}
+
+	/**
+	 * Get the converter for this option's argument.
+	 *
+	 * @return the converter, or null if the argument is passed on as it is
+	 */
+	public TypeConverter<?> getConverter() {
+		return converter;
+	}
+
+	/**
+	 * Estimate the memory held by this option, not counting its strings or consumers.
+	 *
+	 * @return the estimate, in bytes
+	 */
+	long estimateBytes() {
+		long bytes = OptionFootprint.object(17);
+		if (shortOpts != NO_SHORT_OPTS) {
+			bytes += OptionFootprint.charArray(shortOpts.length);
+		}
+		if (longOpts != NO_LONG_OPTS) {
+			bytes += OptionFootprint.refArray(longOpts.length);
+		}
+		if (moreOnEncounterNoArgument != null) {
+			bytes += OptionFootprint.arrayList(moreOnEncounterNoArgument.size());
+		}
+		if (moreOnEncounterWithArgument != null) {
+			bytes += OptionFootprint.arrayList(moreOnEncounterWithArgument.size());
+		}
+		return bytes;
+	}
 }
 
 
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the long option names closest to a mistyped one, for "did you mean" hints. The names are
+ * kept in a BK-tree keyed by Levenshtein distance, so a search only visits the subtrees that can
+ * hold names within the distance allowed, rather than comparing every name. Like {@link
+ * OptionTable}, the tree is a few parallel arrays.
+ */
+final class OptionSuggester {
+
+	/**
+	 * The most names suggested.
+	 */
+	static final int MAX_SUGGESTIONS = 3;
+
+	/**
+	 * The longest a search may take; when it runs out, the names found so far are suggested.
+	 */
+	static final long BUDGET_NANOS = 1000000;
+
+	/**
+	 * How many nodes are visited between checks of the clock.
+	 */
+	private static final int CLOCK_INTERVAL = 64;
+
+	private final String[] names;
+
+	private final int longest;
+
+	/**
+	 * For each node (the index of its name), its first child, its next sibling, and its distance
+	 * from its parent; -1 for no child or sibling.
+	 */
+	private final int[] firstChild;
+
+	private final int[] nextSibling;
+
+	private final int[] distance;
+
+	/**
+	 * Build the tree.
+	 *
+	 * @param names the names, which must not change afterwards
+	 */
+	OptionSuggester(String[] names) {
+		this.names = names;
+		this.firstChild = new int[names.length];
+		this.nextSibling = new int[names.length];
+		this.distance = new int[names.length];
+		int longest = 0;
+		for (String name : names) {
+			longest = Math.max(longest, name.length());
+		}
+		this.longest = longest;
+		Distance measure = new Distance(longest);
+		for (int i = 0; i < names.length; i++) {
+			firstChild[i] = -1;
+			nextSibling[i] = -1;
+			if (i > 0) {
+				insert(i, measure);
+			}
+		}
+	}
+
+	private void insert(int node, Distance measure) {
+		measure.setPattern(names[node]);
+		int parent = 0;
+		while (true) {
+			int d = measure.to(names[parent]);
+			int child = firstChild[parent];
+			while (child >= 0 && distance[child] != d) {
+				child = nextSibling[child];
+			}
+			if (child < 0) {
+				distance[node] = d;
+				nextSibling[node] = firstChild[parent];
+				firstChild[parent] = node;
+				return;
+			}
+			parent = child;
+		}
+	}
+
+	/**
+	 * The furthest a name may be from what was typed to be suggested: one edit for short names,
+	 * two for longer ones.
+	 */
+	static int maxDistance(String typed) {
+		return typed.length() <= 4 ? 1 : 2;
+	}
+
+	/**
+	 * Find the names closest to what was typed, nearest first.
+	 *
+	 * @param typed the name as typed, without dashes
+	 * @return up to {@link #MAX_SUGGESTIONS} names
+	 */
+	List<String> suggest(String typed) {
+		if (names.length == 0) {
+			return Collections.emptyList();
+		}
+		int max = maxDistance(typed);
+		long deadline = System.nanoTime() + BUDGET_NANOS;
+		Distance measure = new Distance(longest);
+		measure.setPattern(typed);
+		// the best matches so far, in order of distance, then name
+		List<String> found = new ArrayList<>(MAX_SUGGESTIONS + 1);
+		List<Integer> foundDistances = new ArrayList<>(MAX_SUGGESTIONS + 1);
+		int[] stack = new int[16];
+		int top = 0;
+		stack[top++] = 0;
+		int visited = 0;
+		while (top > 0) {
+			if (++visited % CLOCK_INTERVAL == 0 && System.nanoTime() > deadline) {
+				break;
+			}
+			int node = stack[--top];
+			int d = measure.to(names[node]);
+			if (d <= max) {
+				add(found, foundDistances, names[node], d);
+			}
+			for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+				if (distance[child] >= d - max && distance[child] <= d + max) {
+					if (top == stack.length) {
+						int[] bigger = new int[stack.length * 2];
+						System.arraycopy(stack, 0, bigger, 0, top);
+						stack = bigger;
+					}
+					stack[top++] = child;
+				}
+			}
+		}
+		return found;
+	}
+
+	private static void add(List<String> found, List<Integer> foundDistances, String name, int d) {
+		int i = found.size();
+		while (i > 0 && (foundDistances.get(i - 1) > d || (foundDistances.get(i - 1) == d && found.get(i - 1).compareTo(name) > 0))) {
+			i--;
+		}
+		if (i < MAX_SUGGESTIONS) {
+			found.add(i, name);
+			foundDistances.add(i, d);
+			if (found.size() > MAX_SUGGESTIONS) {
+				found.remove(MAX_SUGGESTIONS);
+				foundDistances.remove(MAX_SUGGESTIONS);
+			}
+		}
+	}
+
+	/**
+	 * Measures the Levenshtein distance from one string (the pattern) to others. Patterns of up to
+	 * 64 ASCII characters use Myers' bit-parallel algorithm, which takes one pass over the other
+	 * string; others use the usual dynamic programming.
+	 */
+	static final class Distance {
+
+		/**
+		 * For each ASCII character, the positions in the pattern where it occurs.
+		 */
+		private final long[] positions = new long[128];
+
+		private String pattern = "";
+
+		private boolean bitParallel;
+
+		/**
+		 * Scratch space for the dynamic programming.
+		 */
+		private int[] row;
+
+		/**
+		 * Constructor
+		 *
+		 * @param longest the length of the longest string the pattern will be compared with
+		 */
+		Distance(int longest) {
+			this.row = new int[longest + 1];
+		}
+
+		void setPattern(String pattern) {
+			for (int i = 0; i < this.pattern.length(); i++) {
+				char ch = this.pattern.charAt(i);
+				if (ch < 128) {
+					positions[ch] = 0;
+				}
+			}
+			this.pattern = pattern;
+			bitParallel = pattern.length() <= 64;
+			for (int i = 0; i < pattern.length() && bitParallel; i++) {
+				char ch = pattern.charAt(i);
+				if (ch < 128) {
+					positions[ch] |= 1L << i;
+				} else {
+					bitParallel = false;
+				}
+			}
+		}
+
+		/**
+		 * Get the distance from the pattern to a string.
+		 */
+		int to(String text) {
+			int m = pattern.length();
+			if (m == 0) {
+				return text.length();
+			}
+			if (!bitParallel) {
+				if (row.length <= text.length()) {
+					row = new int[text.length() + 1];
+				}
+				return distance(pattern, text, row);
+			}
+			// pv/mv: vertical deltas of +1/-1 down the current column; score: the bottom cell
+			long pv = -1L;
+			long mv = 0;
+			long last = 1L << (m - 1);
+			int score = m;
+			for (int j = 0; j < text.length(); j++) {
+				char ch = text.charAt(j);
+				long eq = ch < 128 ? positions[ch] : 0;
+				long xv = eq | mv;
+				long xh = (((eq & pv) + pv) ^ pv) | eq;
+				long ph = mv | ~(xh | pv);
+				long mh = pv & xh;
+				if ((ph & last) != 0) {
+					score++;
+				} else if ((mh & last) != 0) {
+					score--;
+				}
+				// the top row goes up by one per column
+				ph = (ph << 1) | 1;
+				mh <<= 1;
+				pv = mh | ~(xv | ph);
+				mv = ph & xv;
+			}
+			return score;
+		}
+	}
+
+	/**
+	 * The Levenshtein distance between two strings.
+	 *
+	 * @param row scratch space, at least one longer than {@code b}
+	 */
+	static int distance(String a, String b, int[] row) {
+		int bLength = b.length();
+		for (int j = 0; j <= bLength; j++) {
+			row[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			char ch = a.charAt(i - 1);
+			int diagonal = row[0];
+			row[0] = i;
+			for (int j = 1; j <= bLength; j++) {
+				int above = row[j];
+				int cost = ch == b.charAt(j - 1) ? 0 : 1;
+				row[j] = Math.min(Math.min(row[j - 1] + 1, above + 1), diagonal + cost);
+				diagonal = above;
+			}
+		}
+		return row[bLength];
+	}
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An immutable snapshot of the options of a {@link GetOpt}. GetOpt publishes a new snapshot
+ * whenever its options have changed and somebody asks for one, so lookups in a snapshot need no
+ * locking, and a parse that uses a single snapshot sees a consistent set of options even while
+ * other threads are adding options.
+ * <p></p>
+ * The tables are kept as parallel sorted arrays rather than maps, so a table for tens of thousands
+ * of options costs a few words per option.
+ */
+public class OptionTable {
+
+	/**
+	 * The most matches of an ambiguous abbreviation listed in its problem; with a large option set,
+	 * an abbreviation can match thousands of options.
+	 */
+	private static final int MAX_LISTED_MATCHES = 10;
+
+	/**
+	 * The short option characters, sorted, and the ids of their options.
+	 */
+	private final char[] shortNames;
+
+	private final int[] shortIds;
+
+	/**
+	 * The long option names, sorted, and the ids of their options. Abbreviations are looked up by
+	 * binary search for the first name at or after the abbreviation.
+	 */
+	private final String[] longNames;
+
+	private final int[] longIds;
+
+	private final OptionSpecification[] optionsById;
+
+	private final Set<OptionSpecification> options;
+
+	private final long[] requiredMask;
+
+	private final OptionConstraint[] constraints;
+
+	private final long[] constrainedMask;
+
+	/**
+	 * The index for "did you mean" suggestions, made when first needed, since most parses never
+	 * see an unknown option.
+	 */
+	private volatile OptionSuggester suggester;
+
+	OptionTable(Map<Character, OptionSpecification> byShort, NavigableMap<String, OptionSpecification> byLong,
+	            List<OptionSpecification> optionsById, long[] requiredMask, List<OptionConstraint> constraints,
+	            long[] constrainedMask) {
+		this.shortNames = new char[byShort.size()];
+		this.shortIds = new int[byShort.size()];
+		int i = 0;
+		for (Entry<Character, OptionSpecification> entry : new TreeMap<>(byShort).entrySet()) {
+			shortNames[i] = entry.getKey();
+			shortIds[i] = entry.getValue().getId();
+			i++;
+		}
+		this.longNames = new String[byLong.size()];
+		this.longIds = new int[byLong.size()];
+		i = 0;
+		for (Entry<String, OptionSpecification> entry : byLong.entrySet()) {
+			longNames[i] = entry.getKey();
+			longIds[i] = entry.getValue().getId();
+			i++;
+		}
+		this.optionsById = optionsById.toArray(new OptionSpecification[0]);
+		this.options = new OptionSet();
+		this.requiredMask = trim(requiredMask);
+		this.constraints = constraints.toArray(new OptionConstraint[0]);
+		this.constrainedMask = trim(constrainedMask);
+	}
+
+	/**
+	 * Drop trailing zero words, so that a mask with no bits set costs nothing to check.
+	 */
+	private static long[] trim(long[] mask) {
+		int length = mask.length;
+		while (length > 0 && mask[length - 1] == 0) {
+			length--;
+		}
+		return Arrays.copyOf(mask, length);
+	}
+
+	/**
+	 * Look up a short option.
+	 *
+	 * @param ch the option character
+	 * @return the option, or {@code null} if there is no such option
+	 */
+	public OptionSpecification getShortOpt(char ch) {
+		int index = Arrays.binarySearch(shortNames, ch);
+		return index < 0 ? null : optionsById[shortIds[index]];
+	}
+
+	/**
+	 * Look up a long option by its exact name.
+	 *
+	 * @param name the option name, without dashes
+	 * @return the option, or {@code null} if there is no such option
+	 */
+	public OptionSpecification getLongOpt(String name) {
+		int index = Arrays.binarySearch(longNames, name);
+		return index < 0 ? null : optionsById[longIds[index]];
+	}
+
+	/**
+	 * Find the index of the first long name that is not less than a prefix.
+	 */
+	private int firstAtOrAfter(String prefix) {
+		int index = Arrays.binarySearch(longNames, prefix);
+		return index < 0 ? -index - 1 : index;
+	}
+
+	/**
+	 * Find the long options that start with a prefix.
+	 *
+	 * @param prefix the prefix, without dashes
+	 * @return the option names, sorted
+	 */
+	public List<String> getLongMatches(String prefix) {
+		List<String> possibleMatches = new ArrayList<>();
+		for (int i = firstAtOrAfter(prefix); i < longNames.length && longNames[i].startsWith(prefix); i++) {
+			possibleMatches.add(longNames[i]);
+		}
+		return possibleMatches;
+	}
+
+	/**
+	 * Look up a long option as written on the command line: either its exact name, or an
+	 * abbreviation that matches only one option.
+	 *
+	 * @param str      the option name, without dashes
+	 * @param problems where to add a problem if there's no such option, or the abbreviation is
+	 *                 ambiguous
+	 * @return the option, or {@code null} if it could not be found
+	 */
+	public OptionSpecification resolveLongOpt(String str, Collection<String> problems) {
+		List<Problem> found = new ArrayList<>(1);
+		OptionSpecification option = resolveLongOpt("--" + str, 2, str.length() + 2, -1, found);
+		for (Problem problem : found) {
+			problems.add(problem.getMessage());
+		}
+		return option;
+	}
+
+	/**
+	 * Look up a long option whose name is part of a command line token (so the parser doesn't have
+	 * to cut the name out of "--name=value").
+	 *
+	 * @param token     the token
+	 * @param start     the index of the name's first character
+	 * @param end       the index after the name's last character
+	 * @param argvIndex the token's index on the command line, for the problem
+	 * @param problems  where to add a problem if there's no such option, or the abbreviation is
+	 *                  ambiguous
+	 * @return the option, or {@code null} if it could not be found
+	 * @see #resolveLongOpt(String, Collection)
+	 */
+	public OptionSpecification resolveLongOpt(String token, int start, int end, int argvIndex, Collection<Problem> problems) {
+		int length = end - start;
+		int low = 0;
+		int high = longNames.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compare(longNames[mid], token, start, end) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		if (low < longNames.length && longNames[low].regionMatches(0, token, start, length)) {
+			if (longNames[low].length() == length || low + 1 == longNames.length ||
+					!longNames[low + 1].regionMatches(0, token, start, length)) {
+				// exact, or the only match
+				return optionsById[longIds[low]];
+			}
+			int matchesEnd = prefixEnd(low, token, start, end);
+			int listed = Math.min(matchesEnd - low, MAX_LISTED_MATCHES);
+			problems.add(new Problem(ProblemCode.AMBIGUOUS_OPTION, null, argvIndex, "--" + token.substring(start, end),
+					Arrays.asList(longNames).subList(low, low + listed), matchesEnd - low - listed));
+			return null;
+		}
+		// the suggestions are only looked for if the message is rendered
+		String name = token.substring(start, end);
+		problems.add(Problem.unknownLongOption(argvIndex, "--" + name, () -> getSuggestions(name)));
+		return null;
+	}
+
+	/**
+	 * Find the long option names closest to a mistyped one: at most three, within one edit of a
+	 * name of up to four characters or two edits of a longer one, nearest first. The search is
+	 * given a millisecond; if that runs out, the names found by then are returned.
+	 *
+	 * @param name the mistyped name, without dashes
+	 * @return the names
+	 */
+	public List<String> getSuggestions(String name) {
+		OptionSuggester index = suggester;
+		if (index == null) {
+			// a race only builds the index twice
+			index = new OptionSuggester(longNames);
+			suggester = index;
+		}
+		return index.suggest(name);
+	}
+
+	/**
+	 * Find the end of the run of long names, starting at {@code from}, that start with part of a
+	 * token.
+	 */
+	private int prefixEnd(int from, String token, int start, int end) {
+		int length = end - start;
+		int low = from;
+		int high = longNames.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (longNames[mid].regionMatches(0, token, start, length)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Compare a name with part of a token, as {@link String#compareTo(String)} would.
+	 */
+	private static int compare(String name, String token, int start, int end) {
+		int length = end - start;
+		int common = Math.min(name.length(), length);
+		for (int i = 0; i < common; i++) {
+			char a = name.charAt(i);
+			char b = token.charAt(start + i);
+			if (a != b) {
+				return a - b;
+			}
+		}
+		return name.length() - length;
+	}
+
+	/**
+	 * Get the short option characters, sorted.
+	 *
+	 * @return the characters
+	 */
+	public List<Character> getShortOptNames() {
+		List<Character> result = new ArrayList<>(shortNames.length);
+		for (char ch : shortNames) {
+			result.add(ch);
+		}
+		return result;
+	}
+
+	/**
+	 * Get the long option names, sorted.
+	 *
+	 * @return the names
+	 */
+	public List<String> getLongOptNames() {
+		return Collections.unmodifiableList(Arrays.asList(longNames));
+	}
+
+	/**
+	 * Get all the options, in id order.
+	 *
+	 * @return the options
+	 */
+	public Set<OptionSpecification> getOptions() {
+		return options;
+	}
+
+	/**
+	 * Get the number of options; option ids are from 0 to this, exclusive.
+	 *
+	 * @return the number of options
+	 */
+	public int getOptionCount() {
+		return optionsById.length;
+	}
+
+	/**
+	 * Get an option by its id.
+	 *
+	 * @param id the id
+	 * @return the option
+	 */
+	public OptionSpecification getOption(int id) {
+		return optionsById[id];
+	}
+
+	/**
+	 * Get the relations declared between the options.
+	 *
+	 * @return the constraints, in the order they were declared
+	 */
+	public List<OptionConstraint> getConstraints() {
+		return Collections.unmodifiableList(Arrays.asList(constraints));
+	}
+
+	/**
+	 * Estimate the memory held by this table itself (not the options or their strings).
+	 *
+	 * @return the estimate, in bytes
+	 */
+	long estimateBytes() {
+		return OptionFootprint.object(9) + OptionFootprint.charArray(shortNames.length) +
+				OptionFootprint.intArray(shortIds.length) + OptionFootprint.refArray(longNames.length) +
+				OptionFootprint.intArray(longIds.length) + OptionFootprint.refArray(optionsById.length) + OptionFootprint.object(1) +
+				OptionFootprint.longArray(requiredMask.length) + OptionFootprint.refArray(constraints.length) +
+				OptionFootprint.longArray(constrainedMask.length);
+	}
+
+	/**
+	 * The options, as a set view of the id-indexed array.
+	 */
+	private class OptionSet extends AbstractSet<OptionSpecification> {
+
+		@Override
+		public Iterator<OptionSpecification> iterator() {
+			return Collections.unmodifiableList(Arrays.asList(optionsById)).iterator();
+		}
+
+		@Override
+		public int size() {
+			return optionsById.length;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof OptionSpecification)) {
+				return false;
+			}
+			int id = ((OptionSpecification) o).getId();
+			return id >= 0 && id < optionsById.length && optionsById[id] == o;
+		}
+	}
+
+	/**
+	 * Check the required options and the option constraints at the end of a parse.
+	 *
+	 * @param specified  the ids of the options that were specified in this parse
+	 * @param cumulative if true, also count options that were specified by earlier processing (see
+	 *                   {@link OptionSpecification#isSpecified()})
+	 * @param problems   where to add the problems found
+	 */
+	public void checkConstraints(long[] specified, boolean cumulative, Collection<Problem> problems) {
+		if (constrainedMask.length == 0) {
+			return;
+		}
+		if (cumulative) {
+			specified = Arrays.copyOf(specified, Math.max(specified.length, constrainedMask.length));
+			for (int word = 0; word < constrainedMask.length; word++) {
+				long unseen = constrainedMask[word] & ~specified[word];
+				while (unseen != 0) {
+					int id = (word << 6) + Long.numberOfTrailingZeros(unseen);
+					unseen &= unseen - 1;
+					if (optionsById[id].isSpecified()) {
+						specified[word] |= 1L << id;
+					}
+				}
+			}
+		}
+		for (int word = 0; word < requiredMask.length; word++) {
+			long missing = requiredMask[word] & ~(word < specified.length ? specified[word] : 0);
+			while (missing != 0) {
+				int id = (word << 6) + Long.numberOfTrailingZeros(missing);
+				missing &= missing - 1;
+				problems.add(new Problem(ProblemCode.REQUIRED_OPTION_MISSING, optionsById[id], null));
+			}
+		}
+		for (OptionConstraint constraint : constraints) {
+			Problem problem = constraint.check(specified);
+			if (problem != null) {
+				problems.add(problem);
+			}
+		}
+	}
+}
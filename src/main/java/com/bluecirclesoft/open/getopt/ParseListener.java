@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.List;
+
+/**
+ * Is told what a parse is doing (and when options are defined from a receptacle, and when the usage
+ * message is rendered), for instrumentation. Install one with {@link
+ * GetOpt#setParseListener(ParseListener)}, or for every option set created from then on with {@link
+ * GetOpt#setDefaultParseListener(ParseListener)}; each parse uses the listener installed when it
+ * starts. The methods are called on the parsing thread, so a listener shared by several threads
+ * must be thread-safe. All the methods do nothing by default.
+ * <p></p>
+ * Without a listener, or while {@link #isEnabled()} is false, the parser makes no calls and reads no
+ * clocks.
+ *
+ * @see ParseStatistics
+ */
+public interface ParseListener {
+
+	/**
+	 * Does the listener want to hear about what is starting (a parse, a definition from a
+	 * receptacle, or the rendering of the usage message)? Asked once at the start of each; if not,
+	 * none of its hooks are called. True by default.
+	 *
+	 * @return yes or no
+	 */
+	default boolean isEnabled() {
+		return true;
+	}
+
+	/**
+	 * Options are about to be defined from the annotations of a receptacle.
+	 *
+	 * @param receptacleClass the receptacle's class
+	 */
+	default void definitionStarted(Class<?> receptacleClass) {
+	}
+
+	/**
+	 * Options were defined from the annotations of a receptacle.
+	 *
+	 * @param receptacleClass the receptacle's class
+	 * @param members         the number of annotated fields and methods
+	 * @param elapsedNanos    how long it took
+	 */
+	default void definitionFinished(Class<?> receptacleClass, int members, long elapsedNanos) {
+	}
+
+	/**
+	 * A parse is starting.
+	 *
+	 * @param getOpt the option set
+	 */
+	default void parseStarted(GetOpt getOpt) {
+	}
+
+	/**
+	 * A command line token is about to be examined.
+	 *
+	 * @param index the token's position in the command line
+	 * @param token the token
+	 */
+	default void tokenScanned(int index, String token) {
+	}
+
+	/**
+	 * A token (or one character of a group of short options) was matched to an option.
+	 *
+	 * @param option      the option
+	 * @param name        the option as written ("-v", "--verb")
+	 * @param abbreviated whether a long option was abbreviated
+	 */
+	default void optionMatched(OptionSpecification option, String name, boolean abbreviated) {
+	}
+
+	/**
+	 * An option's argument is about to be converted.
+	 *
+	 * @param option the option
+	 * @param value  the argument
+	 */
+	default void conversionStarted(OptionSpecification option, String value) {
+	}
+
+	/**
+	 * An option's argument was converted.
+	 *
+	 * @param option       the option
+	 * @param value        the argument
+	 * @param elapsedNanos how long the conversion took
+	 * @param succeeded    false if the argument couldn't be converted
+	 */
+	default void conversionFinished(OptionSpecification option, String value, long elapsedNanos, boolean succeeded) {
+	}
+
+	/**
+	 * A problem with the command line was found.
+	 *
+	 * @param problem the problem
+	 */
+	default void problemRecorded(Problem problem) {
+	}
+
+	/**
+	 * The parse is over (including when processParams() stops at the first problem).
+	 *
+	 * @param tokens       the number of tokens examined
+	 * @param problems     the problems found
+	 * @param elapsedNanos how long the parse took, from its start to the end of the command line
+	 */
+	default void parseCompleted(int tokens, List<Problem> problems, long elapsedNanos) {
+	}
+
+	/**
+	 * The usage message is about to be rendered.
+	 *
+	 * @param getOpt the option set
+	 */
+	default void usageStarted(GetOpt getOpt) {
+	}
+
+	/**
+	 * The usage message was rendered.
+	 *
+	 * @param getOpt       the option set
+	 * @param length       the length of the message
+	 * @param elapsedNanos how long it took
+	 */
+	default void usageFinished(GetOpt getOpt, int length, long elapsedNanos) {
+	}
+}
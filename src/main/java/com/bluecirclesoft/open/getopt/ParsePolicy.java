@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+/**
+ * How much of a bad command line a parse examines, and the limits that bound what any command line
+ * can cost. By default ({@link #collectAll()}) the whole command line is scanned and every problem
+ * is reported, which is what a person at a terminal wants; a service that rejects any command line
+ * with a problem can stop at the first one ({@link #failFast()}) or after a few ({@link
+ * #maxProblems(int)}).
+ * <p></p>
+ * The limits are independent of the mode. A command line with more tokens than {@link
+ * #withMaxTokens(int)} allows is not examined beyond the limit; a token longer than {@link
+ * #withMaxTokenLength(int)} allows is reported and skipped without being examined; and an option
+ * given more often than {@link #withMaxOccurrencesPerOption(int)} allows is reported once, and
+ * its further occurrences (and their arguments) are skipped.
+ * <p></p>
+ * Policies are immutable, so one may be shared by any number of option sets and parses.
+ *
+ * @see GetOpt#setParsePolicy(ParsePolicy)
+ */
+public final class ParsePolicy {
+
+	/**
+	 * No limit.
+	 */
+	public static final int UNLIMITED = Integer.MAX_VALUE;
+
+	private static final ParsePolicy COLLECT_ALL = new ParsePolicy(UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED);
+
+	private final int maxProblems;
+
+	private final int maxTokens;
+
+	private final int maxTokenLength;
+
+	private final int maxOccurrencesPerOption;
+
+	private ParsePolicy(int maxProblems, int maxTokens, int maxTokenLength, int maxOccurrencesPerOption) {
+		this.maxProblems = maxProblems;
+		this.maxTokens = maxTokens;
+		this.maxTokenLength = maxTokenLength;
+		this.maxOccurrencesPerOption = maxOccurrencesPerOption;
+	}
+
+	/**
+	 * Scan the whole command line, and report every problem. This is the default.
+	 *
+	 * @return the policy
+	 */
+	public static ParsePolicy collectAll() {
+		return COLLECT_ALL;
+	}
+
+	/**
+	 * Stop scanning at the first problem.
+	 *
+	 * @return the policy
+	 */
+	public static ParsePolicy failFast() {
+		return maxProblems(1);
+	}
+
+	/**
+	 * Stop scanning once {@code count} problems have been found.
+	 *
+	 * @param count the number of problems to report, at least 1
+	 * @return the policy
+	 */
+	public static ParsePolicy maxProblems(int count) {
+		return COLLECT_ALL.withMaxProblems(count);
+	}
+
+	private ParsePolicy withMaxProblems(int count) {
+		return new ParsePolicy(checkLimit("maximum number of problems", count), maxTokens, maxTokenLength,
+				maxOccurrencesPerOption);
+	}
+
+	/**
+	 * Get a policy like this one, that examines at most {@code count} tokens.
+	 *
+	 * @param count the number of tokens, at least 1
+	 * @return the policy
+	 */
+	public ParsePolicy withMaxTokens(int count) {
+		return new ParsePolicy(maxProblems, checkLimit("maximum number of tokens", count), maxTokenLength,
+				maxOccurrencesPerOption);
+	}
+
+	/**
+	 * Get a policy like this one, that skips the tokens longer than {@code length} characters.
+	 *
+	 * @param length the length, at least 1
+	 * @return the policy
+	 */
+	public ParsePolicy withMaxTokenLength(int length) {
+		return new ParsePolicy(maxProblems, maxTokens, checkLimit("maximum token length", length), maxOccurrencesPerOption);
+	}
+
+	/**
+	 * Get a policy like this one, that accepts each option at most {@code count} times.
+	 *
+	 * @param count the number of occurrences, at least 1
+	 * @return the policy
+	 */
+	public ParsePolicy withMaxOccurrencesPerOption(int count) {
+		return new ParsePolicy(maxProblems, maxTokens, maxTokenLength, checkLimit("maximum number of occurrences", count));
+	}
+
+	private static int checkLimit(String what, int limit) {
+		if (limit < 1) {
+			throw new GetOptSetupException("The " + what + " must be at least 1");
+		}
+		return limit;
+	}
+
+	public int getMaxProblems() {
+		return maxProblems;
+	}
+
+	public int getMaxTokens() {
+		return maxTokens;
+	}
+
+	public int getMaxTokenLength() {
+		return maxTokenLength;
+	}
+
+	public int getMaxOccurrencesPerOption() {
+		return maxOccurrencesPerOption;
+	}
+
+	@Override
+	public String toString() {
+		return "ParsePolicy{maxProblems=" + limit(maxProblems) + ", maxTokens=" + limit(maxTokens) + ", maxTokenLength=" +
+				limit(maxTokenLength) + ", maxOccurrencesPerOption=" + limit(maxOccurrencesPerOption) + "}";
+	}
+
+	private static String limit(int limit) {
+		return limit == UNLIMITED ? "unlimited" : Integer.toString(limit);
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of parsing one command line with {@link GetOpt#parse(String...)}. Unlike {@link
+ * GetOpt#processParams(String...)}, producing a parse result does not invoke any of the option
+ * consumers and does not mark any options as specified, so many command lines may be parsed against
+ * the same (frozen) GetOpt at once.
+ */
+public class ParseResult {
+
+	private final List<Occurrence> occurrences;
+
+	private final List<String> nonOptions;
+
+	private final List<Problem> problems;
+
+	public ParseResult(List<Occurrence> occurrences, List<String> nonOptions, List<Problem> problems) {
+		this.occurrences = Collections.unmodifiableList(occurrences);
+		this.nonOptions = Collections.unmodifiableList(nonOptions);
+		this.problems = Collections.unmodifiableList(problems);
+	}
+
+	/**
+	 * Did the command line parse without any problems?
+	 *
+	 * @return yes or no
+	 */
+	public boolean isSuccessful() {
+		return problems.isEmpty();
+	}
+
+	/**
+	 * Get the options encountered on the command line, in command line order.
+	 *
+	 * @return the occurrences
+	 */
+	public List<Occurrence> getOccurrences() {
+		return occurrences;
+	}
+
+	/**
+	 * Get the parameters left over after option processing.
+	 *
+	 * @return the non-option parameters
+	 */
+	public List<String> getNonOptions() {
+		return nonOptions;
+	}
+
+	/**
+	 * Get the problems found with the command line, in the order they were found, rendered as text.
+	 * Each problem is rendered when it is read.
+	 *
+	 * @return the problems, empty if the parse was successful
+	 */
+	public List<String> getProblems() {
+		return Problem.messages(problems);
+	}
+
+	/**
+	 * Get the problems found with the command line, in the order they were found.
+	 *
+	 * @return the problems, empty if the parse was successful
+	 */
+	public List<Problem> getTypedProblems() {
+		return problems;
+	}
+
+	/**
+	 * Was the given option specified on the command line?
+	 *
+	 * @param option the option
+	 * @return yes or no
+	 */
+	public boolean isSpecified(OptionSpecification option) {
+		for (Occurrence occurrence : occurrences) {
+			if (occurrence.getOption() == option) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the arguments given for the given option, in command line order.
+	 *
+	 * @param option the option
+	 * @return the arguments (empty if the option was not specified, or is a flag)
+	 */
+	public List<String> getValues(OptionSpecification option) {
+		List<String> result = new ArrayList<>();
+		for (Occurrence occurrence : occurrences) {
+			if (occurrence.getOption() == option && occurrence.getValue() != null) {
+				result.add(occurrence.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Invoke the option consumers for every option in this result, in command line order, as if
+	 * the command line had been given to {@link GetOpt#processParams(String...)}.  Since the
+	 * arguments were converted during the parse, the consumers won't see a conversion failure
+	 * halfway through. This should only be done once per result.
+	 *
+	 * @throws GetOptSetupException if the parse was not successful
+	 */
+	public void commit() {
+		if (!isSuccessful()) {
+			throw new GetOptSetupException("A parse result with problems cannot be committed");
+		}
+		for (Occurrence occurrence : occurrences) {
+			if (occurrence.getValue() == null) {
+				occurrence.getOption().encounter(true);
+			} else {
+				occurrence.getOption().apply(occurrence.getValue(), occurrence.getConvertedValue());
+			}
+		}
+	}
+
+	/**
+	 * One encounter of an option on the command line.
+	 */
+	public static class Occurrence {
+
+		private static final Object NOT_CONVERTED = new Object();
+
+		private final OptionSpecification option;
+
+		private final String name;
+
+		private final String value;
+
+		private final Object converted;
+
+		/**
+		 * Constructor
+		 *
+		 * @param option the option that was matched
+		 * @param name   the option as it was written on the command line (e.g. {@code -a} or {@code
+		 *               --alp})
+		 * @param value  the argument, or {@code null} if the option is a flag
+		 */
+		public Occurrence(OptionSpecification option, String name, String value) {
+			this(option, name, value, NOT_CONVERTED);
+		}
+
+		/**
+		 * Constructor
+		 *
+		 * @param option    the option that was matched
+		 * @param name      the option as it was written on the command line
+		 * @param value     the argument, or {@code null} if the option is a flag
+		 * @param converted the argument converted with {@link OptionSpecification#convert(String)}
+		 */
+		public Occurrence(OptionSpecification option, String name, String value, Object converted) {
+			this.option = option;
+			this.name = name;
+			this.value = value;
+			this.converted = converted;
+		}
+
+		public OptionSpecification getOption() {
+			return option;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		/**
+		 * Get the argument converted to the option's type (the argument itself if the option has no
+		 * converter).
+		 *
+		 * @return the converted argument, or {@code null} if the option is a flag
+		 */
+		public Object getConvertedValue() {
+			if (value == null) {
+				return null;
+			}
+			return converted == NOT_CONVERTED ? option.convert(value) : converted;
+		}
+
+		/**
+		 * Was this option given as an abbreviation of one of its long options?
+		 *
+		 * @return yes or no
+		 */
+		public boolean isAbbreviated() {
+			return name.startsWith("--") && !option.getLongOptList().contains(name.substring(2));
+		}
+	}
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ParseListener} that counts parses, tokens, problems and option matches, and keeps
+ * histograms of parse and conversion times, overall and for each option. The counters are {@link
+ * LongAdder}s, so one instance can be shared by any number of parsing threads without locking.
+ */
+public class ParseStatistics implements ParseListener {
+
+	private final LongAdder parses = new LongAdder();
+
+	private final LongAdder failedParses = new LongAdder();
+
+	private final LongAdder tokens = new LongAdder();
+
+	private final LongAdder problems = new LongAdder();
+
+	private final Histogram parseNanos = new Histogram();
+
+	private final Map<OptionSpecification, OptionStatistics> byOption = new ConcurrentHashMap<>();
+
+	private OptionStatistics statisticsFor(OptionSpecification option) {
+		OptionStatistics statistics = byOption.get(option);
+		if (statistics == null) {
+			statistics = byOption.computeIfAbsent(option, OptionStatistics::new);
+		}
+		return statistics;
+	}
+
+	@Override
+	public void tokenScanned(int index, String token) {
+		tokens.increment();
+	}
+
+	@Override
+	public void optionMatched(OptionSpecification option, String name, boolean abbreviated) {
+		OptionStatistics statistics = statisticsFor(option);
+		statistics.matches.increment();
+		if (abbreviated) {
+			statistics.abbreviatedMatches.increment();
+		}
+	}
+
+	@Override
+	public void conversionFinished(OptionSpecification option, String value, long elapsedNanos, boolean succeeded) {
+		OptionStatistics statistics = statisticsFor(option);
+		statistics.conversionNanos.record(elapsedNanos);
+		if (!succeeded) {
+			statistics.conversionFailures.increment();
+		}
+	}
+
+	@Override
+	public void problemRecorded(Problem problem) {
+		problems.increment();
+	}
+
+	@Override
+	public void parseCompleted(int tokens, List<Problem> problems, long elapsedNanos) {
+		parses.increment();
+		if (!problems.isEmpty()) {
+			failedParses.increment();
+		}
+		parseNanos.record(elapsedNanos);
+	}
+
+	public long getParses() {
+		return parses.sum();
+	}
+
+	public long getFailedParses() {
+		return failedParses.sum();
+	}
+
+	public long getTokens() {
+		return tokens.sum();
+	}
+
+	public long getProblems() {
+		return problems.sum();
+	}
+
+	public Histogram getParseNanos() {
+		return parseNanos;
+	}
+
+	/**
+	 * Get the statistics for an option.
+	 *
+	 * @param option the option
+	 * @return the statistics, or null if the option hasn't been seen
+	 */
+	public OptionStatistics getOptionStatistics(OptionSpecification option) {
+		return byOption.get(option);
+	}
+
+	/**
+	 * Get the statistics for all the options seen.
+	 *
+	 * @return the statistics, most used first
+	 */
+	public List<OptionStatistics> getOptionStatistics() {
+		List<OptionStatistics> result = new ArrayList<>(byOption.values());
+		result.sort((a, b) -> Long.compare(b.getMatches(), a.getMatches()));
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Start counting from zero again.
+	 */
+	public void reset() {
+		parses.reset();
+		failedParses.reset();
+		tokens.reset();
+		problems.reset();
+		parseNanos.reset();
+		byOption.clear();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		result.append("parses: ").append(getParses()).append(" (").append(getFailedParses()).append(" failed), tokens: ")
+				.append(getTokens()).append(", problems: ").append(getProblems()).append(", parse time: ").append(parseNanos)
+				.append('\n');
+		for (OptionStatistics statistics : getOptionStatistics()) {
+			result.append("  ").append(statistics).append('\n');
+		}
+		return result.toString();
+	}
+
+	/**
+	 * The statistics for one option.
+	 */
+	public static class OptionStatistics {
+
+		private final OptionSpecification option;
+
+		private final LongAdder matches = new LongAdder();
+
+		private final LongAdder abbreviatedMatches = new LongAdder();
+
+		private final LongAdder conversionFailures = new LongAdder();
+
+		private final Histogram conversionNanos = new Histogram();
+
+		OptionStatistics(OptionSpecification option) {
+			this.option = option;
+		}
+
+		public OptionSpecification getOption() {
+			return option;
+		}
+
+		public long getMatches() {
+			return matches.sum();
+		}
+
+		public long getAbbreviatedMatches() {
+			return abbreviatedMatches.sum();
+		}
+
+		public long getConversions() {
+			return conversionNanos.getCount();
+		}
+
+		public long getConversionFailures() {
+			return conversionFailures.sum();
+		}
+
+		public Histogram getConversionNanos() {
+			return conversionNanos;
+		}
+
+		@Override
+		public String toString() {
+			return option.makeOptionDescriptor() + ": " + getMatches() + " matches (" + getAbbreviatedMatches() + " abbreviated), " +
+					getConversions() + " conversions (" + getConversionFailures() + " failed), conversion time: " + conversionNanos;
+		}
+	}
+
+	/**
+	 * A histogram of durations in nanoseconds, with a bucket for each power of two: bucket {@code i}
+	 * counts the values from 2<sup>i</sup> up to (but not including) 2<sup>i+1</sup>, and bucket 0
+	 * also counts zero.
+	 */
+	public static class Histogram {
+
+		private final LongAdder[] buckets = new LongAdder[64];
+
+		private final LongAdder total = new LongAdder();
+
+		Histogram() {
+			for (int i = 0; i < buckets.length; i++) {
+				buckets[i] = new LongAdder();
+			}
+		}
+
+		void record(long nanos) {
+			buckets[bucketOf(nanos)].increment();
+			total.add(nanos);
+		}
+
+		static int bucketOf(long nanos) {
+			return nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+		}
+
+		void reset() {
+			for (LongAdder bucket : buckets) {
+				bucket.reset();
+			}
+			total.reset();
+		}
+
+		/**
+		 * Get the number of values recorded.
+		 *
+		 * @return the count
+		 */
+		public long getCount() {
+			long count = 0;
+			for (LongAdder bucket : buckets) {
+				count += bucket.sum();
+			}
+			return count;
+		}
+
+		/**
+		 * Get the sum of the values recorded.
+		 *
+		 * @return the sum, in nanoseconds
+		 */
+		public long getTotalNanos() {
+			return total.sum();
+		}
+
+		/**
+		 * Get the counts of the buckets.
+		 *
+		 * @return the counts; index {@code i} is the number of values from 2<sup>i</sup> to
+		 * 2<sup>i+1</sup>
+		 */
+		public long[] getBuckets() {
+			long[] counts = new long[buckets.length];
+			for (int i = 0; i < buckets.length; i++) {
+				counts[i] = buckets[i].sum();
+			}
+			return counts;
+		}
+
+		/**
+		 * Estimate a percentile: the upper bound of the bucket holding it.
+		 *
+		 * @param percentile the percentile, from 0 to 100
+		 * @return the estimate in nanoseconds, or 0 if nothing has been recorded
+		 */
+		public long getPercentileNanos(double percentile) {
+			long[] counts = getBuckets();
+			long count = 0;
+			for (long c : counts) {
+				count += c;
+			}
+			if (count == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(count * percentile / 100);
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank && counts[i] > 0) {
+					return i == 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+				}
+			}
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public String toString() {
+			long count = getCount();
+			if (count == 0) {
+				return "none";
+			}
+			return count + " (mean " + getTotalNanos() / count + "ns, p50 < " + getPercentileNanos(50) + "ns, p99 < " +
+					getPercentileNanos(99) + "ns)";
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A problem with a command line, as a compact record: what kind of problem it is, the option and
+ * the command line token involved, and a few details. It is only turned into text when somebody
+ * asks for its message, so code that rejects many command lines without showing the reasons never
+ * builds any strings.
+ */
+public final class Problem {
+
+	private static final Object[] NO_DETAILS = {};
+
+	private final ProblemCode code;
+
+	private final OptionSpecification option;
+
+	private final int argvIndex;
+
+	private final String token;
+
+	private final Object[] details;
+
+	/**
+	 * Finds the suggestions for an unknown long option, the first time they are asked for; dropped
+	 * once they have been found, so a retained problem doesn't keep the option set alive.
+	 */
+	private volatile Supplier<List<String>> suggester;
+
+	private volatile List<String> suggestions;
+
+	/**
+	 * Constructor, for a problem whose place on the command line isn't known (e.g. one found by a
+	 * converter).
+	 *
+	 * @param code   the kind of problem
+	 * @param option the option involved, or null
+	 * @param token  the option as written, or its argument, or null
+	 */
+	public Problem(ProblemCode code, OptionSpecification option, String token) {
+		this(code, option, -1, token, NO_DETAILS);
+	}
+
+	/**
+	 * Constructor, for a problem whose place on the command line isn't known.
+	 *
+	 * @param code    the kind of problem
+	 * @param option  the option involved, or null
+	 * @param token   the option as written, or its argument, or null
+	 * @param details the details for the code (see {@link ProblemCode})
+	 */
+	public Problem(ProblemCode code, OptionSpecification option, String token, Object... details) {
+		this(code, option, -1, token, details);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param code      the kind of problem
+	 * @param option    the option involved, or null
+	 * @param argvIndex the index of the command line token the problem is with, or -1
+	 * @param token     the option as written, or its argument, or null
+	 */
+	public Problem(ProblemCode code, OptionSpecification option, int argvIndex, String token) {
+		this(code, option, argvIndex, token, NO_DETAILS);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param code      the kind of problem
+	 * @param option    the option involved, or null
+	 * @param argvIndex the index of the command line token the problem is with, or -1
+	 * @param token     the option as written, or its argument, or null
+	 * @param details   the details for the code (see {@link ProblemCode})
+	 */
+	public Problem(ProblemCode code, OptionSpecification option, int argvIndex, String token, Object... details) {
+		this.code = code;
+		this.option = option;
+		this.argvIndex = argvIndex;
+		this.token = token;
+		this.details = details;
+	}
+
+	/**
+	 * Make a problem that is given as text.
+	 *
+	 * @param message the text
+	 * @return the problem
+	 */
+	public static Problem message(String message) {
+		return new Problem(ProblemCode.MESSAGE, null, message);
+	}
+
+	/**
+	 * Make an unknown long option problem, whose suggestions are only looked for if they are asked
+	 * for.
+	 */
+	static Problem unknownLongOption(int argvIndex, String token, Supplier<List<String>> suggester) {
+		Problem problem = new Problem(ProblemCode.UNKNOWN_LONG_OPTION, null, argvIndex, token, NO_DETAILS);
+		problem.suggester = suggester;
+		return problem;
+	}
+
+	/**
+	 * Get a copy of this problem, placed at a token of the command line.
+	 *
+	 * @param argvIndex the token's index
+	 * @return the copy (or this, if it is already placed there)
+	 */
+	public Problem withArgvIndex(int argvIndex) {
+		if (argvIndex == this.argvIndex) {
+			return this;
+		}
+		Problem copy = new Problem(code, option, argvIndex, token, details);
+		copy.suggester = suggester;
+		copy.suggestions = suggestions;
+		return copy;
+	}
+
+	public ProblemCode getCode() {
+		return code;
+	}
+
+	/**
+	 * Get the option involved.
+	 *
+	 * @return the option, or null if the problem isn't with a defined option
+	 */
+	public OptionSpecification getOption() {
+		return option;
+	}
+
+	/**
+	 * Get the id of the option involved.
+	 *
+	 * @return the id, or -1 if the problem isn't with a defined option
+	 */
+	public int getOptionId() {
+		return option == null ? -1 : option.getId();
+	}
+
+	/**
+	 * Get the index of the command line token the problem is with.
+	 *
+	 * @return the index, or -1 if the problem isn't with one token (e.g. a missing required option)
+	 */
+	public int getArgvIndex() {
+		return argvIndex;
+	}
+
+	/**
+	 * Get the option as written on the command line, or the argument the problem is with.
+	 *
+	 * @return the token, or null
+	 */
+	public String getToken() {
+		return token;
+	}
+
+	/**
+	 * Get the details, which depend on the code (see {@link ProblemCode}).
+	 *
+	 * @return the details
+	 */
+	public List<Object> getDetails() {
+		return Collections.unmodifiableList(Arrays.asList(details));
+	}
+
+	/**
+	 * Get the names of the options that an unknown long option might have been meant to be, closest
+	 * first (see {@link OptionTable#getSuggestions(String)}). They are looked for the first time
+	 * they are asked for, by this or by rendering the message.
+	 *
+	 * @return the option names, without dashes; empty for other kinds of problem
+	 */
+	public List<String> getSuggestions() {
+		// read the suggester first: it is only cleared after the suggestions are set, so if it is
+		// already gone the suggestions are there, and if both are missing there never was one
+		Supplier<List<String>> source = suggester;
+		List<String> result = suggestions;
+		if (result == null) {
+			if (source == null) {
+				return Collections.emptyList();
+			}
+			result = source.get();
+			suggestions = result;
+			suggester = null;
+		}
+		return result;
+	}
+
+	/**
+	 * Render the problem with the default formatter.
+	 *
+	 * @return the message
+	 * @see ProblemFormatter#setDefault(ProblemFormatter)
+	 */
+	public String getMessage() {
+		return ProblemFormatter.getDefault().format(this);
+	}
+
+	@Override
+	public String toString() {
+		return getMessage();
+	}
+
+	/**
+	 * View a list of problems as their messages, each rendered when it is read.
+	 *
+	 * @param problems the problems
+	 * @return the messages
+	 */
+	public static List<String> messages(List<Problem> problems) {
+		return new AbstractList<String>() {
+			@Override
+			public String get(int index) {
+				return problems.get(index).getMessage();
+			}
+
+			@Override
+			public int size() {
+				return problems.size();
+			}
+		};
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.bluecirclesoft.open.getopt;
+
+/**
+ * The kinds of problem a command line can have. Each code names the message pattern that {@link
+ * ProblemFormatter} renders it with.
+ */
+public enum ProblemCode {
+
+	/**
+	 * A short option that isn't defined; the token is the option ("-x").
+	 */
+	UNKNOWN_SHORT_OPTION,
+
+	/**
+	 * A short option that isn't defined, when processParams() stops at it.
+	 */
+	NO_SUCH_OPTION,
+
+	/**
+	 * A long option that isn't defined; the token is the option as written ("--name"). The message
+	 * suggests the closest option names, from {@link Problem#getSuggestions()}; they are only
+	 * looked for when they are asked for.
+	 */
+	UNKNOWN_LONG_OPTION,
+
+	/**
+	 * An abbreviation that matches more than one long option; the details are some of the names it
+	 * matches, and the number of other names it matches.
+	 */
+	AMBIGUOUS_OPTION,
+
+	/**
+	 * The command line ended before the argument of an option; the token is the option as written.
+	 */
+	MISSING_ARGUMENT,
+
+	/**
+	 * An argument that isn't a number in range; the details are the smallest and largest values.
+	 */
+	NOT_A_NUMBER,
+
+	/**
+	 * An argument that isn't an integer.
+	 */
+	NOT_AN_INTEGER,
+
+	/**
+	 * An argument that isn't a floating-point number.
+	 */
+	NOT_A_FLOATING_POINT_NUMBER,
+
+	/**
+	 * An argument that isn't an integer or decimal number.
+	 */
+	NOT_A_DECIMAL_NUMBER,
+
+	/**
+	 * An argument that isn't a single character.
+	 */
+	NOT_ONE_CHARACTER,
+
+	/**
+	 * A required option that wasn't given.
+	 */
+	REQUIRED_OPTION_MISSING,
+
+	/**
+	 * Mutually exclusive options given together; the details are the options given.
+	 */
+	CONFLICTING_OPTIONS,
+
+	/**
+	 * None of a group of options was given; the details are the options of the group.
+	 */
+	ONE_OF_OPTIONS_REQUIRED,
+
+	/**
+	 * An option was given without the options it requires; the details are the missing options.
+	 */
+	REQUIRES_OPTIONS,
+
+	/**
+	 * The command line has more tokens than the {@link ParsePolicy} allows; the detail is the
+	 * limit (an {@code Integer}). The tokens after the limit are not examined.
+	 */
+	TOO_MANY_TOKENS,
+
+	/**
+	 * No subcommand was given (see {@link GetOpt#processSubcommand(String...)}).
+	 */
+	NO_COMMAND,
+
+	/**
+	 * A subcommand that isn't defined; the token is the subcommand as written.
+	 */
+	UNKNOWN_COMMAND,
+
+	/**
+	 * A token is longer than the {@link ParsePolicy} allows; the token is the start of it, and the
+	 * detail is the limit (an {@code Integer}).
+	 */
+	TOKEN_TOO_LONG,
+
+	/**
+	 * An option was given more often than the {@link ParsePolicy} allows; the token is the option
+	 * as written, and the detail is the limit (an {@code Integer}).
+	 */
+	TOO_MANY_OCCURRENCES,
+
+	/**
+	 * Any other problem, given as text (e.g. by a custom converter); the token is the text.
+	 */
+	MESSAGE
+}
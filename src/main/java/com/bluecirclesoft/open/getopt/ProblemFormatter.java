@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.bluecirclesoft.open.getopt;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+/**
+ * Renders {@link Problem}s as text, from the message patterns in a resource bundle. The bundle's
+ * keys are the {@link ProblemCode} names; see {@code Problems.properties} in this package for the
+ * patterns and their arguments. To translate the messages, add {@code Problems_xx.properties}
+ * files, or give a formatter your own bundle and make it the default.
+ */
+public class ProblemFormatter {
+
+	/**
+	 * The base name of the bundle with the built-in messages.
+	 */
+	public static final String BUNDLE_NAME = "com.bluecirclesoft.open.getopt.Problems";
+
+	private static volatile ProblemFormatter defaultFormatter;
+
+	private final ResourceBundle bundle;
+
+	/**
+	 * Make a formatter that uses the built-in messages for a locale.
+	 *
+	 * @param locale the locale
+	 */
+	public ProblemFormatter(Locale locale) {
+		this(ResourceBundle.getBundle(BUNDLE_NAME, locale));
+	}
+
+	/**
+	 * Make a formatter that uses the messages in a bundle.
+	 *
+	 * @param bundle the bundle
+	 */
+	public ProblemFormatter(ResourceBundle bundle) {
+		this.bundle = bundle;
+	}
+
+	/**
+	 * Get the formatter that {@link Problem#getMessage()}, {@link ParseResult#getProblems()} and
+	 * the exception messages use; unless one has been set, it uses the built-in messages for the
+	 * default locale.
+	 *
+	 * @return the formatter
+	 */
+	public static ProblemFormatter getDefault() {
+		ProblemFormatter formatter = defaultFormatter;
+		if (formatter == null) {
+			formatter = new ProblemFormatter(Locale.getDefault());
+			defaultFormatter = formatter;
+		}
+		return formatter;
+	}
+
+	/**
+	 * Set the default formatter.
+	 *
+	 * @param formatter the formatter, or null to go back to the built-in messages
+	 */
+	public static void setDefault(ProblemFormatter formatter) {
+		defaultFormatter = formatter;
+	}
+
+	/**
+	 * Render a problem.
+	 *
+	 * @param problem the problem
+	 * @return the message
+	 */
+	public String format(Problem problem) {
+		List<Object> details = problem.getDetails();
+		Object[] arguments = new Object[2 + details.size()];
+		arguments[0] = problem.getOption() == null ? "" : problem.getOption().makeOptionDescriptor();
+		arguments[1] = problem.getToken() == null ? "" : problem.getToken();
+		for (int i = 0; i < details.size(); i++) {
+			arguments[2 + i] = render(details.get(i));
+		}
+		String key = problem.getCode().name();
+		switch (problem.getCode()) {
+			case UNKNOWN_LONG_OPTION:
+				List<String> suggestions = problem.getSuggestions();
+				if (!suggestions.isEmpty()) {
+					key = key + ".suggestions";
+					arguments = Arrays.copyOf(arguments, 3);
+					arguments[2] = joinNames(suggestions);
+				}
+				break;
+			case AMBIGUOUS_OPTION:
+				StringBuilder matches = new StringBuilder();
+				for (Object name : (Collection<?>) details.get(0)) {
+					matches.append(pattern("AMBIGUOUS_OPTION.match", "--" + name));
+				}
+				int more = ((Number) details.get(1)).intValue();
+				if (more > 0) {
+					matches.append(pattern("AMBIGUOUS_OPTION.more", Integer.toString(more)));
+				}
+				arguments[2] = matches.toString();
+				break;
+			default:
+				break;
+		}
+		return pattern(key, arguments);
+	}
+
+	private String pattern(String key, Object... arguments) {
+		return new MessageFormat(bundle.getString(key), bundle.getLocale()).format(arguments);
+	}
+
+	/**
+	 * Render one detail: options by their descriptors, and collections as lists.
+	 */
+	protected String render(Object detail) {
+		if (detail instanceof OptionSpecification) {
+			return ((OptionSpecification) detail).makeOptionDescriptor();
+		} else if (detail instanceof Collection) {
+			StringBuilder list = new StringBuilder();
+			for (Object item : (Collection<?>) detail) {
+				if (list.length() > 0) {
+					list.append(bundle.getString("list.separator"));
+				}
+				list.append(render(item));
+			}
+			return list.toString();
+		}
+		return String.valueOf(detail);
+	}
+
+	/**
+	 * Join long option names as "--a, --b or --c".
+	 */
+	private String joinNames(List<String> names) {
+		StringBuilder joined = new StringBuilder();
+		for (Iterator<String> i = names.iterator(); i.hasNext(); ) {
+			String name = i.next();
+			if (joined.length() > 0) {
+				joined.append(bundle.getString(i.hasNext() ? "list.separator" : "list.lastSeparator"));
+			}
+			joined.append("--").append(name);
+		}
+		return joined.toString();
+	}
+}
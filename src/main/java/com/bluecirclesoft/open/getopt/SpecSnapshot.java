@@ -0,0 +1,404 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.bluecirclesoft.open.getopt.flavors.CommandLineProcessingFlavors;
+
+/**
+ * Saves a frozen option set to a compact binary file, and loads it back, so that a program doesn't
+ * have to define its options (by reflection over a receptacle, or by many add calls) on every
+ * start. Generate the file at build time with {@link #main(String...)}, bundle it in the jar, and
+ * load it with {@link #read(InputStream)}.
+ * <p></p>
+ * The file holds the option names, mnemonics and documentation, the argument and required
+ * settings, the constraints, the names of the converter classes, and the rendered usage message.
+ * The usage message is the largest part, and is only decoded if it is asked for.
+ * <p></p>
+ * An option set read from a snapshot is frozen, and its options have no consumers: it is meant for
+ * {@link GetOpt#parse(String...)}, whose results carry the converted values. Subcommands and
+ * option providers are not saved. Arguments are only converted if the converter class has a public
+ * no-argument constructor.
+ */
+public final class SpecSnapshot {
+
+	private static final int MAGIC = 0x4243474F;
+
+	private static final short VERSION = 1;
+
+	private static final int TRANSACTIONAL = 1;
+
+	private static final int REQUIRED = 1;
+
+	private static final int EARLY = 2;
+
+	private SpecSnapshot() {
+	}
+
+	/**
+	 * Write an option set's snapshot to a file. The option set is frozen first.
+	 *
+	 * @param getOpt the option set
+	 * @param file   the file to write
+	 * @throws IOException if the file can't be written
+	 */
+	public static void write(GetOpt getOpt, Path file) throws IOException {
+		ByteBuffer snapshot = ByteBuffer.wrap(toBytes(getOpt));
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (snapshot.hasRemaining()) {
+				channel.write(snapshot);
+			}
+		}
+	}
+
+	/**
+	 * Make an option set's snapshot. The option set is frozen first.
+	 *
+	 * @param getOpt the option set
+	 * @return the snapshot
+	 */
+	public static byte[] toBytes(GetOpt getOpt) {
+		OptionTable table = getOpt.freeze().getOptionTable();
+		List<String> strings = new ArrayList<>();
+		Map<String, Integer> stringIndexes = new HashMap<>();
+		ByteArrayOutputStream optionBytes = new ByteArrayOutputStream();
+		try {
+			DataOutputStream out = new DataOutputStream(optionBytes);
+			out.writeInt(table.getOptionCount());
+			for (OptionSpecification option : table.getOptions()) {
+				out.writeByte(option.getArgumentSpecification().ordinal());
+				out.writeByte((option.isRequired() ? REQUIRED : 0) | (option.isEarly() ? EARLY : 0));
+				out.writeInt(indexOf(option.getMnemonic(), strings, stringIndexes));
+				out.writeInt(indexOf(option.getDocumentation(), strings, stringIndexes));
+				out.writeInt(indexOf(converterClassName(option), strings, stringIndexes));
+				out.writeShort(option.getShortOptList().size());
+				for (char ch : option.getShortOptList()) {
+					out.writeChar(ch);
+				}
+				out.writeShort(option.getLongOptList().size());
+				for (String longOpt : option.getLongOptList()) {
+					out.writeInt(indexOf(longOpt, strings, stringIndexes));
+				}
+			}
+			List<OptionConstraint> constraints = table.getConstraints();
+			out.writeInt(constraints.size());
+			for (OptionConstraint constraint : constraints) {
+				out.writeByte(constraint.getKind().ordinal());
+				out.writeInt(constraint.getTrigger() == null ? -1 : constraint.getTrigger().getId());
+				out.writeInt(constraint.getOptions().size());
+				for (OptionSpecification option : constraint.getOptions()) {
+					out.writeInt(option.getId());
+				}
+			}
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream header = new DataOutputStream(bytes);
+			header.writeInt(MAGIC);
+			header.writeShort(VERSION);
+			header.writeByte(getOpt.getFlavorType().ordinal());
+			header.writeByte(getOpt.isTransactional() ? TRANSACTIONAL : 0);
+			writeString(header, getOpt.getProgramName());
+			writeString(header, getOpt.getRestOfParamsDescription());
+			header.writeInt(strings.size());
+			for (String string : strings) {
+				writeString(header, string);
+			}
+			optionBytes.writeTo(header);
+			// last, so that reading can skip it
+			writeString(header, getOpt.usage());
+			header.flush();
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			throw new InternalException("Error writing to a byte array", e);
+		}
+	}
+
+	/**
+	 * Get the name of an option's converter, if it can be recreated from its name.
+	 */
+	private static String converterClassName(OptionSpecification option) {
+		TypeConverter<?> converter = option.getConverter();
+		if (converter == null) {
+			return null;
+		}
+		Class<?> converterClass = converter.getClass();
+		if (converterClass.isSynthetic() || converterClass.isAnonymousClass() || converterClass.isLocalClass() ||
+				!Modifier.isPublic(converterClass.getModifiers())) {
+			return null;
+		}
+		try {
+			return Modifier.isPublic(converterClass.getConstructor().getModifiers()) ? converterClass.getName() : null;
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static int indexOf(String string, List<String> strings, Map<String, Integer> stringIndexes) {
+		if (string == null) {
+			return -1;
+		}
+		return stringIndexes.computeIfAbsent(string, s -> {
+			strings.add(s);
+			return strings.size() - 1;
+		});
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Read a snapshot from a file. The file is mapped, not copied.
+	 *
+	 * @param file the file
+	 * @return the option set, frozen
+	 * @throws IOException if the file can't be read
+	 */
+	public static GetOpt read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), SpecSnapshot.class.getClassLoader());
+		}
+	}
+
+	/**
+	 * Read a snapshot from a stream (e.g. a resource in the jar).
+	 *
+	 * @param in the stream; not closed
+	 * @return the option set, frozen
+	 * @throws IOException if the stream can't be read
+	 */
+	public static GetOpt read(InputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int count;
+		while ((count = in.read(buffer)) >= 0) {
+			bytes.write(buffer, 0, count);
+		}
+		return read(ByteBuffer.wrap(bytes.toByteArray()), SpecSnapshot.class.getClassLoader());
+	}
+
+	/**
+	 * Read a snapshot.
+	 *
+	 * @param buffer      the snapshot; must not be changed afterwards, since the usage message is
+	 *                    decoded from it when needed
+	 * @param classLoader where to find the converter classes
+	 * @return the option set, frozen
+	 * @throws GetOptSetupException if the snapshot is not valid
+	 */
+	public static GetOpt read(ByteBuffer buffer, ClassLoader classLoader) {
+		try {
+			if (buffer.getInt() != MAGIC) {
+				throw new GetOptSetupException("Not an option snapshot");
+			}
+			short version = buffer.getShort();
+			if (version != VERSION) {
+				throw new GetOptSetupException("Unsupported option snapshot version " + version);
+			}
+			CommandLineProcessingFlavors flavor = CommandLineProcessingFlavors.values()[buffer.get()];
+			int flags = buffer.get();
+			GetOpt getOpt = GetOpt.create(readString(buffer), readString(buffer), flavor);
+			getOpt.setTransactional((flags & TRANSACTIONAL) != 0);
+
+			String[] strings = new String[buffer.getInt()];
+			for (int i = 0; i < strings.length; i++) {
+				strings[i] = readString(buffer);
+			}
+			Map<String, TypeConverter<?>> converters = new HashMap<>();
+			int optionCount = buffer.getInt();
+			List<OptionSpecification> options = new ArrayList<>(optionCount);
+			for (int i = 0; i < optionCount; i++) {
+				ArgumentSpecification argumentSpecification = ArgumentSpecification.values()[buffer.get()];
+				int optionFlags = buffer.get();
+				String mnemonic = lookup(strings, buffer.getInt());
+				String documentation = lookup(strings, buffer.getInt());
+				String converterClass = lookup(strings, buffer.getInt());
+				OptionSpecification option =
+						makeOption(getOpt, argumentSpecification, (optionFlags & REQUIRED) != 0, mnemonic, documentation,
+								converterClass == null ? null :
+										converters.computeIfAbsent(converterClass, name -> makeConverter(name, classLoader)));
+				option.setEarly((optionFlags & EARLY) != 0);
+				getOpt.define(option);
+				for (int j = buffer.getShort(); j > 0; j--) {
+					option.addShortOpt(buffer.getChar());
+				}
+				for (int j = buffer.getShort(); j > 0; j--) {
+					option.addLongOpt(strings[buffer.getInt()]);
+				}
+				options.add(option);
+			}
+			int constraintCount = buffer.getInt();
+			for (int i = 0; i < constraintCount; i++) {
+				OptionConstraint.Kind kind = OptionConstraint.Kind.values()[buffer.get()];
+				int trigger = buffer.getInt();
+				OptionSpecification[] group = new OptionSpecification[buffer.getInt()];
+				for (int j = 0; j < group.length; j++) {
+					group[j] = options.get(buffer.getInt());
+				}
+				switch (kind) {
+					case MUTUALLY_EXCLUSIVE:
+						getOpt.addMutuallyExclusive(group);
+						break;
+					case AT_LEAST_ONE:
+						getOpt.addAtLeastOneOf(group);
+						break;
+					case REQUIRES:
+						getOpt.addRequires(options.get(trigger), group);
+						break;
+					default:
+						throw new InternalException("Unhandled constraint kind " + kind);
+				}
+			}
+			getOpt.freeze();
+
+			ByteBuffer usage = buffer.slice();
+			getOpt.setPrerenderedUsage(new LazyString(usage));
+			return getOpt;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new GetOptSetupException("Option snapshot is truncated or damaged", e);
+		}
+	}
+
+	private static OptionSpecification makeOption(GetOpt getOpt, ArgumentSpecification argumentSpecification, boolean required,
+	                                              String mnemonic, String documentation, TypeConverter<?> converter) {
+		switch (argumentSpecification) {
+			case NONE:
+				return OptionSpecification.makeFlag(getOpt, documentation, on -> {
+				});
+			case REQUIRED:
+				if (converter != null) {
+					return OptionSpecification.makeConvertedOption(getOpt, mnemonic, documentation, required, converter, value -> {
+					});
+				}
+				return OptionSpecification.makeOption(getOpt, mnemonic, documentation, required, argumentSpecification, null,
+						(argument, option) -> {
+						});
+			case OPTIONAL:
+				return OptionSpecification.makeOption(getOpt, mnemonic, documentation, required, argumentSpecification, on -> {
+				}, (argument, option) -> {
+				});
+			default:
+				throw new InternalException("Unhandled argument specification " + argumentSpecification);
+		}
+	}
+
+	private static TypeConverter<?> makeConverter(String className, ClassLoader classLoader) {
+		try {
+			Constructor<?> constructor = Class.forName(className, true, classLoader).getConstructor();
+			return (TypeConverter<?>) constructor.newInstance();
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new GetOptSetupException("Cannot create type converter " + className, e);
+		}
+	}
+
+	private static String lookup(String[] strings, int index) {
+		return index < 0 ? null : strings[index];
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * A string that is decoded from the snapshot the first time it is needed.
+	 */
+	private static class LazyString implements Supplier<String> {
+
+		private ByteBuffer encoded;
+
+		private String decoded;
+
+		LazyString(ByteBuffer encoded) {
+			this.encoded = encoded;
+		}
+
+		@Override
+		public synchronized String get() {
+			if (decoded == null) {
+				decoded = readString(encoded.duplicate());
+				encoded = null;
+			}
+			return decoded;
+		}
+	}
+
+	/**
+	 * Write a snapshot at build time.
+	 * <p></p>
+	 * Usage: {@code SpecSnapshot -r <receptacle class> -o <file>}. Exits with status 2 if the
+	 * command line is wrong, and 1 if the snapshot can't be made, so a build that runs it fails.
+	 *
+	 * @param args the command line
+	 * @throws IOException if the snapshot can't be written
+	 */
+	public static void main(String... args) throws IOException {
+		final String[] receptacleClass = {null};
+		final String[] output = {null};
+		GetOpt options = GetOpt.create(SpecSnapshot.class, null);
+		options.addParam("class", "the receptacle class to snapshot (must have a no-argument constructor)", true,
+				s -> receptacleClass[0] = s).addShortOpt('r').addLongOpt("receptacle");
+		options.addParam("file", "the snapshot file to write", true, s -> output[0] = s).addShortOpt('o').addLongOpt("output");
+		try {
+			options.processParams(args);
+		} catch (CommandLineProcessingException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+			return;
+		}
+		Object receptacle;
+		try {
+			receptacle = Class.forName(receptacleClass[0]).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			System.err.println("Cannot create receptacle " + receptacleClass[0] + ": " + e);
+			System.exit(1);
+			return;
+		}
+		write(GetOpt.createFromReceptacle(receptacle, receptacle.getClass(), null), Paths.get(output[0]));
+	}
+}
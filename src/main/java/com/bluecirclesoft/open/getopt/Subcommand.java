@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation to place on a receptacle class that defines the options of a subcommand. At build
+ * time, the {@link com.bluecirclesoft.open.getopt.processor.SubcommandIndexProcessor} records every
+ * annotated class in an index inside the jar, so that {@link GetOpt#addIndexedSubcommands(ClassLoader)}
+ * can register the subcommands without scanning the classpath or loading the receptacle classes.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Subcommand {
+
+	/**
+	 * The subcommand name, as given on the command line.
+	 *
+	 * @return the name
+	 */
+	String name();
+
+	/**
+	 * The documentation for this subcommand (put into the usage).
+	 *
+	 * @return the documentation string
+	 */
+	String documentation();
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The subcommand index written at build time for classes annotated with {@link Subcommand}.  The
+ * index maps each subcommand name to its receptacle class name, documentation and option names, so
+ * help listings and dispatch need no classpath scan, and only the selected receptacle class is ever
+ * loaded.
+ * <p></p>
+ * The index is a properties file; for each subcommand <i>name</i> it has the keys <i>name</i>{@code
+ * .class}, <i>name</i>{@code .documentation} and <i>name</i>{@code .options} (a space-separated list,
+ * such as {@code -o --output}).
+ */
+public class SubcommandIndex {
+
+	/**
+	 * Where the index is stored in each jar.
+	 */
+	public static final String RESOURCE_NAME = "META-INF/bluecircle-getopt/subcommands.properties";
+
+	private final SortedMap<String, Entry> entries;
+
+	private SubcommandIndex(SortedMap<String, Entry> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * Read and merge the indexes of every jar visible to a class loader.
+	 *
+	 * @param classLoader the class loader
+	 * @return the merged index
+	 * @throws GetOptSetupException if an index can't be read, or two jars define the same
+	 *                              subcommand
+	 */
+	public static SubcommandIndex load(ClassLoader classLoader) {
+		SortedMap<String, Entry> entries = new TreeMap<>();
+		try {
+			Enumeration<URL> resources = classLoader.getResources(RESOURCE_NAME);
+			while (resources.hasMoreElements()) {
+				URL url = resources.nextElement();
+				Properties properties = new Properties();
+				try (InputStream stream = url.openStream(); Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+					properties.load(reader);
+				}
+				for (String key : properties.stringPropertyNames()) {
+					if (!key.endsWith(".class")) {
+						continue;
+					}
+					String name = key.substring(0, key.length() - ".class".length());
+					String options = properties.getProperty(name + ".options", "").trim();
+					Entry entry = new Entry(name, properties.getProperty(key), properties.getProperty(name + ".documentation"),
+							options.isEmpty() ? Collections.emptyList() : Arrays.asList(options.split(" +")));
+					if (entries.put(name, entry) != null) {
+						throw new GetOptSetupException("Subcommand " + name + " is defined in more than one index (" + url + ")");
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new GetOptSetupException("Cannot read subcommand index", e);
+		}
+		return new SubcommandIndex(entries);
+	}
+
+	/**
+	 * Get the index entries, sorted by subcommand name.
+	 *
+	 * @return the entries
+	 */
+	public List<Entry> getEntries() {
+		return new ArrayList<>(entries.values());
+	}
+
+	/**
+	 * Look up a subcommand.
+	 *
+	 * @param name the subcommand name
+	 * @return the entry, or {@code null} if there is no such subcommand
+	 */
+	public Entry getEntry(String name) {
+		return entries.get(name);
+	}
+
+	/**
+	 * One indexed subcommand.
+	 */
+	public static class Entry {
+
+		private final String name;
+
+		private final String className;
+
+		private final String documentation;
+
+		private final List<String> optionNames;
+
+		Entry(String name, String className, String documentation, List<String> optionNames) {
+			this.name = name;
+			this.className = className;
+			this.documentation = documentation;
+			this.optionNames = Collections.unmodifiableList(optionNames);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getClassName() {
+			return className;
+		}
+
+		public String getDocumentation() {
+			return documentation;
+		}
+
+		/**
+		 * Get the subcommand's option names, with their dashes.
+		 *
+		 * @return the option names
+		 */
+		public List<String> getOptionNames() {
+			return optionNames;
+		}
+
+		/**
+		 * Load the receptacle class and create an instance of it.
+		 *
+		 * @param classLoader the class loader to load the class with
+		 * @return the new receptacle
+		 * @throws GetOptSetupException if the class can't be loaded or instantiated
+		 */
+		public Object createReceptacle(ClassLoader classLoader) {
+			try {
+				return Class.forName(className, true, classLoader).getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new GetOptSetupException("Cannot create receptacle " + className + " for subcommand " + name, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.List;
+
+/**
+ * The result of {@link GetOpt#processSubcommand(String...)}: which subcommand was selected, and what
+ * was left of the command line after its options were processed.
+ */
+public class SubcommandInvocation {
+
+	private final String name;
+
+	private final GetOpt options;
+
+	private final Object receptacle;
+
+	private final List<String> remainingParams;
+
+	SubcommandInvocation(String name, GetOpt options, Object receptacle, List<String> remainingParams) {
+		this.name = name;
+		this.options = options;
+		this.receptacle = receptacle;
+		this.remainingParams = remainingParams;
+	}
+
+	/**
+	 * Get the name of the selected subcommand.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the option set that was built for the selected subcommand.
+	 *
+	 * @return the option set
+	 */
+	public GetOpt getOptions() {
+		return options;
+	}
+
+	/**
+	 * Get the receptacle the subcommand's options were stored in.
+	 *
+	 * @return the receptacle, or {@code null} if the subcommand was defined with a {@code
+	 * Supplier<GetOpt>}
+	 */
+	public Object getReceptacle() {
+		return receptacle;
+	}
+
+	/**
+	 * Get the parameters left after the subcommand's options were processed.
+	 *
+	 * @return the parameters
+	 */
+	public List<String> getRemainingParams() {
+		return remainingParams;
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits one recorded invocation into its arguments.
+ */
+public final class CommandLineTokenizer {
+
+	private CommandLineTokenizer() {
+	}
+
+	/**
+	 * Split a line the way a POSIX shell would split a simple command: on unquoted whitespace,
+	 * honoring single quotes, double quotes and backslash escapes.  No expansion is done.
+	 *
+	 * @param line the recorded command line
+	 * @return the arguments
+	 */
+	public static String[] splitShellWords(String line) {
+		List<String> words = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean inWord = false;
+		char quote = 0;
+		for (int i = 0; i < line.length(); i++) {
+			char ch = line.charAt(i);
+			if (quote == '\'') {
+				if (ch == '\'') {
+					quote = 0;
+				} else {
+					current.append(ch);
+				}
+			} else if (quote == '"') {
+				if (ch == '"') {
+					quote = 0;
+				} else if (ch == '\\' && i + 1 < line.length() && "\"\\$`".indexOf(line.charAt(i + 1)) >= 0) {
+					current.append(line.charAt(++i));
+				} else {
+					current.append(ch);
+				}
+			} else if (ch == '\'' || ch == '"') {
+				quote = ch;
+				inWord = true;
+			} else if (ch == '\\' && i + 1 < line.length()) {
+				current.append(line.charAt(++i));
+				inWord = true;
+			} else if (Character.isWhitespace(ch)) {
+				if (inWord) {
+					words.add(current.toString());
+					current.setLength(0);
+					inWord = false;
+				}
+			} else {
+				current.append(ch);
+				inWord = true;
+			}
+		}
+		if (inWord) {
+			words.add(current.toString());
+		}
+		return words.toArray(new String[words.size()]);
+	}
+
+	/**
+	 * Split a line whose arguments are separated by NUL characters (as in {@code /proc/<pid>/cmdline}).
+	 * A trailing NUL is ignored.
+	 *
+	 * @param line the recorded command line
+	 * @return the arguments
+	 */
+	public static String[] splitNul(String line) {
+		if (line.isEmpty()) {
+			return new String[0];
+		}
+		int end = line.charAt(line.length() - 1) == '\0' ? line.length() - 1 : line.length();
+		return line.substring(0, end).split("\0", -1);
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.analysis;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
+import com.bluecirclesoft.open.getopt.GetOpt;
+
+/**
+ * Reads a file of recorded invocations, parses each one against an option set, and reports how
+ * often each option was used.  Invocations are read and parsed in fixed-size batches, so memory use
+ * does not depend on the size of the input.
+ * <p></p>
+ * Usage: {@code CorpusAnalyzer -r <receptacle class> [ -0 ] [ file... ]}
+ */
+public class CorpusAnalyzer {
+
+	private final GetOpt getOpt;
+
+	private final OptionUsageStatistics statistics;
+
+	private final Function<String, String[]> tokenizer;
+
+	private final int batchSize;
+
+	private final long progressIntervalNanos;
+
+	private final PrintStream progress;
+
+	private long lastProgress;
+
+	private final long startTime;
+
+	/**
+	 * Constructor
+	 *
+	 * @param getOpt           the option set to parse the invocations against; will be frozen
+	 * @param nulSeparated     if true, the arguments of each invocation are separated by NUL
+	 *                         characters; otherwise each invocation is split like a shell command
+	 * @param batchSize        how many invocations to hold in memory at once
+	 * @param maxValues        how many distinct argument values to count per option
+	 * @param progressInterval seconds between progress reports
+	 * @param progress         where to write progress reports, or {@code null} for none
+	 */
+	public CorpusAnalyzer(GetOpt getOpt, boolean nulSeparated, int batchSize, int maxValues, int progressInterval,
+	                      PrintStream progress) {
+		this.getOpt = getOpt.freeze();
+		this.statistics = new OptionUsageStatistics(getOpt, maxValues);
+		this.tokenizer = nulSeparated ? CommandLineTokenizer::splitNul : CommandLineTokenizer::splitShellWords;
+		this.batchSize = batchSize;
+		this.progressIntervalNanos = TimeUnit.SECONDS.toNanos(progressInterval);
+		this.progress = progress;
+		// the rate is over everything analyzed so far, like the counts
+		this.startTime = System.nanoTime();
+		this.lastProgress = startTime;
+	}
+
+	/**
+	 * Analyze all the invocations in a reader, one invocation per line.
+	 *
+	 * @param reader the reader
+	 * @throws IOException if the reader does
+	 */
+	public void analyze(Reader reader) throws IOException {
+		BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+		List<String[]> batch = new ArrayList<>(batchSize);
+		String line;
+		while ((line = in.readLine()) != null) {
+			batch.add(tokenizer.apply(line));
+			if (batch.size() == batchSize) {
+				processBatch(batch);
+				batch.clear();
+			}
+		}
+		processBatch(batch);
+	}
+
+	private void processBatch(List<String[]> batch) {
+		getOpt.parseAll(batch.stream()).forEach(statistics::accept);
+		if (progress != null) {
+			long now = System.nanoTime();
+			if (now - lastProgress >= progressIntervalNanos) {
+				lastProgress = now;
+				long count = statistics.getInvocations();
+				double seconds = (now - startTime) / 1e9;
+				progress.printf("%d invocations, %.0f/s%n", count, count / seconds);
+			}
+		}
+	}
+
+	public OptionUsageStatistics getStatistics() {
+		return statistics;
+	}
+
+	public static void main(String... args) {
+		final String[] receptacleClass = {null};
+		final boolean[] nulSeparated = {false};
+		final int[] batchSize = {10000};
+		final int[] maxValues = {20};
+		final int[] progressInterval = {5};
+		GetOpt options = GetOpt.create(CorpusAnalyzer.class, "file...");
+		options.addParam("class", "the receptacle class to parse the invocations with (must have a no-argument constructor)", true,
+				s -> receptacleClass[0] = s).addShortOpt('r').addLongOpt("receptacle");
+		options.addFlag("arguments are separated by NUL characters, one invocation per line", on -> nulSeparated[0] = on)
+				.addShortOpt('0')
+				.addLongOpt("null");
+		options.addParam("count", "how many invocations to parse at once (default 10000)", false, Integer.class,
+				i -> batchSize[0] = i).addShortOpt('b').addLongOpt("batch-size");
+		options.addParam("count", "how many distinct values to count per option (default 20)", false, Integer.class,
+				i -> maxValues[0] = i).addShortOpt('t').addLongOpt("top-values");
+		options.addParam("seconds", "seconds between progress reports (default 5)", false, Integer.class,
+				i -> progressInterval[0] = i).addShortOpt('p').addLongOpt("progress-interval");
+		List<String> files;
+		try {
+			files = options.processParams(args);
+		} catch (CommandLineProcessingException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+			return;
+		}
+
+		Object receptacle;
+		try {
+			receptacle = Class.forName(receptacleClass[0]).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			System.err.println("Cannot create receptacle " + receptacleClass[0] + ": " + e);
+			System.exit(1);
+			return;
+		}
+		GetOpt getOpt = GetOpt.createFromReceptacle(receptacle, receptacle.getClass(), null);
+		CorpusAnalyzer analyzer =
+				new CorpusAnalyzer(getOpt, nulSeparated[0], batchSize[0], maxValues[0], progressInterval[0], System.err);
+		if (files.isEmpty()) {
+			files.add("-");
+		}
+		for (String file : files) {
+			try (Reader reader = "-".equals(file) ? new InputStreamReader(System.in, StandardCharsets.UTF_8) :
+					Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+				analyzer.analyze(reader);
+			} catch (IOException e) {
+				System.err.println("Cannot read " + file + ": " + e);
+				System.exit(1);
+				return;
+			}
+		}
+		analyzer.getStatistics().report(System.out);
+	}
+}
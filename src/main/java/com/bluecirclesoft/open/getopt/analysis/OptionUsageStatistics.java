@@ -0,0 +1,194 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.analysis;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.ParseResult;
+import com.bluecirclesoft.open.getopt.Problem;
+
+/**
+ * Aggregates option usage over many parse results.  Safe to feed from several threads at once.
+ * Memory use is bounded by the number of options, the number of distinct values remembered per
+ * option, and the number of problem categories; individual command lines are not retained.
+ */
+public class OptionUsageStatistics {
+
+	private final GetOpt getOpt;
+
+	private final int maxDistinctValues;
+
+	private final LongAdder invocations = new LongAdder();
+
+	private final LongAdder failedInvocations = new LongAdder();
+
+	private final Map<OptionSpecification, OptionCounters> byOption = new ConcurrentHashMap<>();
+
+	private final Map<String, LongAdder> problemCategories = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param getOpt            the option set the results were parsed against
+	 * @param maxDistinctValues how many distinct argument values to count per option; values past
+	 *                          this are lumped together as "other"
+	 */
+	public OptionUsageStatistics(GetOpt getOpt, int maxDistinctValues) {
+		this.getOpt = getOpt;
+		this.maxDistinctValues = maxDistinctValues;
+		for (OptionSpecification option : getOpt.getOptions()) {
+			byOption.put(option, new OptionCounters());
+		}
+	}
+
+	/**
+	 * Add one parse result to the statistics.
+	 *
+	 * @param result the result
+	 */
+	public void accept(ParseResult result) {
+		invocations.increment();
+		if (!result.isSuccessful()) {
+			failedInvocations.increment();
+			for (Problem problem : result.getTypedProblems()) {
+				problemCategories.computeIfAbsent(categorize(problem), k -> new LongAdder()).increment();
+			}
+		}
+		for (ParseResult.Occurrence occurrence : result.getOccurrences()) {
+			OptionCounters counters = byOption.get(occurrence.getOption());
+			counters.occurrences.increment();
+			if (occurrence.isAbbreviated()) {
+				counters.abbreviated.increment();
+			}
+			if (occurrence.getValue() != null) {
+				counters.countValue(occurrence.getValue(), maxDistinctValues);
+			}
+		}
+	}
+
+	/**
+	 * Reduce a problem to its category.
+	 *
+	 * @param problem the problem
+	 * @return the category
+	 */
+	static String categorize(Problem problem) {
+		switch (problem.getCode()) {
+			case UNKNOWN_SHORT_OPTION:
+			case UNKNOWN_LONG_OPTION:
+				return "unknown option";
+			case AMBIGUOUS_OPTION:
+				return "ambiguous abbreviation";
+			case MISSING_ARGUMENT:
+				return "missing argument";
+			case REQUIRED_OPTION_MISSING:
+				return "required option not given";
+			default:
+				return "other";
+		}
+	}
+
+	public long getInvocations() {
+		return invocations.sum();
+	}
+
+	public long getFailedInvocations() {
+		return failedInvocations.sum();
+	}
+
+	public long getOccurrences(OptionSpecification option) {
+		return byOption.get(option).occurrences.sum();
+	}
+
+	public long getAbbreviatedOccurrences(OptionSpecification option) {
+		return byOption.get(option).abbreviated.sum();
+	}
+
+	public long getProblemCount(String category) {
+		LongAdder count = problemCategories.get(category);
+		return count == null ? 0 : count.sum();
+	}
+
+	/**
+	 * Write the report, least-used options first (those are the deprecation candidates).
+	 *
+	 * @param out where to write
+	 */
+	public void report(PrintStream out) {
+		out.println("invocations: " + getInvocations() + " (" + getFailedInvocations() + " with problems)");
+		out.println();
+		out.println("option usage:");
+		List<OptionSpecification> options = new ArrayList<>(getOpt.getOptions());
+		options.sort(Comparator.comparingLong(this::getOccurrences).thenComparing(OptionSpecification::makeOptionDescriptor));
+		for (OptionSpecification option : options) {
+			OptionCounters counters = byOption.get(option);
+			out.println("  " + option.makeOptionDescriptor() + ": " + counters.occurrences.sum() + " (" + counters.abbreviated.sum() +
+					" abbreviated)");
+			List<Map.Entry<String, LongAdder>> values = new ArrayList<>(counters.values.entrySet());
+			values.sort(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed());
+			for (Map.Entry<String, LongAdder> value : values) {
+				out.println("      " + value.getValue().sum() + "\t" + value.getKey());
+			}
+			long otherValues = counters.otherValues.sum();
+			if (otherValues > 0) {
+				out.println("      " + otherValues + "\t(other values)");
+			}
+		}
+		if (!problemCategories.isEmpty()) {
+			out.println();
+			out.println("problems:");
+			for (Map.Entry<String, LongAdder> category : problemCategories.entrySet()) {
+				out.println("  " + category.getKey() + ": " + category.getValue().sum());
+			}
+		}
+	}
+
+	/**
+	 * The counters for one option.
+	 */
+	private static class OptionCounters {
+
+		private final LongAdder occurrences = new LongAdder();
+
+		private final LongAdder abbreviated = new LongAdder();
+
+		private final Map<String, LongAdder> values = new ConcurrentHashMap<>();
+
+		private final LongAdder otherValues = new LongAdder();
+
+		private void countValue(String value, int maxDistinctValues) {
+			LongAdder count = values.get(value);
+			if (count == null && values.size() < maxDistinctValues) {
+				count = values.computeIfAbsent(value, k -> new LongAdder());
+			}
+			if (count == null) {
+				otherValues.increment();
+			} else {
+				count.increment();
+			}
+		}
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.completion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.OptionSpecification;
+
+/**
+ * Generates self-contained shell completion scripts from an option set, so the shell can complete
+ * options without starting a JVM.  Meant to be run at build time; the scripts are static, and must
+ * be regenerated when the options change.
+ * <p></p>
+ * Usage: {@code CompletionScriptGenerator -r <receptacle class> -s bash|zsh|fish <command>}
+ */
+public final class CompletionScriptGenerator {
+
+	private CompletionScriptGenerator() {
+	}
+
+	/**
+	 * Generate a bash completion script.
+	 *
+	 * @param getOpt  the option set
+	 * @param command the name of the command to complete
+	 * @return the script
+	 */
+	public static String bash(GetOpt getOpt, String command) {
+		List<String> allOptions = new ArrayList<>();
+		List<String> argumentOptions = new ArrayList<>();
+		for (OptionSpecification option : sortedOptions(getOpt)) {
+			for (String name : optionNames(option)) {
+				allOptions.add(name);
+				if (!option.isFlag()) {
+					argumentOptions.add(name);
+				}
+			}
+		}
+		String function = "_" + command.replaceAll("[^A-Za-z0-9_]", "_") + "_complete";
+		StringBuilder sb = new StringBuilder();
+		sb.append("# bash completion for ").append(command).append(" - generated by bluecircle-getopt\n");
+		sb.append(function).append("() {\n");
+		sb.append("    local cur prev i\n");
+		sb.append("    cur=\"${COMP_WORDS[COMP_CWORD]}\"\n");
+		sb.append("    prev=\"${COMP_WORDS[COMP_CWORD-1]}\"\n");
+		sb.append("    for ((i = 1; i < COMP_CWORD; i++)); do\n");
+		sb.append("        if [[ \"${COMP_WORDS[i]}\" == \"--\" ]]; then\n");
+		sb.append("            COMPREPLY=( $(compgen -f -- \"$cur\") )\n");
+		sb.append("            return 0\n");
+		sb.append("        fi\n");
+		sb.append("    done\n");
+		if (!argumentOptions.isEmpty()) {
+			sb.append("    case \"$prev\" in\n");
+			sb.append("        ").append(String.join("|", argumentOptions)).append(")\n");
+			sb.append("            COMPREPLY=( $(compgen -f -- \"$cur\") )\n");
+			sb.append("            return 0\n");
+			sb.append("            ;;\n");
+			sb.append("    esac\n");
+		}
+		sb.append("    if [[ \"$cur\" == -* ]]; then\n");
+		sb.append("        COMPREPLY=( $(compgen -W \"").append(String.join(" ", allOptions)).append("\" -- \"$cur\") )\n");
+		sb.append("    else\n");
+		sb.append("        COMPREPLY=( $(compgen -f -- \"$cur\") )\n");
+		sb.append("    fi\n");
+		sb.append("}\n");
+		sb.append("complete -F ").append(function).append(' ').append(command).append('\n');
+		return sb.toString();
+	}
+
+	/**
+	 * Generate a zsh completion script (for a file named {@code _command} on the {@code fpath}).
+	 *
+	 * @param getOpt  the option set
+	 * @param command the name of the command to complete
+	 * @return the script
+	 */
+	public static String zsh(GetOpt getOpt, String command) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("#compdef ").append(command).append('\n');
+		sb.append("# zsh completion for ").append(command).append(" - generated by bluecircle-getopt\n");
+		sb.append("_arguments -s -S \\\n");
+		for (OptionSpecification option : sortedOptions(getOpt)) {
+			List<String> names = optionNames(option);
+			String exclusion = names.size() > 1 ? "(" + String.join(" ", names) + ")" : "";
+			String description = "[" + zshEscape(firstLine(option.getDocumentation())) + "]";
+			String mnemonic = option.getMnemonic() == null ? "argument" : option.getMnemonic();
+			String argument = option.isFlag() ? "" : ":" + zshEscape(mnemonic) + ":_files";
+			for (String name : names) {
+				String suffix = option.isFlag() ? "" : name.startsWith("--") ? "=" : "+";
+				sb.append("  '").append(exclusion).append(name).append(suffix).append(description).append(argument).append("' \\\n");
+			}
+		}
+		sb.append("  '*:argument:_files'\n");
+		return sb.toString();
+	}
+
+	/**
+	 * Generate a fish completion script.
+	 *
+	 * @param getOpt  the option set
+	 * @param command the name of the command to complete
+	 * @return the script
+	 */
+	public static String fish(GetOpt getOpt, String command) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("# fish completion for ").append(command).append(" - generated by bluecircle-getopt\n");
+		for (OptionSpecification option : sortedOptions(getOpt)) {
+			sb.append("complete -c ").append(command);
+			for (Character shortOpt : option.getShortOptList()) {
+				sb.append(" -s ").append(fishQuote(String.valueOf(shortOpt)));
+			}
+			for (String longOpt : option.getLongOptList()) {
+				sb.append(" -l ").append(fishQuote(longOpt));
+			}
+			if (!option.isFlag()) {
+				sb.append(" -r");
+			}
+			sb.append(" -d ").append(fishQuote(firstLine(option.getDocumentation()))).append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static List<OptionSpecification> sortedOptions(GetOpt getOpt) {
+		SortedMap<String, OptionSpecification> sorted = new TreeMap<>();
+		for (OptionSpecification option : getOpt.getOptions()) {
+			sorted.put(option.makeOptionDescriptor(), option);
+		}
+		return new ArrayList<>(sorted.values());
+	}
+
+	private static List<String> optionNames(OptionSpecification option) {
+		List<String> names = new ArrayList<>();
+		for (Character shortOpt : option.getShortOptList()) {
+			names.add("-" + shortOpt);
+		}
+		for (String longOpt : option.getLongOptList()) {
+			names.add("--" + longOpt);
+		}
+		return names;
+	}
+
+	private static String firstLine(String documentation) {
+		String trimmed = documentation.trim();
+		int newline = trimmed.indexOf('\n');
+		return newline < 0 ? trimmed : trimmed.substring(0, newline).trim();
+	}
+
+	private static String zshEscape(String str) {
+		return str.replace("\\", "\\\\")
+				.replace("'", "'\\''")
+				.replace("[", "\\[")
+				.replace("]", "\\]")
+				.replace(":", "\\:");
+	}
+
+	private static String fishQuote(String str) {
+		return "'" + str.replace("\\", "\\\\").replace("'", "\\'") + "'";
+	}
+
+	public static void main(String... args) {
+		final String[] receptacleClass = {null};
+		final String[] shell = {"bash"};
+		GetOpt options = GetOpt.create(CompletionScriptGenerator.class, "command");
+		options.addParam("class", "the receptacle class defining the options (must have a no-argument constructor)", true,
+				s -> receptacleClass[0] = s).addShortOpt('r').addLongOpt("receptacle");
+		options.addParam("shell", "the shell to generate a script for: bash, zsh or fish (default bash)", false, s -> shell[0] = s)
+				.addShortOpt('s')
+				.addLongOpt("shell");
+		List<String> rest;
+		try {
+			rest = options.processParams(args);
+		} catch (CommandLineProcessingException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+			return;
+		}
+		if (rest.size() != 1) {
+			System.err.println("error: exactly one command name must be given\n\n" + options.usage());
+			System.exit(2);
+			return;
+		}
+
+		Object receptacle;
+		try {
+			receptacle = Class.forName(receptacleClass[0]).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			System.err.println("Cannot create receptacle " + receptacleClass[0] + ": " + e);
+			System.exit(1);
+			return;
+		}
+		GetOpt getOpt = GetOpt.createFromReceptacle(receptacle, rest.get(0), null);
+		switch (shell[0]) {
+			case "bash":
+				System.out.print(bash(getOpt, rest.get(0)));
+				break;
+			case "zsh":
+				System.out.print(zsh(getOpt, rest.get(0)));
+				break;
+			case "fish":
+				System.out.print(fish(getOpt, rest.get(0)));
+				break;
+			default:
+				System.err.println("error: unknown shell " + shell[0] + "\n\n" + options.usage());
+				System.exit(2);
+		}
+	}
+}
@@ -22,6 +22,8 @@ import java.math.BigDecimal;
 import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
 import com.bluecirclesoft.open.getopt.GetOpt;
 import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.Problem;
+import com.bluecirclesoft.open.getopt.ProblemCode;
 import com.bluecirclesoft.open.getopt.TypeConverter;
 
 /**
@@ -47,9 +49,7 @@ public class BigDecimalConverter implements TypeConverter<BigDecimal> {
 			try {
 				return new BigDecimal(trim);
 			} catch (NumberFormatException e) {
-				throw new CommandLineProcessingException(
-						"Option " + option.makeOptionDescriptor() + ": the value '" + trim + "' must be an integer or decimal number",
-						options);
+				throw new CommandLineProcessingException(new Problem(ProblemCode.NOT_A_DECIMAL_NUMBER, option, trim), options);
 			}
 		}
 	}
@@ -22,6 +22,8 @@ import java.math.BigInteger;
 import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
 import com.bluecirclesoft.open.getopt.GetOpt;
 import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.Problem;
+import com.bluecirclesoft.open.getopt.ProblemCode;
 import com.bluecirclesoft.open.getopt.TypeConverter;
 
 /**
@@ -46,8 +48,7 @@ public class BigIntegerConverter implements TypeConverter<BigInteger> {
 			try {
 				return new BigInteger(input.trim());
 			} catch (NumberFormatException e) {
-				throw new CommandLineProcessingException(
-						"Option " + option.makeOptionDescriptor() + ": the value '" + input + "' must be an integer", options);
+				throw new CommandLineProcessingException(new Problem(ProblemCode.NOT_AN_INTEGER, option, input), options);
 			}
 		}
 	}
@@ -20,6 +20,8 @@ package com.bluecirclesoft.open.getopt.converters;
 import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
 import com.bluecirclesoft.open.getopt.GetOpt;
 import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.Problem;
+import com.bluecirclesoft.open.getopt.ProblemCode;
 import com.bluecirclesoft.open.getopt.TypeConverter;
 
 /**
@@ -30,6 +32,11 @@ import com.bluecirclesoft.open.getopt.TypeConverter;
  */
 public class ByteConverter implements TypeConverter<Byte> {
 
+	/**
+	 * The range, for the problem message.
+	 */
+	private static final Object[] RANGE = {String.valueOf(Byte.MIN_VALUE), String.valueOf(Byte.MAX_VALUE)};
+
 	/**
 	 * Convert a string into a Byte or null.
 	 *
@@ -46,8 +53,7 @@ public class ByteConverter implements TypeConverter<Byte> {
 			try {
 				return Byte.parseByte(input.trim());
 			} catch (NumberFormatException e) {
-				throw new CommandLineProcessingException("Option " + option.makeOptionDescriptor() + ": the value '" + input + "' must be" +
-						" a number between " + Byte.MIN_VALUE + " and " + Byte.MAX_VALUE, options);
+				throw new CommandLineProcessingException(new Problem(ProblemCode.NOT_A_NUMBER, option, input, RANGE), options);
 			}
 		}
 	}
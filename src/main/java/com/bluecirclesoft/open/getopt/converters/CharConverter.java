@@ -20,6 +20,8 @@ package com.bluecirclesoft.open.getopt.converters;
 import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
 import com.bluecirclesoft.open.getopt.GetOpt;
 import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.Problem;
+import com.bluecirclesoft.open.getopt.ProblemCode;
 import com.bluecirclesoft.open.getopt.TypeConverter;
 
 /**
@@ -39,8 +41,7 @@ public class CharConverter implements TypeConverter<Character> {
 		if (input == null || input.isEmpty()) {
 			return null;
 		} else if (input.length() > 1) {
-			throw new CommandLineProcessingException("Option " + option.makeOptionDescriptor() + ": the parameter can only be one " +
-					"character", options);
+			throw new CommandLineProcessingException(new Problem(ProblemCode.NOT_ONE_CHARACTER, option, input), options);
 		} else {
 			return input.charAt(0);
 		}
@@ -20,6 +20,8 @@ package com.bluecirclesoft.open.getopt.converters;
 import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
 import com.bluecirclesoft.open.getopt.GetOpt;
 import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.Problem;
+import com.bluecirclesoft.open.getopt.ProblemCode;
 import com.bluecirclesoft.open.getopt.TypeConverter;
 
 /**
@@ -47,9 +49,7 @@ public class DoubleConverter implements TypeConverter<Double> {
 			try {
 				return Double.parseDouble(input.trim());
 			} catch (NumberFormatException e) {
-				throw new CommandLineProcessingException(
-						"Option " + option.makeOptionDescriptor() + ": the value '" + input + "' must be a " +
-								"floating-point number", options);
+				throw new CommandLineProcessingException(new Problem(ProblemCode.NOT_A_FLOATING_POINT_NUMBER, option, input), options);
 			}
 		}
 	}
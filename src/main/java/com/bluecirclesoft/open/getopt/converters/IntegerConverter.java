@@ -20,6 +20,8 @@ package com.bluecirclesoft.open.getopt.converters;
 import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
 import com.bluecirclesoft.open.getopt.GetOpt;
 import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.Problem;
+import com.bluecirclesoft.open.getopt.ProblemCode;
 import com.bluecirclesoft.open.getopt.TypeConverter;
 
 /**
@@ -30,6 +32,11 @@ import com.bluecirclesoft.open.getopt.TypeConverter;
  */
 public class IntegerConverter implements TypeConverter<Integer> {
 
+	/**
+	 * The range, for the problem message.
+	 */
+	private static final Object[] RANGE = {String.valueOf(Integer.MIN_VALUE), String.valueOf(Integer.MAX_VALUE)};
+
 	/**
 	 * Convert a string into a Integer or null.
 	 *
@@ -47,9 +54,7 @@ public class IntegerConverter implements TypeConverter<Integer> {
 			try {
 				return Integer.parseInt(input.trim());
 			} catch (NumberFormatException e) {
-				throw new CommandLineProcessingException(
-						"Option " + option.makeOptionDescriptor() + ": the value '" + input + "' must be a number " +
-								"between " + Integer.MIN_VALUE + " and " + Integer.MAX_VALUE, options);
+				throw new CommandLineProcessingException(new Problem(ProblemCode.NOT_A_NUMBER, option, input, RANGE), options);
 			}
 		}
 	}
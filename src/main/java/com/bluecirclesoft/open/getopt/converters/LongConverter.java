@@ -20,6 +20,8 @@ package com.bluecirclesoft.open.getopt.converters;
 import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
 import com.bluecirclesoft.open.getopt.GetOpt;
 import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.Problem;
+import com.bluecirclesoft.open.getopt.ProblemCode;
 import com.bluecirclesoft.open.getopt.TypeConverter;
 
 /**
@@ -30,6 +32,11 @@ import com.bluecirclesoft.open.getopt.TypeConverter;
  */
 public class LongConverter implements TypeConverter<Long> {
 
+	/**
+	 * The range, for the problem message.
+	 */
+	private static final Object[] RANGE = {String.valueOf(Long.MIN_VALUE), String.valueOf(Long.MAX_VALUE)};
+
 	/**
 	 * Convert a string into a Long or null.
 	 *
@@ -46,9 +53,7 @@ public class LongConverter implements TypeConverter<Long> {
 			try {
 				return Long.parseLong(input.trim());
 			} catch (NumberFormatException e) {
-				throw new CommandLineProcessingException(
-						"Option " + option.makeOptionDescriptor() + ": the value '" + input + "' must be a number " +
-								"between " + Long.MIN_VALUE + " and " + Long.MAX_VALUE, options);
+				throw new CommandLineProcessingException(new Problem(ProblemCode.NOT_A_NUMBER, option, input, RANGE), options);
 			}
 		}
 	}
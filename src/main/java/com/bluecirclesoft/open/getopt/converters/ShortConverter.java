@@ -20,6 +20,8 @@ package com.bluecirclesoft.open.getopt.converters;
 import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
 import com.bluecirclesoft.open.getopt.GetOpt;
 import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.Problem;
+import com.bluecirclesoft.open.getopt.ProblemCode;
 import com.bluecirclesoft.open.getopt.TypeConverter;
 
 /**
@@ -30,6 +32,11 @@ import com.bluecirclesoft.open.getopt.TypeConverter;
  */
 public class ShortConverter implements TypeConverter<Short> {
 
+	/**
+	 * The range, for the problem message.
+	 */
+	private static final Object[] RANGE = {String.valueOf(Short.MIN_VALUE), String.valueOf(Short.MAX_VALUE)};
+
 	/**
 	 * Convert a string into a Short or null.
 	 *
@@ -46,9 +53,7 @@ public class ShortConverter implements TypeConverter<Short> {
 			try {
 				return Short.parseShort(input.trim());
 			} catch (NumberFormatException e) {
-				throw new CommandLineProcessingException(
-						"Option " + option.makeOptionDescriptor() + ": the value '" + input + "' must be a number " +
-								"between " + Short.MIN_VALUE + " and " + Short.MAX_VALUE, options);
+				throw new CommandLineProcessingException(new Problem(ProblemCode.NOT_A_NUMBER, option, input, RANGE), options);
 			}
 		}
 	}
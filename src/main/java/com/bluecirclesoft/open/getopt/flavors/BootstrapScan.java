@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.flavors;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+
+/**
+ * The state left by a bootstrap scan: the command line, and which of its tokens were consumed by
+ * early options.  Pass it to {@link GetOpt#processParams(BootstrapScan)} to process the rest of the
+ * command line once all the options are defined.
+ */
+public class BootstrapScan {
+
+	private final GetOpt creator;
+
+	private final List<String> params;
+
+	private final BitSet consumed = new BitSet();
+
+	BootstrapScan(GetOpt creator, List<String> params) {
+		this.creator = creator;
+		this.params = Collections.unmodifiableList(new ArrayList<>(params));
+	}
+
+	void consume(int index) {
+		consumed.set(index);
+	}
+
+	/**
+	 * Get the option set that made this scan.
+	 *
+	 * @return the option set
+	 */
+	public GetOpt getCreator() {
+		return creator;
+	}
+
+	/**
+	 * Get the whole command line that was scanned.
+	 *
+	 * @return the command line
+	 */
+	public List<String> getParams() {
+		return params;
+	}
+
+	/**
+	 * Was a token consumed by an early option (as the option, or as its argument)?
+	 *
+	 * @param index the token's position in the command line
+	 * @return yes or no
+	 */
+	public boolean isConsumed(int index) {
+		return consumed.get(index);
+	}
+
+	/**
+	 * Get the tokens not consumed by early options, in order.
+	 *
+	 * @return the tokens
+	 */
+	public List<String> getRemainingParams() {
+		List<String> result = new ArrayList<>(params.size() - consumed.cardinality());
+		for (int i = 0; i < params.size(); i++) {
+			if (!consumed.get(i)) {
+				result.add(params.get(i));
+			}
+		}
+		return result;
+	}
+}
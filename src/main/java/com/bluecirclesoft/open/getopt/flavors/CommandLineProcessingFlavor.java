@@ -18,6 +18,7 @@
 package com.bluecirclesoft.open.getopt.flavors;
 
 import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
+import com.bluecirclesoft.open.getopt.ParseResult;
 
 import java.util.List;
 
@@ -46,4 +47,57 @@ public interface CommandLineProcessingFlavor {
 	 *                                        violated
 	 */
 	List<String> processParams(List<String> params);
+
+	/**
+	 * Process the end of a command line whose start was processed by another option set (e.g. the
+	 * global options before a subcommand). The tokens before the start are passed over, but they
+	 * still count towards the {@link com.bluecirclesoft.open.getopt.ParsePolicy} limits, and
+	 * problems are placed at their positions in the whole command line.
+	 *
+	 * @param params The whole command line
+	 * @param start  the index of the first token to process
+	 * @return The remaining parameters after processing is over
+	 * @throws CommandLineProcessingException if any of the command line processing semantics are
+	 *                                        violated
+	 */
+	List<String> processParams(List<String> params, int start);
+
+	/**
+	 * Parse the command line without invoking any of the option consumers, and without modifying
+	 * the option specifications.  This must be safe to call from several threads at once, as long
+	 * as the option definitions are not changing.
+	 *
+	 * @param params The command line parameters
+	 * @return the result of the parse, including any problems found
+	 */
+	ParseResult parse(List<String> params);
+
+	/**
+	 * Create a parser that is given the command line one token at a time.
+	 *
+	 * @return the parser
+	 */
+	IncrementalParser newIncrementalParser();
+
+	/**
+	 * Scan the command line for the early options only (see {@link
+	 * com.bluecirclesoft.open.getopt.OptionSpecification#setEarly(boolean)}), invoking their
+	 * consumers, and remember which tokens they used.  Other tokens are skipped without complaint,
+	 * since the options they belong to may not be defined yet.
+	 *
+	 * @param params The command line parameters
+	 * @return the scan state, to be passed to {@link #processParams(BootstrapScan)}
+	 * @throws CommandLineProcessingException if there are problems with the early options
+	 */
+	BootstrapScan bootstrap(List<String> params);
+
+	/**
+	 * Process the rest of a command line that was scanned by {@link #bootstrap(List)}.
+	 *
+	 * @param scan the bootstrap scan
+	 * @return The remaining parameters after processing is over
+	 * @throws CommandLineProcessingException if any of the command line processing semantics are
+	 *                                        violated
+	 */
+	List<String> processParams(BootstrapScan scan);
 }
@@ -21,10 +21,11 @@ import com.bluecirclesoft.open.getopt.ArgumentSpecification;
 import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
 import com.bluecirclesoft.open.getopt.GetOpt;
 import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.OptionTable;
+import com.bluecirclesoft.open.getopt.ParsePolicy;
+import com.bluecirclesoft.open.getopt.ParseResult;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -34,7 +35,7 @@ public class GnuGetoptFlavor implements CommandLineProcessingFlavor {
 
 	private final GetOpt creator;
 
-	private boolean processOptionsAfterNonOptions;
+	private final boolean processOptionsAfterNonOptions;
 
 	/**
 	 * Construct a GNU getopt-flavor command line processor.
@@ -61,9 +62,7 @@ public class GnuGetoptFlavor implements CommandLineProcessingFlavor {
 	 */
 	@Override
 	public List<String> processParams(String... params) {
-		List<String> x = new ArrayList<>();
-		Collections.addAll(x, params);
-		return processParams(x);
+		return processParams(Arrays.asList(params));
 	}
 
 	/**
@@ -76,130 +75,185 @@ public class GnuGetoptFlavor implements CommandLineProcessingFlavor {
 	 */
 	@Override
 	public List<String> processParams(List<String> params) {
-		int paramNum;
-		Collection<String> problems = new ArrayList<>();
-		List<String> nonOptions = new ArrayList<>();
-
-		for (paramNum = 0; paramNum < params.size(); paramNum++) {
-			String param = params.get(paramNum);
-			if ("--".equals(param)) {
-				// stop processing; skip this parameter, and return the rest
-				paramNum++;
-				extractRestOfLine(params, paramNum, nonOptions);
-				break;
-			} else if (param.length() < 2) {
-				// this is a non-option arg
-				if (processOptionsAfterNonOptions) {
-					nonOptions.add(params.get(paramNum));
-				} else {
-					extractRestOfLine(params, paramNum, nonOptions);
-					break;
-				}
-			} else if (param.charAt(0) == '-') {
-				// this is an option parameter
-				if (param.charAt(1) == '-') {
-					// long option processing
-					paramNum = processLongOption(params, paramNum, problems, param);
-				} else {
-					// short option processing
-					paramNum = processShortOption(params, paramNum, problems, param);
-				}
+		return processParams(params, 0);
+	}
+
+	@Override
+	public List<String> processParams(List<String> params, int start) {
+		GnuGetoptParser parser = newProcessingParser();
+		for (int i = 0; i < params.size() && !parser.isStopped(); i++) {
+			if (i < start) {
+				parser.skip();
 			} else {
-				// non-option arg
-				if (processOptionsAfterNonOptions) {
-					nonOptions.add(params.get(paramNum));
-				} else {
-					extractRestOfLine(params, paramNum, nonOptions);
-					break;
-				}
+				parser.feed(params.get(i));
 			}
 		}
+		return finishProcessing(parser);
+	}
 
-		// Look for required options that were not passed
-		for (OptionSpecification x : creator.getOptions()) {
-			if (x.isRequired() && !x.isSpecified()) {
-				problems.add("required option " + x.makeOptionDescriptor() + " was not given");
-			}
-		}
+	/**
+	 * Make a parser for processParams(): one that invokes the consumers as it goes, or (if the
+	 * option set is transactional) one that records the options to commit at the end.
+	 */
+	private GnuGetoptParser newProcessingParser() {
+		GnuGetoptParser.Target target = creator.isTransactional() ? new GnuGetoptParser.RecordingTarget(true) :
+				new GnuGetoptParser.ApplyingTarget(creator);
+		return new GnuGetoptParser(creator, processOptionsAfterNonOptions, target);
+	}
+
+	private List<String> finishProcessing(GnuGetoptParser parser) {
+		ParseResult result = parser.finish();
 
 		// Were there problems?
-		if (!problems.isEmpty()) {
-			StringBuilder errStr = new StringBuilder();
-			errStr.append("\n");
-			for (String problem : problems) {
-				errStr.append("error: ").append(problem).append("\n");
-			}
-			throw new CommandLineProcessingException(errStr.toString(), creator);
+		if (!result.isSuccessful()) {
+			throw new CommandLineProcessingException(result.getTypedProblems(), creator);
+		}
+		if (creator.isTransactional()) {
+			result.commit();
 		}
 
-		return nonOptions;
+		return parser.getNonOptions();
 	}
 
-	private void extractRestOfLine(List<String> params, int paramNum, List<String> nonOptions) {
-		for (int i = paramNum; i < params.size(); i++) {
-			nonOptions.add(params.get(i));
+	/**
+	 * Parse the command line without invoking any of the option consumers.
+	 *
+	 * @param params The command line parameters
+	 * @return the result of the parse, including any problems found
+	 */
+	@Override
+	public ParseResult parse(List<String> params) {
+		IncrementalParser parser = newIncrementalParser();
+		for (int i = 0; i < params.size() && !parser.isStopped(); i++) {
+			parser.feed(params.get(i));
 		}
+		return parser.finish();
 	}
 
-	private int processShortOption(List<String> params, int paramNum, Collection<String> problems, String param) {
-		for (int j = 1; j < param.length(); j++) {
-			char pChar = param.charAt(j);
-			OptionSpecification shortOpt = creator.getShortOptProcessing(pChar);
-
-			if (shortOpt != null) {
-				if (shortOpt.getArgumentSpecification() == ArgumentSpecification.REQUIRED ||
-						shortOpt.getArgumentSpecification() == ArgumentSpecification.OPTIONAL) {
-					if (j < param.length() - 1) {
-						shortOpt.encounter(param.substring(j + 1));
-						paramNum++;
-						break;
-					} else {
-						if (paramNum + 1 == params.size()) {
-							problems.add("Option -" + pChar +
-									" requires a parameter, but the command line doesn't have any more");
-						} else {
-							paramNum++;
-							shortOpt.encounter(params.get(paramNum));
-							break;
-						}
+	/**
+	 * Scan the command line for the early options.  Only exact option names are recognized (an
+	 * abbreviation might also match an option that isn't defined yet), and a short option is only
+	 * recognized at the start of a token. The arguments of options that are already defined are
+	 * skipped; the argument of an option that is not yet defined can't be told apart from a
+	 * non-option, so it is examined like any other token.  Scanning stops at "--", and (if
+	 * POSIXLY_CORRECT) at the first non-option.  The tokens of the early options are then processed
+	 * like any others, so they get the same policy limits, listener events and problem reports, and
+	 * a transactional option set only invokes their consumers if they are all good.
+	 *
+	 * @param params The command line parameters
+	 * @return the scan state
+	 * @throws CommandLineProcessingException if there are problems with the early options
+	 */
+	@Override
+	public BootstrapScan bootstrap(List<String> params) {
+		BootstrapScan scan = new BootstrapScan(creator, params);
+		OptionTable table = creator.getOptionTable();
+		ParsePolicy policy = creator.getParsePolicy();
+		// the tokens past the limit are left for the full parse to report
+		int end = Math.min(params.size(), policy.getMaxTokens());
+		boolean anyEarly = false;
+		for (int i = 0; i < end; i++) {
+			String param = params.get(i);
+			if (param.length() > policy.getMaxTokenLength()) {
+				// not even looked at; the full parse will report it
+				continue;
+			} else if ("--".equals(param)) {
+				break;
+			} else if (param.length() < 2 || param.charAt(0) != '-') {
+				if (!processOptionsAfterNonOptions) {
+					break;
+				}
+				continue;
+			}
+
+			OptionSpecification option;
+			String value = null;
+			boolean attachedValue;
+			if (param.charAt(1) == '-') {
+				String name = param.substring(2);
+				int equalPos = name.indexOf('=');
+				if (equalPos > 0) {
+					value = name.substring(equalPos + 1);
+					name = name.substring(0, equalPos);
+				}
+				option = table.getLongOpt(name);
+				attachedValue = equalPos > 0;
+				if (option != null && option.getArgumentSpecification() != ArgumentSpecification.REQUIRED) {
+					// like the full parse, a long option only takes an argument if it's required
+					value = null;
+					attachedValue = true;
+				}
+			} else {
+				option = table.getShortOpt(param.charAt(1));
+				if (option != null && option.isFlag()) {
+					if (param.length() > 2) {
+						// glommed with options we may not know about yet
+						option = null;
 					}
+					attachedValue = true;
 				} else {
-					shortOpt.encounter(true);
+					attachedValue = param.length() > 2;
+					if (attachedValue) {
+						value = param.substring(2);
+					}
 				}
-			} else {
-				problems.add("Unknown option: -" + pChar);
 			}
-		}
-		return paramNum;
-	}
+			if (option == null) {
+				continue;
+			}
 
-	private int processLongOption(List<String> params, int paramNum, Collection<String> problems, String param) {
-		String longOptIn = param.substring(2);
-		int equalPos = longOptIn.indexOf('=');
-		String paramValue = null;
-		if (equalPos > 0) {
-			paramValue = longOptIn.substring(equalPos + 1);
-			longOptIn = longOptIn.substring(0, equalPos);
+			boolean takesArgument = option.getArgumentSpecification() == ArgumentSpecification.REQUIRED ||
+					(param.charAt(1) != '-' && option.getArgumentSpecification() == ArgumentSpecification.OPTIONAL);
+			if (takesArgument && !attachedValue) {
+				if (i + 1 >= end) {
+					// leave it to the full parse to report
+					break;
+				}
+				value = params.get(i + 1);
+			}
+			if (option.isEarly()) {
+				anyEarly = true;
+				scan.consume(i);
+				if (takesArgument && !attachedValue) {
+					scan.consume(i + 1);
+				}
+			}
+			if (takesArgument && !attachedValue) {
+				i++;
+			}
 		}
-		OptionSpecification match = creator.getLongOpt(longOptIn, problems);
-		if (match != null) {
-			if (match.getArgumentSpecification() == ArgumentSpecification.REQUIRED) {
-				if (paramValue == null && paramNum + 1 == params.size()) {
-					problems.add("Option --" + longOptIn +
-							" requires a parameter, but the command line doesn't have any more");
+		if (anyEarly) {
+			GnuGetoptParser parser = newProcessingParser();
+			parser.skipConstraints();
+			for (int i = 0; i < end && !parser.isStopped(); i++) {
+				if (scan.isConsumed(i)) {
+					parser.feed(params.get(i));
 				} else {
-					if (paramValue == null) {
-						paramNum++;
-						paramValue = params.get(paramNum);
-					}
-					match.encounter(paramValue);
+					parser.skip();
 				}
+			}
+			finishProcessing(parser);
+		}
+		return scan;
+	}
+
+	@Override
+	public List<String> processParams(BootstrapScan scan) {
+		GnuGetoptParser parser = newProcessingParser();
+		List<String> params = scan.getParams();
+		for (int i = 0; i < params.size() && !parser.isStopped(); i++) {
+			if (scan.isConsumed(i)) {
+				parser.skip();
 			} else {
-				match.encounter(true);
+				parser.feed(params.get(i));
 			}
 		}
-		return paramNum;
+		return finishProcessing(parser);
 	}
 
+	@Override
+	public IncrementalParser newIncrementalParser() {
+		return new GnuGetoptParser(creator, processOptionsAfterNonOptions, new GnuGetoptParser.RecordingTarget(false));
+	}
 
 }
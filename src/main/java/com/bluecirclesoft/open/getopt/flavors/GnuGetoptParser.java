@@ -0,0 +1,625 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.flavors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.bluecirclesoft.open.getopt.ArgumentSpecification;
+import com.bluecirclesoft.open.getopt.CommandLineProcessingException;
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.InternalException;
+import com.bluecirclesoft.open.getopt.OptionSpecification;
+import com.bluecirclesoft.open.getopt.OptionTable;
+import com.bluecirclesoft.open.getopt.ParseListener;
+import com.bluecirclesoft.open.getopt.ParsePolicy;
+import com.bluecirclesoft.open.getopt.ParseResult;
+import com.bluecirclesoft.open.getopt.Problem;
+import com.bluecirclesoft.open.getopt.ProblemCode;
+
+/**
+ * The GNU getopt scanner, as a state machine that is fed one token at a time.  Instead of looking
+ * ahead for an option's argument, the parser remembers the option and hands it the next token fed.
+ */
+class GnuGetoptParser implements IncrementalParser {
+
+	/**
+	 * "-a", "-b", ... for the ASCII characters, so that naming a short option doesn't allocate.
+	 */
+	private static final String[] SHORT_NAMES = new String[128];
+
+	/**
+	 * How much of a token that is too long goes into its problem.
+	 */
+	private static final int TOO_LONG_PREFIX = 16;
+
+	static {
+		for (char ch = 0; ch < SHORT_NAMES.length; ch++) {
+			SHORT_NAMES[ch] = "-" + ch;
+		}
+	}
+
+	private final GetOpt creator;
+
+	private final boolean processOptionsAfterNonOptions;
+
+	private final Target target;
+
+	/**
+	 * The listener installed when the parse started, or null.
+	 */
+	private final ParseListener listener;
+
+	/**
+	 * The policy installed when the parse started.
+	 */
+	private final ParsePolicy policy;
+
+	private final long startNanos;
+
+	private int tokenCount = 0;
+
+	/**
+	 * The options this parse uses; only replaced if option providers define more options.
+	 */
+	private OptionTable table;
+
+	private final List<Problem> problems = new ArrayList<>();
+
+	private final List<String> nonOptions = new ArrayList<>();
+
+	/**
+	 * The ids of the options seen, as a bit set.
+	 */
+	private long[] specified;
+
+	/**
+	 * Set once "--" or (if POSIXLY_CORRECT) the first non-option is seen; every token after that is
+	 * a non-option.
+	 */
+	private boolean optionsEnded = false;
+
+	private boolean finished = false;
+
+	/**
+	 * Set once the policy says to stop examining the command line.
+	 */
+	private boolean stopped = false;
+
+	/**
+	 * Cleared if only part of the command line is fed, so the required options and constraints
+	 * can't be checked.
+	 */
+	private boolean checkConstraints = true;
+
+	/**
+	 * How often each option was given; only kept if the policy limits it.
+	 */
+	private OccurrenceCounts occurrenceCounts;
+
+	/**
+	 * The option waiting for its argument, if any.
+	 */
+	private OptionSpecification pendingOption;
+
+	/**
+	 * The pending option, as written on the command line, and the index of its token.
+	 */
+	private String pendingName;
+
+	private int pendingIndex;
+
+	GnuGetoptParser(GetOpt creator, boolean processOptionsAfterNonOptions, Target target) {
+		this.creator = creator;
+		this.processOptionsAfterNonOptions = processOptionsAfterNonOptions;
+		this.target = target;
+		this.listener = creator.getEnabledParseListener();
+		this.policy = creator.getParsePolicy();
+		if (listener == null) {
+			this.startNanos = 0;
+		} else {
+			listener.parseStarted(creator);
+			this.startNanos = System.nanoTime();
+		}
+		this.table = creator.getOptionTable();
+		this.specified = new long[(table.getOptionCount() + 63) >>> 6];
+		if (policy.getMaxOccurrencesPerOption() != ParsePolicy.UNLIMITED) {
+			this.occurrenceCounts = new OccurrenceCounts();
+		}
+	}
+
+	@Override
+	public void feed(String param) {
+		if (finished) {
+			throw new InternalException("Token fed to a parser that has already finished");
+		}
+		if (stopped) {
+			return;
+		}
+		if (tokenCount >= policy.getMaxTokens()) {
+			addProblem(new Problem(ProblemCode.TOO_MANY_TOKENS, null, tokenCount, null, policy.getMaxTokens()));
+			stopped = true;
+			return;
+		}
+		if (listener != null) {
+			listener.tokenScanned(tokenCount, param);
+		}
+		tokenCount++;
+		if (param.length() > policy.getMaxTokenLength()) {
+			// skipped without being examined, even if it's an option's argument
+			pendingOption = null;
+			addProblem(new Problem(ProblemCode.TOKEN_TOO_LONG, null, tokenCount - 1,
+					param.substring(0, Math.min(TOO_LONG_PREFIX, policy.getMaxTokenLength())),
+					policy.getMaxTokenLength()));
+		} else if (pendingOption != null) {
+			OptionSpecification option = pendingOption;
+			pendingOption = null;
+			encounter(option, pendingName, pendingIndex, param);
+		} else if (optionsEnded) {
+			nonOptions.add(param);
+		} else if ("--".equals(param)) {
+			// stop processing; skip this parameter, and return the rest
+			optionsEnded = true;
+		} else if (param.length() < 2 || param.charAt(0) != '-') {
+			// this is a non-option arg
+			nonOptions.add(param);
+			if (!processOptionsAfterNonOptions) {
+				optionsEnded = true;
+			}
+		} else if (param.charAt(1) == '-') {
+			// long option processing
+			processLongOption(param);
+		} else {
+			// short option processing
+			processShortOption(param);
+		}
+	}
+
+	/**
+	 * Pass over a token that was already processed (by {@link GetOpt#bootstrap(String...)}, or by
+	 * the option set before a subcommand), so that the tokens after it keep their positions in the
+	 * command line, and it still counts towards the token limit.
+	 */
+	void skip() {
+		tokenCount++;
+	}
+
+	/**
+	 * Don't check the required options and constraints at the end, because only some of the
+	 * options are fed (e.g. the early ones, by {@link GetOpt#bootstrap(String...)}).
+	 */
+	void skipConstraints() {
+		checkConstraints = false;
+	}
+
+	@Override
+	public boolean needsArgument() {
+		return pendingOption != null;
+	}
+
+	@Override
+	public boolean acceptsOptions() {
+		return pendingOption == null && !optionsEnded;
+	}
+
+	@Override
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	@Override
+	public List<String> getProblems() {
+		return Problem.messages(Collections.unmodifiableList(problems));
+	}
+
+	@Override
+	public List<Problem> getTypedProblems() {
+		return Collections.unmodifiableList(problems);
+	}
+
+	@Override
+	public ParseResult finish() {
+		finishScan();
+		return new ParseResult(target.getOccurrences(), nonOptions, problems);
+	}
+
+	/**
+	 * Record the problems that can only be detected at the end of the command line.
+	 */
+	void finishScan() {
+		finished = true;
+		// a parse that stopped early didn't see the whole command line, so don't check it as a whole
+		if (!stopped && pendingOption != null) {
+			addProblem(new Problem(ProblemCode.MISSING_ARGUMENT, pendingOption, pendingIndex, pendingName));
+			pendingOption = null;
+		}
+
+		int before = problems.size();
+		if (!stopped && checkConstraints) {
+			table.checkConstraints(specified, target.isCumulative(), problems);
+			if (problems.size() > policy.getMaxProblems()) {
+				problems.subList(Math.max(before, policy.getMaxProblems()), problems.size()).clear();
+			}
+		}
+		if (listener != null) {
+			problemsAdded(before);
+			listener.parseCompleted(tokenCount, problems, System.nanoTime() - startNanos);
+		}
+	}
+
+	private void addProblem(Problem problem) {
+		problems.add(problem);
+		if (listener != null) {
+			listener.problemRecorded(problem);
+		}
+		checkProblemLimit();
+	}
+
+	private void checkProblemLimit() {
+		if (problems.size() >= policy.getMaxProblems()) {
+			stopped = true;
+		}
+	}
+
+	/**
+	 * Tell the listener that the parse stopped early, because the target threw an exception.
+	 *
+	 * @param e the exception, if its problem hasn't been recorded yet
+	 */
+	private void abandoned(CommandLineProcessingException e) {
+		finished = true;
+		if (e != null) {
+			for (Problem problem : e.getProblems()) {
+				addProblem(problem.withArgvIndex(tokenCount - 1));
+			}
+		}
+		listener.parseCompleted(tokenCount, problems, System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Tell the listener about the problems added to the list since it had {@code before} entries.
+	 */
+	private void problemsAdded(int before) {
+		for (int i = before; i < problems.size(); i++) {
+			listener.problemRecorded(problems.get(i));
+		}
+	}
+
+	/**
+	 * Handle an option found on the command line.
+	 *
+	 * @param index the index of the option's token
+	 */
+	private void encounter(OptionSpecification option, String name, int index, String value) {
+		int word = option.getId() >>> 6;
+		if (word >= specified.length) {
+			// defined by an option provider during this parse
+			specified = Arrays.copyOf(specified, Math.max(word + 1, (table.getOptionCount() + 63) >>> 6));
+		}
+		specified[word] |= 1L << option.getId();
+		if (occurrenceCounts != null) {
+			int count = occurrenceCounts.increment(option.getId());
+			if (count > policy.getMaxOccurrencesPerOption()) {
+				if (count == policy.getMaxOccurrencesPerOption() + 1) {
+					addProblem(new Problem(ProblemCode.TOO_MANY_OCCURRENCES, option, index, name,
+							policy.getMaxOccurrencesPerOption()));
+				}
+				return;
+			}
+		}
+		Problem problem;
+		try {
+			problem = target.encounter(option, name, value, listener);
+		} catch (CommandLineProcessingException e) {
+			CommandLineProcessingException placed = e.withArgvIndex(tokenCount - 1);
+			if (listener != null) {
+				abandoned(placed);
+			}
+			throw placed;
+		}
+		if (problem != null) {
+			addProblem(problem.withArgvIndex(tokenCount - 1));
+		}
+	}
+
+	List<String> getNonOptions() {
+		return nonOptions;
+	}
+
+	private static String shortName(char ch) {
+		return ch < SHORT_NAMES.length ? SHORT_NAMES[ch] : "-" + ch;
+	}
+
+	private void processShortOption(String param) {
+		for (int j = 1; j < param.length() && !stopped; j++) {
+			char pChar = param.charAt(j);
+			OptionSpecification shortOpt = table.getShortOpt(pChar);
+			if (shortOpt == null && creator.hasPendingOptionProviders()) {
+				// providers are keyed by long option, so any of them might define this
+				table = creator.getOptionTable(null);
+				shortOpt = table.getShortOpt(pChar);
+			}
+
+			if (shortOpt != null) {
+				if (listener != null) {
+					listener.optionMatched(shortOpt, shortName(pChar), false);
+				}
+				if (shortOpt.getArgumentSpecification() == ArgumentSpecification.REQUIRED ||
+						shortOpt.getArgumentSpecification() == ArgumentSpecification.OPTIONAL) {
+					if (j < param.length() - 1) {
+						encounter(shortOpt, shortName(pChar), tokenCount - 1, param.substring(j + 1));
+					} else {
+						pendingOption = shortOpt;
+						pendingName = shortName(pChar);
+						pendingIndex = tokenCount - 1;
+					}
+					break;
+				} else {
+					encounter(shortOpt, shortName(pChar), tokenCount - 1, null);
+				}
+			} else {
+				addProblem(new Problem(ProblemCode.UNKNOWN_SHORT_OPTION, null, tokenCount - 1, shortName(pChar)));
+				try {
+					target.unknownShortOption(pChar);
+				} catch (CommandLineProcessingException e) {
+					if (listener != null) {
+						abandoned(null);
+					}
+					throw e;
+				}
+			}
+		}
+	}
+
+	private void processLongOption(String param) {
+		// the option as written ("--name"), without any attached argument
+		String name = param;
+		int end = param.indexOf('=', 2);
+		String paramValue = null;
+		if (end > 2) {
+			paramValue = param.substring(end + 1);
+			name = param.substring(0, end);
+		} else {
+			end = param.length();
+		}
+		if (creator.hasPendingOptionProviders()) {
+			table = creator.getOptionTable(param.substring(2, end));
+		}
+		int before = problems.size();
+		OptionSpecification match = table.resolveLongOpt(param, 2, end, tokenCount - 1, problems);
+		checkProblemLimit();
+		if (listener != null) {
+			problemsAdded(before);
+			if (match != null) {
+				listener.optionMatched(match, name, !match.getLongOptList().contains(param.substring(2, end)));
+			}
+		}
+		if (match != null) {
+			if (match.getArgumentSpecification() == ArgumentSpecification.REQUIRED) {
+				if (paramValue == null) {
+					pendingOption = match;
+					pendingName = name;
+					pendingIndex = tokenCount - 1;
+				} else {
+					encounter(match, name, tokenCount - 1, paramValue);
+				}
+			} else {
+				encounter(match, name, tokenCount - 1, null);
+			}
+		}
+	}
+
+	/**
+	 * Convert an option's argument, telling the listener how long it took.
+	 */
+	static Object convert(OptionSpecification option, String value, ParseListener listener) {
+		listener.conversionStarted(option, value);
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			Object converted = option.convert(value);
+			succeeded = true;
+			return converted;
+		} finally {
+			listener.conversionFinished(option, value, System.nanoTime() - start, succeeded);
+		}
+	}
+
+	/**
+	 * Where the scan sends the options it finds.
+	 */
+	interface Target {
+
+		/**
+		 * Called when a short option is not found, before the problem is recorded.
+		 */
+		void unknownShortOption(char ch);
+
+		/**
+		 * Handle an option found on the command line.
+		 *
+		 * @param listener the parse's listener, or null
+		 * @return the problem with the option's argument, or null
+		 */
+		Problem encounter(OptionSpecification option, String name, String value, ParseListener listener);
+
+		/**
+		 * Should options specified before this parse count towards the required options and
+		 * constraints?
+		 */
+		boolean isCumulative();
+
+		List<ParseResult.Occurrence> getOccurrences();
+	}
+
+	/**
+	 * Invokes the option consumers as the options are found (the traditional processParams()
+	 * behavior).
+	 */
+	static class ApplyingTarget implements Target {
+
+		private final GetOpt creator;
+
+		ApplyingTarget(GetOpt creator) {
+			this.creator = creator;
+		}
+
+		@Override
+		public void unknownShortOption(char ch) {
+			// fail immediately, as processParams() always has
+			throw new CommandLineProcessingException(new Problem(ProblemCode.NO_SUCH_OPTION, null, shortName(ch)), creator);
+		}
+
+		@Override
+		public Problem encounter(OptionSpecification option, String name, String value, ParseListener listener) {
+			if (value == null) {
+				option.encounter(true);
+			} else if (listener == null) {
+				option.encounter(value);
+			} else {
+				option.apply(value, convert(option, value, listener));
+			}
+			return null;
+		}
+
+		@Override
+		public boolean isCumulative() {
+			return true;
+		}
+
+		@Override
+		public List<ParseResult.Occurrence> getOccurrences() {
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Records the options found (converting their arguments), leaving the option specifications
+	 * untouched.
+	 */
+	static class RecordingTarget implements Target {
+
+		private final List<ParseResult.Occurrence> occurrences = new ArrayList<>();
+
+		private final boolean cumulative;
+
+		/**
+		 * Constructor
+		 *
+		 * @param cumulative true if the result will be committed, so options specified earlier
+		 *                   count towards the required options and constraints
+		 */
+		RecordingTarget(boolean cumulative) {
+			this.cumulative = cumulative;
+		}
+
+		@Override
+		public void unknownShortOption(char ch) {
+		}
+
+		@Override
+		public Problem encounter(OptionSpecification option, String name, String value, ParseListener listener) {
+			Object converted = null;
+			if (value != null) {
+				try {
+					converted = listener == null ? option.convert(value) : convert(option, value, listener);
+				} catch (CommandLineProcessingException e) {
+					return e.getProblems().get(0);
+				}
+			}
+			occurrences.add(new ParseResult.Occurrence(option, name, value, converted));
+			return null;
+		}
+
+		@Override
+		public boolean isCumulative() {
+			return cumulative;
+		}
+
+		@Override
+		public List<ParseResult.Occurrence> getOccurrences() {
+			return occurrences;
+		}
+	}
+
+	/**
+	 * Counts by option id, in an open-addressing hash table that grows with the number of options
+	 * given, not the number defined.
+	 */
+	private static final class OccurrenceCounts {
+
+		/**
+		 * The ids plus one (0 is an empty slot), and their counts.
+		 */
+		private int[] keys = new int[16];
+
+		private int[] counts = new int[16];
+
+		private int size;
+
+		/**
+		 * Count one more occurrence of an option.
+		 *
+		 * @return the option's count, including this one
+		 */
+		int increment(int id) {
+			int key = id + 1;
+			int mask = keys.length - 1;
+			int slot = slot(key, mask);
+			while (keys[slot] != 0) {
+				if (keys[slot] == key) {
+					return ++counts[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			if (2 * (size + 1) > keys.length) {
+				grow();
+				return increment(id);
+			}
+			keys[slot] = key;
+			counts[slot] = 1;
+			size++;
+			return 1;
+		}
+
+		private static int slot(int key, int mask) {
+			int hash = key * 0x9E3779B9;
+			return (hash ^ (hash >>> 16)) & mask;
+		}
+
+		private void grow() {
+			int[] oldKeys = keys;
+			int[] oldCounts = counts;
+			keys = new int[oldKeys.length * 2];
+			counts = new int[oldKeys.length * 2];
+			int mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != 0) {
+					int slot = slot(oldKeys[i], mask);
+					while (keys[slot] != 0) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[i];
+					counts[slot] = oldCounts[i];
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.flavors;
+
+import java.util.List;
+
+import com.bluecirclesoft.open.getopt.ParsePolicy;
+import com.bluecirclesoft.open.getopt.ParseResult;
+import com.bluecirclesoft.open.getopt.Problem;
+
+/**
+ * A parser that is given the command line one token at a time, for instance by an interactive
+ * shell.  Each token is examined exactly once, when it is fed.  Like {@link
+ * CommandLineProcessingFlavor#parse(List)}, an incremental parser does not invoke any of the option
+ * consumers.
+ */
+public interface IncrementalParser {
+
+	/**
+	 * Process the next token of the command line.
+	 *
+	 * @param token the token
+	 */
+	void feed(String token);
+
+	/**
+	 * Is the parser waiting for the argument of an option given in the last token?
+	 *
+	 * @return yes or no
+	 */
+	boolean needsArgument();
+
+	/**
+	 * Would the next token be examined as a possible option?  This is false while an argument is
+	 * needed, and after option processing has stopped (at "--", or at the first non-option when
+	 * POSIXLY_CORRECT).
+	 *
+	 * @return yes or no
+	 */
+	boolean acceptsOptions();
+
+	/**
+	 * Has the parser stopped examining the command line, because of its option set's {@link
+	 * ParsePolicy}? Tokens fed after that are ignored.
+	 *
+	 * @return yes or no
+	 */
+	boolean isStopped();
+
+	/**
+	 * Get the problems found so far. Problems that can only be known at the end of the command line
+	 * (missing arguments, required options) are not included until {@link #finish()} is called.
+	 *
+	 * @return the problems
+	 */
+	List<String> getProblems();
+
+	/**
+	 * Get the problems found so far, as typed records. {@link #getProblems()} is a rendered view of
+	 * the same list.
+	 *
+	 * @return the problems
+	 */
+	List<Problem> getTypedProblems();
+
+	/**
+	 * Signal the end of the command line.  No more tokens may be fed after this.
+	 *
+	 * @return the result of the parse
+	 */
+	ParseResult finish();
+}
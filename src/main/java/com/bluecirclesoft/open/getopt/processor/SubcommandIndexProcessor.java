@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.bluecirclesoft.open.getopt.ByArgument;
+import com.bluecirclesoft.open.getopt.ByFlag;
+import com.bluecirclesoft.open.getopt.Subcommand;
+import com.bluecirclesoft.open.getopt.SubcommandIndex;
+
+/**
+ * Annotation processor that writes the {@link SubcommandIndex} for the classes annotated with
+ * {@link Subcommand}.  Registered as a service, so javac runs it whenever this library is on the
+ * compile classpath.
+ */
+@SupportedAnnotationTypes("com.bluecirclesoft.open.getopt.Subcommand")
+public class SubcommandIndexProcessor extends AbstractProcessor {
+
+	private final SortedMap<String, String> index = new TreeMap<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getElementsAnnotatedWith(Subcommand.class)) {
+			if (element.getKind() != ElementKind.CLASS) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@Subcommand may only be placed on a class", element);
+				continue;
+			}
+			TypeElement type = (TypeElement) element;
+			Subcommand subcommand = type.getAnnotation(Subcommand.class);
+			String name = subcommand.name();
+			if (index.containsKey(name + ".class")) {
+				processingEnv.getMessager()
+						.printMessage(Diagnostic.Kind.ERROR, "Subcommand " + name + " is already defined by " + index.get(name + ".class"),
+								element);
+				continue;
+			}
+			index.put(name + ".class", processingEnv.getElementUtils().getBinaryName(type).toString());
+			index.put(name + ".documentation", subcommand.documentation());
+			index.put(name + ".options", String.join(" ", optionNames(type)));
+		}
+		if (roundEnv.processingOver() && !index.isEmpty()) {
+			writeIndex();
+		}
+		return true;
+	}
+
+	private static List<String> optionNames(TypeElement type) {
+		List<String> names = new ArrayList<>();
+		for (Element member : type.getEnclosedElements()) {
+			ByArgument byArgument = member.getAnnotation(ByArgument.class);
+			ByFlag byFlag = member.getAnnotation(ByFlag.class);
+			if (byArgument != null) {
+				addNames(names, byArgument.shortOpt(), byArgument.longOpt());
+			} else if (byFlag != null) {
+				addNames(names, byFlag.shortOpt(), byFlag.longOpt());
+			}
+		}
+		return names;
+	}
+
+	private static void addNames(List<String> names, String[] shortOpts, String[] longOpts) {
+		for (String opt : shortOpts) {
+			if (!opt.isEmpty()) {
+				names.add("-" + opt);
+			}
+		}
+		for (String opt : longOpts) {
+			if (!opt.isEmpty()) {
+				names.add("--" + opt);
+			}
+		}
+	}
+
+	private void writeIndex() {
+		// Properties.store() writes a timestamp and hash order; sort and drop comments, so the
+		// output is the same for the same input.  Storing to a stream escapes everything outside
+		// ASCII, so the filer's encoding doesn't matter.
+		Properties properties = new Properties();
+		properties.putAll(index);
+		ByteArrayOutputStream stored = new ByteArrayOutputStream();
+		try {
+			properties.store(stored, null);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		List<String> lines = new ArrayList<>();
+		for (String line : new String(stored.toByteArray(), StandardCharsets.ISO_8859_1).split("\\r?\\n")) {
+			if (!line.isEmpty() && !line.startsWith("#")) {
+				lines.add(line);
+			}
+		}
+		Collections.sort(lines);
+		try {
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SubcommandIndex.RESOURCE_NAME);
+			try (Writer writer = file.openWriter()) {
+				for (String line : lines) {
+					writer.write(line);
+					writer.write('\n');
+				}
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write " + SubcommandIndex.RESOURCE_NAME + ": " + e);
+		}
+	}
+}
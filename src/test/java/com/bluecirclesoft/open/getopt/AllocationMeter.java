@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated by the current thread while running some code, using the HotSpot
+ * extension of ThreadMXBean.
+ */
+public final class AllocationMeter {
+
+	private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+	/**
+	 * What a measurement of nothing reports (the meter's own allocation).
+	 */
+	private static final long OVERHEAD;
+
+	static {
+		long overhead = 0;
+		if (THREADS != null) {
+			overhead = Long.MAX_VALUE;
+			for (int i = 0; i < 1000; i++) {
+				overhead = Math.min(overhead, rawMeasure(() -> {
+				}));
+			}
+		}
+		OVERHEAD = overhead;
+	}
+
+	private AllocationMeter() {
+	}
+
+	private static com.sun.management.ThreadMXBean threads() {
+		try {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+			if (threads.isThreadAllocatedMemorySupported()) {
+				threads.setThreadAllocatedMemoryEnabled(true);
+				return threads;
+			}
+		} catch (ClassCastException | UnsupportedOperationException | NoClassDefFoundError e) {
+			// not HotSpot
+		}
+		return null;
+	}
+
+	/**
+	 * Can allocation be measured on this JVM?
+	 *
+	 * @return yes or no
+	 */
+	public static boolean isSupported() {
+		return THREADS != null;
+	}
+
+	private static long rawMeasure(Runnable code) {
+		long id = Thread.currentThread().getId();
+		long before = THREADS.getThreadAllocatedBytes(id);
+		code.run();
+		return THREADS.getThreadAllocatedBytes(id) - before;
+	}
+
+	/**
+	 * Measure the bytes allocated by one run of some code.
+	 *
+	 * @param code the code
+	 * @return the bytes allocated
+	 */
+	public static long measure(Runnable code) {
+		return Math.max(0, rawMeasure(code) - OVERHEAD);
+	}
+
+	/**
+	 * Measure the bytes allocated by some code once it is warmed up: run it {@code warmup} times,
+	 * then return the least allocated by any of {@code samples} runs (so that allocation by the JIT
+	 * or a stray class load during one run doesn't count).
+	 *
+	 * @param warmup  the runs before measuring
+	 * @param samples the runs measured
+	 * @param code    the code
+	 * @return the bytes allocated
+	 */
+	public static long steadyState(int warmup, int samples, Runnable code) {
+		for (int i = 0; i < warmup; i++) {
+			code.run();
+		}
+		long least = Long.MAX_VALUE;
+		for (int i = 0; i < samples; i++) {
+			least = Math.min(least, measure(code));
+		}
+		return least;
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+/**
+ * Test receptacle for the subcommand index
+ */
+@Subcommand(name = "indexed", documentation = "an indexed subcommand")
+public class IndexedReceptacle {
+
+	@ByArgument(documentation = "the output", mnemonic = "file", shortOpt = "o", longOpt = "output")
+	private String output;
+
+	@ByFlag(documentation = "be forceful", longOpt = {"force", "yes"})
+	private boolean force;
+
+	public String getOutput() {
+		return output;
+	}
+
+	public boolean isForce() {
+		return force;
+	}
+}
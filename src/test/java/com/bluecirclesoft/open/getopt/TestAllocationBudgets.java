@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bluecirclesoft.open.getopt.converters.BigDecimalConverter;
+import com.bluecirclesoft.open.getopt.converters.BigIntegerConverter;
+import com.bluecirclesoft.open.getopt.converters.ByteConverter;
+import com.bluecirclesoft.open.getopt.converters.DoubleConverter;
+import com.bluecirclesoft.open.getopt.converters.FloatConverter;
+import com.bluecirclesoft.open.getopt.converters.IntegerConverter;
+import com.bluecirclesoft.open.getopt.converters.LongConverter;
+import com.bluecirclesoft.open.getopt.converters.ShortConverter;
+
+/**
+ * Allocation budgets for parsing with a frozen option set, and for the numeric converters. A parse
+ * allocates a fixed amount (the parser and its result); these tests check what each further token
+ * costs, by comparing a command line with the same options given 8 and 72 times.
+ */
+public class TestAllocationBudgets {
+
+	private static final int WARMUP = 20000;
+
+	private static final int SAMPLES = 50;
+
+	private GetOpt getOpt;
+
+	private int number;
+
+	private String string;
+
+	@Before
+	public void setUp() {
+		Assume.assumeTrue(AllocationMeter.isSupported());
+		getOpt = GetOpt.create("alloc", "file...");
+		for (char ch = 'a'; ch <= 'd'; ch++) {
+			getOpt.addFlag("flag " + ch, on -> {
+			}).addShortOpt(ch).addLongOpt("flag-" + ch);
+		}
+		getOpt.addParam("n", "a number", false, Integer.class, n -> number = n).addShortOpt('n').addLongOpt("number");
+		getOpt.addParam("s", "a string", false, s -> string = s).addShortOpt('s').addLongOpt("string");
+		getOpt.freeze();
+	}
+
+	private static String[] repeat(int times, String... shape) {
+		String[] result = new String[times * shape.length];
+		for (int i = 0; i < times; i++) {
+			System.arraycopy(shape, 0, result, i * shape.length, shape.length);
+		}
+		return result;
+	}
+
+	/**
+	 * The bytes allocated for each further occurrence of a command line shape.
+	 */
+	private static long perRepeat(Function<String[], ?> parse, String... shape) {
+		String[] few = repeat(8, shape);
+		String[] many = repeat(72, shape);
+		long fewBytes = AllocationMeter.steadyState(WARMUP, SAMPLES, () -> parse.apply(few));
+		long manyBytes = AllocationMeter.steadyState(WARMUP, SAMPLES, () -> parse.apply(many));
+		return Math.max(0, manyBytes - fewBytes) / 64;
+	}
+
+	private void assertBudget(long budget, Function<String[], ?> parse, String... shape) {
+		long bytes = perRepeat(parse, shape);
+		Assert.assertTrue(Arrays.toString(shape) + " allocates " + bytes + " bytes per repeat; the budget is " + budget,
+				bytes <= budget);
+	}
+
+	@Test
+	public void testProcessParams() {
+		Function<String[], ?> process = getOpt::processParams;
+		assertBudget(0, process, "-a");
+		assertBudget(0, process, "-abcd");
+		assertBudget(0, process, "--flag-b");
+		assertBudget(0, process, "--flag-c", "--flag-d");
+		assertBudget(0, process, "--number", "42");
+		assertBudget(0, process, "-n", "42");
+		// the argument itself must be cut out of the token
+		assertBudget(48, process, "-n42");
+		// the argument and the option's name
+		assertBudget(104, process, "--string=value");
+	}
+
+	@Test
+	public void testParse() {
+		Function<String[], ?> parse = getOpt::parse;
+		// one Occurrence, and its share of the list
+		assertBudget(48, parse, "-a");
+		assertBudget(4 * 48, parse, "-abcd");
+		assertBudget(48, parse, "--flag-b");
+		assertBudget(48, parse, "--number", "42");
+		assertBudget(104 + 48, parse, "--string=value");
+	}
+
+	@Test
+	public void testNonOptions() {
+		// only the result list's share
+		assertBudget(16, getOpt::processParams, "file");
+		assertBudget(16, getOpt::parse, "file");
+	}
+
+	private void assertConverterBudget(long budget, TypeConverter<?> converter, String input) {
+		OptionSpecification option = getOpt.getDefinedShortOpt('n');
+		long bytes = AllocationMeter.steadyState(WARMUP, SAMPLES, () -> converter.convert(input, getOpt, option));
+		Assert.assertTrue(converter.getClass().getSimpleName() + " allocates " + bytes + " bytes for " + input + "; the budget is " + budget,
+				bytes <= budget);
+	}
+
+	@Test
+	public void testConverters() {
+		// at most the boxed result
+		assertConverterBudget(0, new ByteConverter(), "42");
+		assertConverterBudget(16, new ShortConverter(), "4242");
+		assertConverterBudget(16, new IntegerConverter(), "424242");
+		assertConverterBudget(24, new LongConverter(), "4242424242");
+		// Float.parseFloat() and Double.parseDouble() need buffers of their own
+		assertConverterBudget(80, new FloatConverter(), "42.5");
+		assertConverterBudget(96, new DoubleConverter(), "42.42");
+		// the value's own objects
+		assertConverterBudget(256, new BigIntegerConverter(), "424242424242424242424242");
+		assertConverterBudget(96, new BigDecimalConverter(), "4242.4242");
+	}
+}
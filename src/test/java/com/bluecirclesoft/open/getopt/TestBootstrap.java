@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bluecirclesoft.open.getopt.flavors.BootstrapScan;
+import com.bluecirclesoft.open.getopt.flavors.CommandLineProcessingFlavors;
+
+/**
+ * Tests for the two-phase (bootstrap, then full) parse
+ */
+public class TestBootstrap {
+
+	@Test
+	public void testBootstrapThenResume() {
+		List<String> configs = new ArrayList<>();
+		boolean[] debug = {false};
+		GetOpt getOpt = GetOpt.create("test", null);
+		getOpt.addParam("file", "config file", false, configs::add).addShortOpt('c').addLongOpt("config").setEarly(true);
+		getOpt.addFlag("debug", on -> debug[0] = on).addLongOpt("debug").setEarly(true);
+
+		BootstrapScan scan =
+				getOpt.bootstrap("--output", "o.txt", "--debug", "-vcmain.conf", "x", "--config", "b.conf", "--deb", "--", "--config", "c");
+		Assert.assertEquals(Arrays.asList("b.conf"), configs);
+		Assert.assertTrue(debug[0]);
+		Assert.assertEquals(Arrays.asList("--output", "o.txt", "-vcmain.conf", "x", "--deb", "--", "--config", "c"),
+				scan.getRemainingParams());
+
+		// now define the options the configuration decided on
+		List<String> outputs = new ArrayList<>();
+		getOpt.addParam("file", "output", false, outputs::add).addLongOpt("output");
+		getOpt.addFlag("verbose", on -> {
+		}).addShortOpt('v');
+		configs.clear();
+		List<String> rest = getOpt.processParams(scan);
+		Assert.assertEquals(Arrays.asList("o.txt"), outputs);
+		// -vcmain.conf is a glommed flag; c is handled in the full parse, --deb by abbreviation
+		Assert.assertEquals(Arrays.asList("main.conf"), configs);
+		Assert.assertEquals(Arrays.asList("x", "--config", "c"), rest);
+	}
+
+	@Test
+	public void testKnownOptionArgumentsAreSkipped() {
+		List<String> configs = new ArrayList<>();
+		GetOpt getOpt = GetOpt.create("test", null);
+		getOpt.addParam("file", "config file", false, configs::add).addLongOpt("config").setEarly(true);
+		getOpt.addParam("word", "a word", false, s -> {
+		}).addShortOpt('w');
+		BootstrapScan scan = getOpt.bootstrap("-w", "--config", "--config", "a");
+		Assert.assertEquals(Arrays.asList("a"), configs);
+		Assert.assertEquals(Arrays.asList("-w", "--config"), scan.getRemainingParams());
+	}
+
+	@Test
+	public void testPosixStopsAtNonOption() {
+		List<String> configs = new ArrayList<>();
+		GetOpt getOpt = GetOpt.create("test", null, CommandLineProcessingFlavors.GNU_GETOPT_POSIXLY_CORRECT);
+		getOpt.addParam("file", "config file", false, configs::add).addLongOpt("config").setEarly(true);
+		getOpt.bootstrap("x", "--config", "a");
+		Assert.assertTrue(configs.isEmpty());
+	}
+
+	@Test
+	public void testProblemsKeepTheirPositions() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		getOpt.addParam("file", "config file", false, s -> {
+		}).addLongOpt("config").setEarly(true);
+		BootstrapScan scan = getOpt.bootstrap("--config", "c.txt", "--bogus");
+		try {
+			getOpt.processParams(scan);
+			Assert.fail();
+		} catch (CommandLineProcessingException e) {
+			Problem problem = e.getProblems().get(0);
+			Assert.assertEquals(ProblemCode.UNKNOWN_LONG_OPTION, problem.getCode());
+			Assert.assertEquals(2, problem.getArgvIndex());
+		}
+	}
+
+	@Test
+	public void testEarlyOptionsAreChecked() {
+		List<Integer> levels = new ArrayList<>();
+		GetOpt getOpt = GetOpt.create("test", null);
+		getOpt.addParam("n", "log level", false, Integer.class, levels::add).addLongOpt("level").setEarly(true);
+		ParseStatistics statistics = new ParseStatistics();
+		getOpt.setParseListener(statistics);
+
+		getOpt.bootstrap("-x", "--level", "3", "file");
+		Assert.assertEquals(Arrays.asList(3), levels);
+		Assert.assertEquals(1, statistics.getOptionStatistics(getOpt.getDefinedLongOpt("level")).getMatches());
+
+		// a conversion failure is a problem placed at its token
+		try {
+			getOpt.bootstrap("-x", "--level", "loud");
+			Assert.fail();
+		} catch (CommandLineProcessingException e) {
+			Problem problem = e.getProblems().get(0);
+			Assert.assertEquals(ProblemCode.NOT_A_NUMBER, problem.getCode());
+			Assert.assertEquals(2, problem.getArgvIndex());
+		}
+
+		// the policy's limits apply, and a transactional option set applies nothing if any are bad
+		levels.clear();
+		getOpt.setTransactional(true).setParsePolicy(ParsePolicy.collectAll().withMaxOccurrencesPerOption(1));
+		try {
+			getOpt.bootstrap("--level", "1", "--level", "2");
+			Assert.fail();
+		} catch (CommandLineProcessingException e) {
+			Assert.assertEquals(ProblemCode.TOO_MANY_OCCURRENCES, e.getProblems().get(0).getCode());
+			Assert.assertEquals(2, e.getProblems().get(0).getArgvIndex());
+		}
+		Assert.assertTrue(levels.isEmpty());
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for option completion
+ */
+public class TestCompletion {
+
+	private final GetOpt getOpt = GetOpt.createFromReceptacle(new GnuReceptacle(), TestCompletion.class, null);
+
+	@Test
+	public void testLongPrefix() {
+		Assert.assertEquals(Arrays.asList("--a-value", "--abc"), getOpt.complete(new String[0], "--a"));
+		Assert.assertEquals(Collections.singletonList("--abc"), getOpt.complete(new String[0], "--ab"));
+		Assert.assertEquals(Collections.emptyList(), getOpt.complete(new String[0], "--x"));
+		Assert.assertEquals(Collections.emptyList(), getOpt.complete(new String[0], "--abc="));
+	}
+
+	@Test
+	public void testShortOptions() {
+		Assert.assertEquals(Arrays.asList("-m", "-ma", "-mb", "-mc", "-mm"), getOpt.complete(new String[0], "-m"));
+		Assert.assertEquals(Arrays.asList("-mm", "-mma", "-mmb", "-mmc", "-mmm"), getOpt.complete(new String[0], "-mm"));
+		// -a takes an argument, so nothing can be glommed on
+		Assert.assertEquals(Collections.singletonList("-a"), getOpt.complete(new String[0], "-a"));
+		Assert.assertEquals(Collections.singletonList("-ma"), getOpt.complete(new String[0], "-ma"));
+		// the rest of the word is -a's argument
+		Assert.assertEquals(Collections.emptyList(), getOpt.complete(new String[0], "-am"));
+		Assert.assertEquals(Collections.emptyList(), getOpt.complete(new String[0], "-x"));
+		Assert.assertEquals(Collections.emptyList(), getOpt.complete(new String[0], "-mx"));
+	}
+
+	@Test
+	public void testAll() {
+		Assert.assertEquals(Arrays.asList("-a", "-b", "-c", "-m", "--a-value", "--abc", "--b-value", "--c-value", "--m-flag"),
+				getOpt.complete(new String[]{"-m"}, "-"));
+	}
+
+	@Test
+	public void testNoOptionsExpected() {
+		Assert.assertEquals(Collections.emptyList(), getOpt.complete(new String[]{"-a"}, "--a"));
+		Assert.assertEquals(Collections.emptyList(), getOpt.complete(new String[]{"--"}, "--a"));
+		Assert.assertEquals(Collections.emptyList(), getOpt.complete(new String[0], "file"));
+	}
+}
@@ -166,5 +166,16 @@ public class TestGnuGetopt {
 		Assert.assertFalse(gnuReceptacle.isM());
 	}
 
+	@Test
+	public void testGlommedArgumentThenNonOpt() {
+		GnuReceptacle gnuReceptacle = new GnuReceptacle();
+
+		GetOpt getOpt = GetOpt.createFromReceptacle(gnuReceptacle, TestGnuGetopt.class, null);
+		List<String> result = getOpt.processParams("-mabc", "q");
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals("q", result.get(0));
+		Assert.assertEquals("bc", gnuReceptacle.getA());
+		Assert.assertTrue(gnuReceptacle.isM());
+	}
 
 }
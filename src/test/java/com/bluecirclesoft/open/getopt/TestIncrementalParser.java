@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bluecirclesoft.open.getopt.flavors.IncrementalParser;
+
+/**
+ * Tests for the token-at-a-time parser
+ */
+public class TestIncrementalParser {
+
+	@Test
+	public void testFeed() {
+		GetOpt getOpt = GetOpt.createFromReceptacle(new GnuReceptacle(), TestIncrementalParser.class, null);
+		IncrementalParser parser = getOpt.incrementalParser();
+
+		parser.feed("-m");
+		Assert.assertFalse(parser.needsArgument());
+		parser.feed("--a-value");
+		Assert.assertTrue(parser.needsArgument());
+		parser.feed("--");
+		Assert.assertFalse(parser.needsArgument());
+		parser.feed("x");
+		parser.feed("--");
+		parser.feed("-b");
+		Assert.assertTrue(parser.getProblems().isEmpty());
+
+		ParseResult result = parser.finish();
+		Assert.assertTrue(result.isSuccessful());
+		Assert.assertEquals(2, result.getOccurrences().size());
+		Assert.assertEquals("--", result.getOccurrences().get(1).getValue());
+		Assert.assertEquals(2, result.getNonOptions().size());
+		Assert.assertEquals("-b", result.getNonOptions().get(1));
+	}
+
+	@Test
+	public void testMissingArgumentAtFinish() {
+		GetOpt getOpt = GetOpt.createFromReceptacle(new GnuReceptacle(), TestIncrementalParser.class, null);
+		IncrementalParser parser = getOpt.incrementalParser();
+
+		parser.feed("-q");
+		Assert.assertEquals(1, parser.getProblems().size());
+		parser.feed("-c");
+		Assert.assertTrue(parser.needsArgument());
+		Assert.assertEquals(1, parser.getProblems().size());
+
+		ParseResult result = parser.finish();
+		Assert.assertEquals(2, result.getProblems().size());
+		Assert.assertEquals("Option -c requires a parameter, but the command line doesn't have any more", result.getProblems().get(1));
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for required options and option constraints
+ */
+public class TestOptionConstraints {
+
+	private GetOpt getOpt;
+
+	private OptionSpecification json;
+
+	private OptionSpecification xml;
+
+	private OptionSpecification user;
+
+	private OptionSpecification password;
+
+	private GetOpt makeOptions() {
+		getOpt = GetOpt.create("test", null);
+		json = getOpt.addFlag("json", on -> {
+		}).addLongOpt("json");
+		xml = getOpt.addFlag("xml", on -> {
+		}).addLongOpt("xml");
+		user = getOpt.addParam("name", "user", false, s -> {
+		}).addShortOpt('u');
+		password = getOpt.addParam("word", "password", false, s -> {
+		}).addShortOpt('p');
+		getOpt.addMutuallyExclusive(json, xml);
+		getOpt.addAtLeastOneOf(json, xml);
+		getOpt.addRequires(user, password);
+		return getOpt;
+	}
+
+	@Test
+	public void testIds() {
+		makeOptions();
+		Assert.assertEquals(4, getOpt.getOptionCount());
+		Assert.assertSame(xml, getOpt.getOption(xml.getId()));
+		Assert.assertEquals(Arrays.asList(0, 1, 2, 3), Arrays.asList(json.getId(), xml.getId(), user.getId(), password.getId()));
+	}
+
+	@Test
+	public void testConstraints() {
+		makeOptions();
+		Assert.assertTrue(getOpt.parse("--json", "-u", "me", "-p", "secret").isSuccessful());
+		Assert.assertEquals(Collections.singletonList("options --json, --xml cannot be used together"),
+				getOpt.parse("--json", "--xml").getProblems());
+		Assert.assertEquals(Collections.singletonList("one of the options --json, --xml is required"),
+				getOpt.parse().getProblems());
+		Assert.assertEquals(Collections.singletonList("option -u requires -p"), getOpt.parse("--xml", "-u", "me").getProblems());
+	}
+
+	@Test
+	public void testManyRequiredOptions() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		for (int i = 0; i < 100; i++) {
+			getOpt.addParam("v", "option " + i, i % 30 == 0, s -> {
+			}).addLongOpt("opt" + i);
+		}
+		Assert.assertEquals(Arrays.asList("required option --opt0 was not given", "required option --opt60 was not given",
+				"required option --opt90 was not given"), getOpt.parse("--opt30", "x").getProblems());
+	}
+
+	@Test(expected = GetOptSetupException.class)
+	public void testForeignOption() {
+		makeOptions();
+		GetOpt other = GetOpt.create("other", null);
+		OptionSpecification foreign = other.addFlag("foreign", on -> {
+		}).addLongOpt("foreign");
+		getOpt.addMutuallyExclusive(json, foreign);
+	}
+
+	@Test
+	public void testCumulativeProcessing() {
+		makeOptions();
+		getOpt.processParams("--json");
+		// --json counts from the earlier call
+		getOpt.processParams("-u", "me", "-p", "secret");
+	}
+}
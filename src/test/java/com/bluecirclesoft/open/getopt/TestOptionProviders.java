@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for lazily-defined options
+ */
+public class TestOptionProviders {
+
+	private static class CountingProvider implements OptionProvider {
+
+		private final String prefix;
+
+		private int loads = 0;
+
+		private boolean flag = false;
+
+		CountingProvider(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Collection<String> getLongOptionPrefixes() {
+			return Collections.singletonList(prefix);
+		}
+
+		@Override
+		public void defineOptions(GetOpt getOpt) {
+			loads++;
+			getOpt.addFlag("flag", on -> flag = on).addLongOpt(prefix + "flag");
+		}
+	}
+
+	/**
+	 * Registered in META-INF/services
+	 */
+	public static class ServiceProvider implements OptionProvider {
+
+		static String value;
+
+		@Override
+		public Collection<String> getLongOptionNames() {
+			return Collections.singletonList("service-value");
+		}
+
+		@Override
+		public void defineOptions(GetOpt getOpt) {
+			getOpt.addParam("value", "value", false, s -> value = s).addShortOpt('S').addLongOpt("service-value");
+		}
+	}
+
+	@Test
+	public void testOnlyMatchingProviderLoads() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		CountingProvider s3 = new CountingProvider("s3-");
+		CountingProvider gcs = new CountingProvider("gcs-");
+		getOpt.addOptionProvider(s3);
+		getOpt.addOptionProvider(gcs);
+		List<String> rest = getOpt.processParams("--s3-flag", "x");
+		Assert.assertEquals(Arrays.asList("x"), rest);
+		Assert.assertTrue(s3.flag);
+		Assert.assertEquals(1, s3.loads);
+		Assert.assertEquals(0, gcs.loads);
+
+		getOpt.usage();
+		Assert.assertEquals(1, s3.loads);
+		Assert.assertEquals(1, gcs.loads);
+	}
+
+	@Test
+	public void testAbbreviationLoadsProvider() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		CountingProvider s3 = new CountingProvider("s3-");
+		getOpt.addOptionProvider(s3);
+		getOpt.processParams("--s3");
+		Assert.assertEquals(1, s3.loads);
+		Assert.assertTrue(s3.flag);
+	}
+
+	@Test
+	public void testUnknownOptionLoadsNothing() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		CountingProvider s3 = new CountingProvider("s3-");
+		getOpt.addOptionProvider(s3);
+		ParseResult result = getOpt.parse("--gcs-flag");
+		Assert.assertFalse(result.isSuccessful());
+		Assert.assertEquals(0, s3.loads);
+	}
+
+	@Test
+	public void testServiceLoader() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		getOpt.loadOptionProviders(getClass().getClassLoader());
+		getOpt.processParams("-S", "a");
+		Assert.assertEquals("a", ServiceProvider.value);
+		getOpt.processParams("--service-v", "b");
+		Assert.assertEquals("b", ServiceProvider.value);
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for option sets built from JSON and properties descriptions
+ */
+public class TestOptionSchema {
+
+	private static final String JSON = "{\n" +
+			"  \"program\": \"tool\",\n" +
+			"  \"arguments\": \"file...\",\n" +
+			"  \"comment\": {\"ignored\": [1, 2.5, null, true]},\n" +
+			"  \"options\": [\n" +
+			"    {\"short\": \"v\", \"long\": \"verbose\", \"type\": \"flag\", \"documentation\": \"be \\\"chatty\\\"\"},\n" +
+			"    {\"short\": [\"n\"], \"long\": [\"count\", \"number\"], \"mnemonic\": \"n\", \"type\": \"int\",\n" +
+			"     \"documentation\": \"how many\"},\n" +
+			"    {\"long\": \"config\", \"mnemonic\": \"file\", \"type\": \"string\", \"required\": true, \"early\": true,\n" +
+			"     \"documentation\": \"the configuration file\"}\n" +
+			"  ]\n" +
+			"}\n";
+
+	private static final String PROPERTIES = "program=tool\n" +
+			"arguments=file...\n" +
+			"option.verbose.short=v\n" +
+			"option.verbose.long=verbose\n" +
+			"option.verbose.type=flag\n" +
+			"option.verbose.documentation=be \"chatty\"\n" +
+			"option.count.short=n\n" +
+			"option.count.long=count, number\n" +
+			"option.count.mnemonic=n\n" +
+			"option.count.type=int\n" +
+			"option.count.documentation=how many\n" +
+			"option.config.long=config\n" +
+			"option.config.mnemonic=file\n" +
+			"option.config.type=string\n" +
+			"option.config.required=true\n" +
+			"option.config.early=true\n" +
+			"option.config.documentation=the configuration file\n";
+
+	private static void check(GetOpt getOpt) {
+		Assert.assertTrue(getOpt.isFrozen());
+		Assert.assertEquals(3, getOpt.getOptionCount());
+		Assert.assertEquals("be \"chatty\"", getOpt.getDefinedShortOpt('v').getDocumentation());
+		Assert.assertTrue(getOpt.getDefinedLongOpt("config").isEarly());
+
+		ParseResult result = getOpt.parse("-v", "--num=12", "--config", "c.conf", "rest");
+		Assert.assertEquals(Collections.emptyList(), result.getProblems());
+		Assert.assertEquals(12, result.getOccurrences().get(1).getConvertedValue());
+		Assert.assertSame(getOpt.getDefinedLongOpt("count"), result.getOccurrences().get(1).getOption());
+		Assert.assertEquals(Collections.singletonList("rest"), result.getNonOptions());
+
+		result = getOpt.parse("-n", "lots");
+		Assert.assertEquals(Arrays.asList("Option -n: the value 'lots' must be a number between -2147483648 and 2147483647",
+				"required option --config was not given"), result.getProblems());
+	}
+
+	@Test
+	public void testJson() throws Exception {
+		check(OptionSchema.readJson(new StringReader(JSON)));
+	}
+
+	@Test
+	public void testProperties() throws Exception {
+		check(OptionSchema.readProperties(new StringReader(PROPERTIES)));
+	}
+
+	@Test
+	public void testNoArguments() throws Exception {
+		GetOpt inCode = GetOpt.create("tool", null);
+		inCode.addFlag("be chatty", on -> {
+		}).addShortOpt('v');
+		String usage = inCode.usage();
+		Assert.assertEquals(usage, OptionSchema.readJson(new StringReader(
+				"{\"program\": \"tool\", \"options\": [{\"short\": \"v\", \"type\": \"flag\", \"documentation\": \"be chatty\"}]}"))
+				.usage());
+		Assert.assertEquals(usage, OptionSchema.readProperties(new StringReader(
+				"program=tool\noption.v.short=v\noption.v.type=flag\noption.v.documentation=be chatty\n")).usage());
+	}
+
+	@Test
+	public void testBadDescriptions() throws Exception {
+		try {
+			OptionSchema.readJson(new StringReader("{\"program\": \"tool\",\n \"options\": [{\"short\": \"v\" \"long\": \"x\"}]}"));
+			Assert.fail();
+		} catch (GetOptSetupException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("JSON error at line 2"));
+		}
+		try {
+			OptionSchema.readProperties(new StringReader("program=tool\noption.x.long=x\noption.x.type=no.such.Type\n" +
+					"option.x.mnemonic=m\noption.x.documentation=d\n"));
+			Assert.fail();
+		} catch (GetOptSetupException e) {
+			Assert.assertEquals("Unknown type no.such.Type for option --x", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testCache() throws Exception {
+		File file = File.createTempFile("schema", ".json");
+		file.deleteOnExit();
+		Files.write(file.toPath(), JSON.getBytes(StandardCharsets.UTF_8));
+		GetOpt first = OptionSchema.load(file.toPath());
+		Assert.assertSame(first, OptionSchema.load(file.toPath()));
+
+		Files.write(file.toPath(), JSON.replace("how many", "how many times").getBytes(StandardCharsets.UTF_8));
+		GetOpt second = OptionSchema.load(file.toPath());
+		Assert.assertNotSame(first, second);
+		Assert.assertEquals("how many times", second.getDefinedLongOpt("count").getDocumentation());
+		OptionSchema.clearCache();
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the published option snapshots
+ */
+public class TestOptionTable {
+
+	@Test
+	public void testSnapshotDoesNotChange() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		getOpt.addFlag("a", on -> {
+		}).addShortOpt('a').addLongOpt("alpha");
+		OptionTable before = getOpt.getOptionTable();
+		Assert.assertSame(before, getOpt.getOptionTable());
+
+		getOpt.addFlag("b", on -> {
+		}).addShortOpt('b').addLongOpt("beta");
+		OptionTable after = getOpt.getOptionTable();
+		Assert.assertNotSame(before, after);
+		Assert.assertEquals(1, before.getOptionCount());
+		Assert.assertNull(before.getLongOpt("beta"));
+		Assert.assertEquals(2, after.getOptionCount());
+		Assert.assertNotNull(after.getShortOpt('b'));
+	}
+
+	@Test
+	public void testSuggestions() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		for (String name : new String[]{"output", "outfile", "input", "color", "colors", "colour"}) {
+			getOpt.addFlag(name, on -> {
+			}).addLongOpt(name);
+		}
+		OptionTable table = getOpt.getOptionTable();
+		Assert.assertEquals(Arrays.asList("output"), table.getSuggestions("ouptut"));
+		Assert.assertEquals(Arrays.asList("input"), table.getSuggestions("inptu"));
+		Assert.assertEquals(Arrays.asList("color", "colors", "colour"), table.getSuggestions("colorz"));
+		Assert.assertEquals(Collections.emptyList(), table.getSuggestions("xyz"));
+
+		Assert.assertEquals(Arrays.asList("Unknown option: --ouptut (did you mean --output?)",
+				"Unknown option: --colorz (did you mean --color, --colors or --colour?)", "Unknown option: --xyz"),
+				getOpt.parse("--ouptut", "--colorz", "--xyz").getProblems());
+	}
+
+	@Test
+	public void testParsingWhileAddingOptions() throws Exception {
+		GetOpt getOpt = GetOpt.create("test", null);
+		getOpt.addFlag("verbose", on -> {
+		}).addShortOpt('v').addLongOpt("verbose");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> parsers = new ArrayList<>();
+			for (int t = 0; t < 3; t++) {
+				parsers.add(executor.submit(() -> {
+					for (int i = 0; i < 2000; i++) {
+						ParseResult result = getOpt.parse("-v", "--verb", "x");
+						Assert.assertTrue(result.getProblems().toString(), result.isSuccessful());
+						// a snapshot's options already have the names it knows them by, and a
+						// batch is published whole
+						OptionTable table = getOpt.getOptionTable();
+						int paired = 0;
+						for (String name : table.getLongOptNames()) {
+							OptionSpecification option = table.getLongOpt(name);
+							Assert.assertTrue(name, option.getLongOptList().contains(name));
+							Assert.assertTrue(name, option.makeOptionDescriptor().startsWith("-"));
+							if (name.startsWith("pair-")) {
+								paired++;
+							}
+						}
+						Assert.assertEquals(0, paired % 2);
+					}
+				}));
+			}
+			Future<?> writer = executor.submit(() -> {
+				for (int i = 0; i < 500; i++) {
+					getOpt.addParam("value", "option " + i, false, s -> {
+					}).addLongOpt("option-" + i);
+					String pair = "pair-" + i;
+					getOpt.batch(() -> {
+						getOpt.addFlag("first of " + pair, on -> {
+						}).addLongOpt(pair + "-a");
+						getOpt.addFlag("second of " + pair, on -> {
+						}).addLongOpt(pair + "-b");
+					});
+				}
+			});
+			writer.get(30, TimeUnit.SECONDS);
+			for (Future<?> parser : parsers) {
+				parser.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertEquals(1501, getOpt.getOptionCount());
+		Assert.assertTrue(getOpt.parse("--option-499", "z").isSuccessful());
+	}
+
+	@Test
+	public void testLargeFrozenTable() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		for (int i = 0; i < 20000; i++) {
+			// generated code builds its strings, so equal strings are different objects
+			getOpt.addParam(new String("value"), new String("a generated option"), false, s -> {
+			}).addLongOpt("generated-option-" + i);
+		}
+		getOpt.addFlag("one", on -> {
+		}).addLongOpt("zebra-one");
+		getOpt.addFlag("two", on -> {
+		}).addLongOpt("zebra-two");
+		OptionFootprint building = getOpt.getFootprint();
+		Assert.assertEquals(20002, building.getOptions());
+		// the names, plus the shared mnemonic and documentation, plus the zebras' names and docs
+		Assert.assertEquals(20006, building.getDistinctStrings());
+		Assert.assertTrue(building.getBuilderBytes() > 0);
+
+		OptionFootprint frozen = getOpt.freeze().getFootprint();
+		Assert.assertEquals(0, frozen.getBuilderBytes());
+		Assert.assertTrue(frozen.getTotalBytes() < building.getTotalBytes());
+
+		OptionTable table = getOpt.getOptionTable();
+		Assert.assertEquals("--generated-option-12345", table.getLongOpt("generated-option-12345").makeOptionDescriptor());
+		Assert.assertNull(table.getLongOpt("generated-option-"));
+		List<String> problems = new ArrayList<>();
+		// an exact name wins over the longer names it is a prefix of
+		Assert.assertSame(table.getLongOpt("generated-option-1999"), table.resolveLongOpt("generated-option-1999", problems));
+		Assert.assertSame(table.getLongOpt("generated-option-19999"), table.resolveLongOpt("generated-option-19999", problems));
+		Assert.assertTrue(problems.isEmpty());
+		Assert.assertSame(table.getLongOpt("zebra-one"), table.resolveLongOpt("zebra-o", problems));
+		Assert.assertTrue(problems.isEmpty());
+		Assert.assertNull(table.resolveLongOpt("zeb", problems));
+		Assert.assertEquals("Option --zeb is not unique; it matches:\n    --zebra-one\n    --zebra-two", problems.get(0));
+		Assert.assertEquals(1, problems.size());
+		Assert.assertNull(table.resolveLongOpt("zz", problems));
+		Assert.assertEquals("Unknown option: --zz", problems.get(1));
+
+		// only the first few of a long list of matches are named
+		problems.clear();
+		Assert.assertNull(table.resolveLongOpt("generated", problems));
+		Assert.assertEquals(1, problems.size());
+		String[] lines = problems.get(0).split("\n");
+		Assert.assertEquals(12, lines.length);
+		Assert.assertEquals("    --generated-option-0", lines[1]);
+		Assert.assertEquals("    (and 19990 more)", lines[11]);
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the side-effect-free and bulk parsing
+ */
+public class TestParseAll {
+
+	@Test
+	public void testParseDoesNotTouchReceptacle() {
+		GnuReceptacle gnuReceptacle = new GnuReceptacle();
+		GetOpt getOpt = GetOpt.createFromReceptacle(gnuReceptacle, TestParseAll.class, null);
+
+		ParseResult result = getOpt.parse("-ma", "x", "--abc=y", "rest");
+		Assert.assertTrue(result.isSuccessful());
+		Assert.assertEquals(3, result.getOccurrences().size());
+		Assert.assertEquals("-m", result.getOccurrences().get(0).getName());
+		Assert.assertNull(result.getOccurrences().get(0).getValue());
+		Assert.assertEquals("x", result.getOccurrences().get(1).getValue());
+		Assert.assertEquals("y", result.getOccurrences().get(2).getValue());
+		Assert.assertEquals(1, result.getNonOptions().size());
+		Assert.assertEquals("rest", result.getNonOptions().get(0));
+
+		Assert.assertNull(gnuReceptacle.getA());
+		Assert.assertNull(gnuReceptacle.getAbc());
+		Assert.assertFalse(gnuReceptacle.isM());
+		Assert.assertFalse(getOpt.isFlagSet('m'));
+	}
+
+	@Test
+	public void testParseProblems() {
+		GetOpt getOpt = GetOpt.createFromReceptacle(new GnuReceptacle(), TestParseAll.class, null);
+
+		ParseResult result = getOpt.parse("-q", "--nope", "--a-v=1", "-a");
+		Assert.assertFalse(result.isSuccessful());
+		Assert.assertEquals(3, result.getProblems().size());
+		Assert.assertEquals("Unknown option: -q", result.getProblems().get(0));
+		Assert.assertEquals("Unknown option: --nope", result.getProblems().get(1));
+		Assert.assertTrue(result.getOccurrences().get(0).isAbbreviated());
+	}
+
+	@Test
+	public void testParseAllKeepsOrder() {
+		GetOpt getOpt = GetOpt.createFromReceptacle(new GnuReceptacle(), TestParseAll.class, null);
+
+		List<String[]> commandLines = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			if (i % 7 == 0) {
+				commandLines.add(new String[]{"--bogus"});
+			} else {
+				commandLines.add(new String[]{"-a", String.valueOf(i), "-m"});
+			}
+		}
+
+		List<ParseResult> results = getOpt.parseAll(commandLines);
+		Assert.assertTrue(getOpt.isFrozen());
+		Assert.assertEquals(commandLines.size(), results.size());
+		for (int i = 0; i < results.size(); i++) {
+			ParseResult result = results.get(i);
+			if (i % 7 == 0) {
+				Assert.assertFalse(result.isSuccessful());
+			} else {
+				Assert.assertTrue(result.isSuccessful());
+				Assert.assertEquals(String.valueOf(i), result.getOccurrences().get(0).getValue());
+			}
+		}
+
+		List<String> streamed = getOpt.parseAll(IntStream.range(0, 1000).mapToObj(i -> new String[]{"--a-value=" + i}))
+				.map(r -> r.getOccurrences().get(0).getValue())
+				.collect(Collectors.toList());
+		for (int i = 0; i < streamed.size(); i++) {
+			Assert.assertEquals(String.valueOf(i), streamed.get(i));
+		}
+	}
+
+	@Test
+	public void testFrozen() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		getOpt.addFlag("a flag", on -> {
+		}).addShortOpt('a');
+		getOpt.freeze();
+		try {
+			getOpt.addFlag("another flag", on -> {
+			});
+			Assert.fail("should have gotten GetOptSetupException");
+		} catch (GetOptSetupException ignored) {
+		}
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the parse listener hooks, and the statistics listener
+ */
+public class TestParseListener {
+
+	private static GetOpt makeOptions() {
+		GetOpt getOpt = GetOpt.create("listened", "file...");
+		getOpt.addFlag("be chatty", on -> {
+		}).addShortOpt('v').addLongOpt("verbose");
+		getOpt.addParam("n", "how many", false, Integer.class, n -> {
+		}).addShortOpt('n').addLongOpt("count");
+		return getOpt;
+	}
+
+	@Test
+	public void testEvents() {
+		List<String> events = new ArrayList<>();
+		GetOpt getOpt = makeOptions().setParseListener(new ParseListener() {
+			@Override
+			public void tokenScanned(int index, String token) {
+				events.add("token " + index + " " + token);
+			}
+
+			@Override
+			public void optionMatched(OptionSpecification option, String name, boolean abbreviated) {
+				events.add("match " + name + (abbreviated ? " abbreviated" : ""));
+			}
+
+			@Override
+			public void conversionStarted(OptionSpecification option, String value) {
+				events.add("convert " + value);
+			}
+
+			@Override
+			public void conversionFinished(OptionSpecification option, String value, long elapsedNanos, boolean succeeded) {
+				events.add("converted " + value + " " + succeeded);
+			}
+
+			@Override
+			public void problemRecorded(Problem problem) {
+				events.add("problem " + problem);
+			}
+
+			@Override
+			public void parseCompleted(int tokens, List<Problem> problems, long elapsedNanos) {
+				events.add("done " + tokens + " " + problems.size());
+			}
+		});
+
+		getOpt.processParams("-v", "--cou", "12", "file");
+		Assert.assertEquals(Arrays.asList("token 0 -v", "match -v", "token 1 --cou", "match --cou abbreviated", "token 2 12",
+				"convert 12", "converted 12 true", "token 3 file", "done 4 0"), events);
+
+		events.clear();
+		getOpt.parse("--count=x", "--nope");
+		Assert.assertEquals(Arrays.asList("token 0 --count=x", "match --count", "convert x", "converted x false",
+				"problem Option -n: the value 'x' must be a number between -2147483648 and 2147483647", "token 1 --nope",
+				"problem Unknown option: --nope", "done 2 2"), events);
+
+		events.clear();
+		try {
+			getOpt.processParams("-vx");
+			Assert.fail();
+		} catch (CommandLineProcessingException e) {
+			// expected
+		}
+		Assert.assertEquals(Arrays.asList("token 0 -vx", "match -v", "problem Unknown option: -x", "done 1 1"), events);
+	}
+
+	@Test
+	public void testDefinitionAndUsage() {
+		List<String> events = new ArrayList<>();
+		GetOpt.setDefaultParseListener(new ParseListener() {
+			@Override
+			public void definitionFinished(Class<?> receptacleClass, int members, long elapsedNanos) {
+				events.add("defined " + receptacleClass.getSimpleName() + " " + members);
+			}
+
+			@Override
+			public void parseStarted(GetOpt getOpt) {
+				events.add("start");
+			}
+
+			@Override
+			public void parseCompleted(int tokens, List<Problem> problems, long elapsedNanos) {
+				events.add("done " + problems);
+			}
+
+			@Override
+			public void usageFinished(GetOpt getOpt, int length, long elapsedNanos) {
+				events.add("usage " + (length > 0));
+			}
+		});
+		try {
+			GetOpt getOpt = GetOpt.createFromReceptacle(new GnuReceptacle(), "listened", "file...");
+			try {
+				getOpt.processParams("-m", "--a-value");
+				Assert.fail();
+			} catch (CommandLineProcessingException e) {
+				// the usage is rendered when the message is read
+				Assert.assertTrue(e.getMessage().contains("usage:"));
+			}
+			Assert.assertEquals(Arrays.asList("defined GnuReceptacle 5", "start",
+					"done [Option --a-value requires a parameter, but the command line doesn't have any more]", "usage true"), events);
+		} finally {
+			GetOpt.setDefaultParseListener(null);
+		}
+		Assert.assertNull(GetOpt.create("quiet", "").getParseListener());
+	}
+
+	@Test
+	public void testStatistics() {
+		GetOpt getOpt = makeOptions();
+		ParseStatistics statistics = new ParseStatistics();
+		getOpt.setParseListener(statistics);
+		for (int i = 0; i < 10; i++) {
+			getOpt.parse("-v", "--count", Integer.toString(i));
+		}
+		getOpt.parse("--verb", "-n", "many");
+
+		Assert.assertEquals(11, statistics.getParses());
+		Assert.assertEquals(1, statistics.getFailedParses());
+		Assert.assertEquals(33, statistics.getTokens());
+		Assert.assertEquals(1, statistics.getProblems());
+		Assert.assertEquals(11, statistics.getParseNanos().getCount());
+
+		ParseStatistics.OptionStatistics verbose = statistics.getOptionStatistics(getOpt.getDefinedShortOpt('v'));
+		Assert.assertEquals(11, verbose.getMatches());
+		Assert.assertEquals(1, verbose.getAbbreviatedMatches());
+		Assert.assertEquals(0, verbose.getConversions());
+		ParseStatistics.OptionStatistics count = statistics.getOptionStatistics(getOpt.getDefinedShortOpt('n'));
+		Assert.assertEquals(11, count.getConversions());
+		Assert.assertEquals(1, count.getConversionFailures());
+		Assert.assertEquals(2, statistics.getOptionStatistics().size());
+
+		getOpt.setParseListener(null);
+		getOpt.parse("-v");
+		Assert.assertEquals(11, statistics.getParses());
+		statistics.reset();
+		Assert.assertEquals(0, statistics.getTokens());
+		Assert.assertNull(statistics.getOptionStatistics(getOpt.getDefinedShortOpt('v')));
+	}
+
+	@Test
+	public void testSubcommand() {
+		GetOpt getOpt = makeOptions();
+		getOpt.addReceptacleSubcommand("gnu", "the gnu subcommand", GnuReceptacle::new);
+		ParseStatistics statistics = new ParseStatistics();
+		getOpt.setParseListener(statistics);
+		SubcommandInvocation invocation = getOpt.processSubcommand("-v", "gnu", "-m", "x");
+		Assert.assertSame(statistics, invocation.getOptions().getParseListener());
+		Assert.assertEquals(2, statistics.getParses());
+		Assert.assertEquals(1, statistics.getOptionStatistics(getOpt.getDefinedShortOpt('v')).getMatches());
+		Assert.assertEquals(1, statistics.getOptionStatistics(invocation.getOptions().getDefinedShortOpt('m')).getMatches());
+	}
+
+	@Test
+	public void testHistogram() {
+		Assert.assertEquals(0, ParseStatistics.Histogram.bucketOf(0));
+		Assert.assertEquals(0, ParseStatistics.Histogram.bucketOf(1));
+		Assert.assertEquals(1, ParseStatistics.Histogram.bucketOf(3));
+		Assert.assertEquals(10, ParseStatistics.Histogram.bucketOf(1024));
+		Assert.assertEquals(62, ParseStatistics.Histogram.bucketOf(Long.MAX_VALUE));
+
+		ParseStatistics.Histogram histogram = new ParseStatistics.Histogram();
+		for (int i = 0; i < 99; i++) {
+			histogram.record(100);
+		}
+		histogram.record(5000);
+		Assert.assertEquals(100, histogram.getCount());
+		Assert.assertEquals(127, histogram.getPercentileNanos(50));
+		Assert.assertEquals(127, histogram.getPercentileNanos(99));
+		Assert.assertEquals(8191, histogram.getPercentileNanos(100));
+	}
+}
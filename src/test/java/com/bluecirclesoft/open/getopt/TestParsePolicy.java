@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the parse policies: fail-fast and max-problems modes, and the limits
+ */
+public class TestParsePolicy {
+
+	private final List<String> verbosity = new ArrayList<>();
+
+	private GetOpt makeOptions() {
+		GetOpt getOpt = GetOpt.create("policed", "file...");
+		getOpt.addFlag("be chatty", on -> verbosity.add("v")).addShortOpt('v').addLongOpt("verbose");
+		getOpt.addParam("n", "how many", false, Integer.class, n -> {
+		}).addShortOpt('n').addLongOpt("count");
+		getOpt.addParam("file", "the output", true, f -> {
+		}).addShortOpt('o').addLongOpt("output");
+		return getOpt;
+	}
+
+	private static List<ProblemCode> codes(ParseResult result) {
+		List<ProblemCode> codes = new ArrayList<>();
+		for (Problem problem : result.getTypedProblems()) {
+			codes.add(problem.getCode());
+		}
+		return codes;
+	}
+
+	@Test
+	public void testModes() {
+		GetOpt getOpt = makeOptions();
+		String[] argv = {"-x", "--count=x", "-y", "--nope"};
+		Assert.assertSame(ParsePolicy.collectAll(), getOpt.getParsePolicy());
+		// all four, and --output is required
+		Assert.assertEquals(5, getOpt.parse(argv).getTypedProblems().size());
+
+		getOpt.setParsePolicy(ParsePolicy.failFast());
+		ParseResult result = getOpt.parse(argv);
+		Assert.assertEquals(Collections.singletonList(ProblemCode.UNKNOWN_SHORT_OPTION), codes(result));
+
+		getOpt.setParsePolicy(ParsePolicy.maxProblems(2));
+		result = getOpt.parse(argv);
+		Assert.assertEquals(Arrays.asList(ProblemCode.UNKNOWN_SHORT_OPTION, ProblemCode.NOT_A_NUMBER), codes(result));
+		// the constraints are checked, but only as many problems as allowed are kept
+		result = getOpt.parse("-x", "file");
+		Assert.assertEquals(Arrays.asList(ProblemCode.UNKNOWN_SHORT_OPTION, ProblemCode.REQUIRED_OPTION_MISSING), codes(result));
+
+		// a glommed group stops at the problem, too
+		getOpt.setParsePolicy(ParsePolicy.failFast());
+		try {
+			getOpt.processParams("-o", "out", "--nope", "-vx");
+			Assert.fail();
+		} catch (CommandLineProcessingException e) {
+			Assert.assertEquals(1, e.getProblems().size());
+			Assert.assertEquals(ProblemCode.UNKNOWN_LONG_OPTION, e.getProblems().get(0).getCode());
+		}
+		Assert.assertTrue(verbosity.isEmpty());
+
+		getOpt.setParsePolicy(null);
+		Assert.assertSame(ParsePolicy.collectAll(), getOpt.getParsePolicy());
+	}
+
+	@Test
+	public void testLimits() {
+		GetOpt getOpt = makeOptions().setParsePolicy(ParsePolicy.collectAll().withMaxTokens(4));
+		ParseResult result = getOpt.parse("-o", "out", "a", "b", "c", "d");
+		Assert.assertEquals(Collections.singletonList(ProblemCode.TOO_MANY_TOKENS), codes(result));
+		Assert.assertEquals(4, result.getTypedProblems().get(0).getArgvIndex());
+		Assert.assertEquals(Collections.<Object>singletonList(4), result.getTypedProblems().get(0).getDetails());
+		Assert.assertEquals(Arrays.asList("a", "b"), result.getNonOptions());
+		Assert.assertEquals("the command line has more than 4 arguments", result.getProblems().get(0));
+		Assert.assertTrue(getOpt.parse("-o", "out", "a", "b").isSuccessful());
+
+		getOpt.setParsePolicy(ParsePolicy.collectAll().withMaxTokenLength(20));
+		char[] garbage = new char[100000];
+		Arrays.fill(garbage, 'z');
+		result = getOpt.parse("-o", new String(garbage), "--verbose", "-" + new String(garbage));
+		// the long argument is skipped, so the (required) -o wasn't given
+		Assert.assertEquals(Arrays.asList(ProblemCode.TOKEN_TOO_LONG, ProblemCode.TOKEN_TOO_LONG,
+				ProblemCode.REQUIRED_OPTION_MISSING), codes(result));
+		Assert.assertEquals("argument zzzzzzzzzzzzzzzz... is longer than 20 characters", result.getProblems().get(0));
+		Assert.assertEquals(3, result.getTypedProblems().get(1).getArgvIndex());
+		Assert.assertEquals(1, result.getOccurrences().size());
+
+		getOpt.setParsePolicy(ParsePolicy.maxProblems(5).withMaxOccurrencesPerOption(2));
+		result = getOpt.parse("-o", "out", "-vvvvvv", "--verbose", "-n", "1", "-n", "2", "-n", "3");
+		Assert.assertEquals(Arrays.asList(ProblemCode.TOO_MANY_OCCURRENCES, ProblemCode.TOO_MANY_OCCURRENCES), codes(result));
+		Problem problem = result.getTypedProblems().get(1);
+		Assert.assertEquals("-n", problem.getToken());
+		Assert.assertEquals(8, problem.getArgvIndex());
+		Assert.assertEquals("option -n was given more than 2 times", problem.getMessage());
+		Assert.assertEquals(5, result.getOccurrences().size());
+
+		// many options, each given up to the limit, and one over it
+		GetOpt many = GetOpt.create("many", null).setParsePolicy(ParsePolicy.collectAll().withMaxOccurrencesPerOption(2));
+		List<String> argv = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			many.addFlag("flag " + i, on -> {
+			}).addLongOpt("flag-" + i);
+			argv.add("--flag-" + i);
+			argv.add("--flag-" + i);
+		}
+		argv.add("--flag-57");
+		result = many.parse(argv);
+		Assert.assertEquals(Collections.singletonList(ProblemCode.TOO_MANY_OCCURRENCES), codes(result));
+		Assert.assertEquals("--flag-57", result.getTypedProblems().get(0).getToken());
+		Assert.assertEquals(200, result.getOccurrences().size());
+	}
+
+	@Test
+	public void testSubcommandLimits() {
+		GetOpt root = GetOpt.create("root", null)
+				.setParsePolicy(ParsePolicy.collectAll().withMaxTokens(5).withMaxOccurrencesPerOption(2));
+		root.addFlag("be chatty", on -> {
+		}).addShortOpt('v');
+		root.addReceptacleSubcommand("gnu", "the gnu subcommand", GnuReceptacle::new);
+		Assert.assertEquals(Collections.singletonList("x"), root.processSubcommand("-v", "gnu", "-m", "-m", "x").getRemainingParams());
+
+		try {
+			root.processSubcommand("-v", "gnu", "-m", "x", "y", "z");
+			Assert.fail();
+		} catch (CommandLineProcessingException e) {
+			Assert.assertEquals(ProblemCode.TOO_MANY_TOKENS, e.getProblems().get(0).getCode());
+			Assert.assertEquals(5, e.getProblems().get(0).getArgvIndex());
+		}
+		try {
+			root.processSubcommand("gnu", "-m", "-m", "-m");
+			Assert.fail();
+		} catch (CommandLineProcessingException e) {
+			Assert.assertEquals(1, e.getProblems().size());
+			Assert.assertEquals(ProblemCode.TOO_MANY_OCCURRENCES, e.getProblems().get(0).getCode());
+			Assert.assertEquals(3, e.getProblems().get(0).getArgvIndex());
+		}
+	}
+
+	@Test(expected = GetOptSetupException.class)
+	public void testBadLimit() {
+		ParsePolicy.failFast().withMaxTokens(0);
+	}
+}
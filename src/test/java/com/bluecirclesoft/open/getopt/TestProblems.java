@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListResourceBundle;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for typed problems and their rendering
+ */
+public class TestProblems {
+
+	private static GetOpt makeOptions() {
+		GetOpt getOpt = GetOpt.create("problems", "file...");
+		getOpt.addFlag("be chatty", on -> {
+		}).addShortOpt('v').addLongOpt("verbose");
+		getOpt.addParam("n", "how many", false, Integer.class, n -> {
+		}).addShortOpt('n').addLongOpt("count");
+		getOpt.addParam("file", "the output", false, f -> {
+		}).addLongOpt("output").addLongOpt("outline");
+		return getOpt;
+	}
+
+	/**
+	 * Spanish messages for some of the codes, and the built-in ones for the rest.
+	 */
+	public static class SpanishProblems extends ListResourceBundle {
+
+		public SpanishProblems() {
+			setParent(ResourceBundle.getBundle(ProblemFormatter.BUNDLE_NAME, Locale.ROOT));
+		}
+
+		@Override
+		protected Object[][] getContents() {
+			return new Object[][]{{"UNKNOWN_SHORT_OPTION", "Opci\u00f3n desconocida: {1}"},
+					{"NOT_A_NUMBER", "Opci\u00f3n {0}: ''{1}'' debe ser un n\u00famero entre {2} y {3}"}};
+		}
+	}
+
+	@Test
+	public void testTypedProblems() {
+		GetOpt getOpt = makeOptions();
+		OptionSpecification count = getOpt.getOptionTable().getLongOpt("count");
+		ParseResult result = getOpt.parse("-x", "file", "--count=x", "--out", "--ouptut", "--verbose", "-n");
+		List<Problem> problems = result.getTypedProblems();
+		Assert.assertEquals(5, problems.size());
+
+		Assert.assertEquals(ProblemCode.UNKNOWN_SHORT_OPTION, problems.get(0).getCode());
+		Assert.assertEquals(-1, problems.get(0).getOptionId());
+		Assert.assertEquals(0, problems.get(0).getArgvIndex());
+		Assert.assertEquals("-x", problems.get(0).getToken());
+
+		Assert.assertEquals(ProblemCode.NOT_A_NUMBER, problems.get(1).getCode());
+		Assert.assertSame(count, problems.get(1).getOption());
+		Assert.assertEquals(count.getId(), problems.get(1).getOptionId());
+		Assert.assertEquals(2, problems.get(1).getArgvIndex());
+		Assert.assertEquals("x", problems.get(1).getToken());
+
+		Assert.assertEquals(ProblemCode.AMBIGUOUS_OPTION, problems.get(2).getCode());
+		Assert.assertEquals(3, problems.get(2).getArgvIndex());
+		Assert.assertEquals(ProblemCode.UNKNOWN_LONG_OPTION, problems.get(3).getCode());
+		Assert.assertEquals(4, problems.get(3).getArgvIndex());
+		Assert.assertEquals(Arrays.asList("output"), problems.get(3).getSuggestions());
+		Assert.assertTrue(problems.get(3).getDetails().isEmpty());
+		Assert.assertTrue(problems.get(0).getSuggestions().isEmpty());
+
+		Assert.assertEquals(ProblemCode.MISSING_ARGUMENT, problems.get(4).getCode());
+		Assert.assertSame(count, problems.get(4).getOption());
+		Assert.assertEquals(6, problems.get(4).getArgvIndex());
+
+		Assert.assertEquals(Arrays.asList("Unknown option: -x",
+				"Option -n: the value 'x' must be a number between -2147483648 and 2147483647",
+				"Option --out is not unique; it matches:\n    --outline\n    --output",
+				"Unknown option: --ouptut (did you mean --output?)",
+				"Option -n requires a parameter, but the command line doesn't have any more"), result.getProblems());
+	}
+
+	@Test
+	public void testCustomFormatter() {
+		List<Problem> problems = makeOptions().parse("-x", "--count=x").getTypedProblems();
+		ProblemFormatter spanish = new ProblemFormatter(new SpanishProblems());
+		Assert.assertEquals("Opci\u00f3n desconocida: -x", spanish.format(problems.get(0)));
+		Assert.assertEquals("Opci\u00f3n -n: 'x' debe ser un n\u00famero entre -2147483648 y 2147483647", spanish.format(problems.get(1)));
+
+		ProblemFormatter.setDefault(spanish);
+		try {
+			Assert.assertEquals("Opci\u00f3n desconocida: -x", problems.get(0).getMessage());
+		} finally {
+			ProblemFormatter.setDefault(null);
+		}
+		Assert.assertEquals("Unknown option: -x", problems.get(0).getMessage());
+	}
+
+	@Test
+	public void testException() {
+		List<String> events = new ArrayList<>();
+		GetOpt getOpt = makeOptions().setParseListener(new ParseListener() {
+			@Override
+			public void usageFinished(GetOpt getOpt, int length, long elapsedNanos) {
+				events.add("usage");
+			}
+		});
+		try {
+			getOpt.processParams("-v", "--count");
+			Assert.fail();
+		} catch (CommandLineProcessingException e) {
+			Assert.assertEquals(ProblemCode.MISSING_ARGUMENT, e.getProblems().get(0).getCode());
+			Assert.assertEquals(1, e.getProblems().get(0).getArgvIndex());
+			// the usage message is only rendered when the exception's message is read
+			Assert.assertTrue(events.isEmpty());
+			Assert.assertTrue(e.getMessage().startsWith(
+					"\nerror: Option --count requires a parameter, but the command line doesn't have any more\n\nusage:"));
+			Assert.assertEquals(Arrays.asList("usage"), events);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for binary option snapshots
+ */
+public class TestSpecSnapshot {
+
+	private static GetOpt makeOptions() {
+		GetOpt getOpt = GetOpt.create("snapper", "file...");
+		OptionSpecification json = getOpt.addFlag("write JSON", on -> {
+		}).addShortOpt('j').addLongOpt("json");
+		OptionSpecification xml = getOpt.addFlag("write XML", on -> {
+		}).addShortOpt('x').addLongOpt("xml");
+		getOpt.addParam("n", "how many", false, Integer.class, i -> {
+		}).addShortOpt('n').addLongOpt("count");
+		getOpt.addParam("file", "the configuration file", true, s -> {
+		}).addLongOpt("config").setEarly(true);
+		getOpt.addMutuallyExclusive(json, xml);
+		return getOpt;
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		GetOpt original = makeOptions();
+		File file = File.createTempFile("snapshot", ".bin");
+		file.deleteOnExit();
+		SpecSnapshot.write(original, file.toPath());
+
+		GetOpt loaded = SpecSnapshot.read(file.toPath());
+		Assert.assertTrue(loaded.isFrozen());
+		Assert.assertEquals(original.usage(), loaded.usage());
+		Assert.assertEquals(original.getOptionCount(), loaded.getOptionCount());
+		Assert.assertTrue(loaded.getDefinedLongOpt("config").isEarly());
+
+		ParseResult result = loaded.parse("-j", "--cou", "12", "--config", "c", "rest");
+		Assert.assertTrue(result.getProblems().toString(), result.isSuccessful());
+		Assert.assertEquals(12, result.getOccurrences().get(1).getConvertedValue());
+		Assert.assertEquals(Collections.singletonList("rest"), result.getNonOptions());
+
+		Assert.assertEquals(Arrays.asList("Option -n: the value 'z' must be a number between " + Integer.MIN_VALUE + " and " +
+						Integer.MAX_VALUE, "required option --config was not given", "options -j, -x cannot be used together"),
+				loaded.parse("-jx", "-n", "z").getProblems());
+	}
+
+	@Test
+	public void testReadFromStream() throws Exception {
+		byte[] snapshot = SpecSnapshot.toBytes(makeOptions());
+		GetOpt loaded = SpecSnapshot.read(new ByteArrayInputStream(snapshot));
+		Assert.assertTrue(loaded.parse("--xml", "--config", "c").isSuccessful());
+	}
+
+	@Test(expected = GetOptSetupException.class)
+	public void testDamaged() throws Exception {
+		byte[] snapshot = SpecSnapshot.toBytes(makeOptions());
+		SpecSnapshot.read(new ByteArrayInputStream(Arrays.copyOf(snapshot, 40)));
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for subcommand processing
+ */
+public class TestSubcommands {
+
+	private final AtomicInteger built = new AtomicInteger();
+
+	private final boolean[] verbose = {false};
+
+	private GetOpt makeOptions() {
+		GetOpt getOpt = GetOpt.create("tool", "command [ argument... ]");
+		getOpt.addFlag("be verbose", on -> verbose[0] = on).addShortOpt('v');
+		for (int i = 0; i < 200; i++) {
+			getOpt.addSubcommand("sub" + i, "subcommand number " + i, () -> {
+				built.incrementAndGet();
+				GetOpt sub = GetOpt.create("sub", null);
+				sub.addFlag("be forceful", on -> {
+				}).addShortOpt('f').addLongOpt("force");
+				return sub;
+			});
+		}
+		getOpt.addReceptacleSubcommand("gnu", "the gnu subcommand", () -> {
+			built.incrementAndGet();
+			return new GnuReceptacle();
+		});
+		return getOpt;
+	}
+
+	@Test
+	public void testOnlySelectedSubcommandIsBuilt() {
+		GetOpt getOpt = makeOptions();
+		Assert.assertEquals(0, built.get());
+
+		SubcommandInvocation invocation = getOpt.processSubcommand("-v", "sub17", "--force", "x", "y");
+		Assert.assertEquals(1, built.get());
+		Assert.assertTrue(verbose[0]);
+		Assert.assertEquals("sub17", invocation.getName());
+		Assert.assertNull(invocation.getReceptacle());
+		Assert.assertTrue(invocation.getOptions().getShortOpt('f').isSpecified());
+		Assert.assertEquals(2, invocation.getRemainingParams().size());
+	}
+
+	@Test
+	public void testReceptacleSubcommand() {
+		SubcommandInvocation invocation = makeOptions().processSubcommand("gnu", "-ma", "x");
+		GnuReceptacle receptacle = (GnuReceptacle) invocation.getReceptacle();
+		Assert.assertTrue(receptacle.isM());
+		Assert.assertEquals("x", receptacle.getA());
+		Assert.assertTrue(invocation.getRemainingParams().isEmpty());
+	}
+
+	@Test
+	public void testSubcommandOptionsAreSeparate() {
+		try {
+			makeOptions().processSubcommand("-f", "sub1");
+			Assert.fail("should have gotten CommandLineProcessingException");
+		} catch (CommandLineProcessingException ignored) {
+		}
+	}
+
+	@Test
+	public void testMissingAndUnknownSubcommand() {
+		try {
+			makeOptions().processSubcommand("-v");
+			Assert.fail("should have gotten CommandLineProcessingException");
+		} catch (CommandLineProcessingException e) {
+			Assert.assertTrue(e.getMessage().contains("error: no command was given"));
+			Assert.assertEquals(ProblemCode.NO_COMMAND, e.getProblems().get(0).getCode());
+		}
+		try {
+			makeOptions().processSubcommand("-v", "bogus");
+			Assert.fail("should have gotten CommandLineProcessingException");
+		} catch (CommandLineProcessingException e) {
+			Assert.assertTrue(e.getMessage().startsWith("\nerror: Unknown command: bogus\n"));
+			Assert.assertEquals(ProblemCode.UNKNOWN_COMMAND, e.getProblems().get(0).getCode());
+			Assert.assertEquals(1, e.getProblems().get(0).getArgvIndex());
+			Assert.assertTrue(e.getMessage().contains("\ncommands:\n  gnu\n    the gnu subcommand\n"));
+		}
+		Assert.assertEquals(0, built.get());
+	}
+
+	@Test
+	public void testIndex() {
+		SubcommandIndex index = SubcommandIndex.load(TestSubcommands.class.getClassLoader());
+		SubcommandIndex.Entry entry = index.getEntry("indexed");
+		Assert.assertEquals(IndexedReceptacle.class.getName(), entry.getClassName());
+		Assert.assertEquals("an indexed subcommand", entry.getDocumentation());
+		Assert.assertEquals(Arrays.asList("-o", "--output", "--force", "--yes"), entry.getOptionNames());
+	}
+
+	@Test
+	public void testIndexedSubcommand() {
+		GetOpt getOpt = GetOpt.create("tool", "command");
+		getOpt.addIndexedSubcommands(TestSubcommands.class.getClassLoader());
+		SubcommandInvocation invocation = getOpt.processSubcommand("indexed", "--out=x", "--yes");
+		IndexedReceptacle receptacle = (IndexedReceptacle) invocation.getReceptacle();
+		Assert.assertEquals("x", receptacle.getOutput());
+		Assert.assertTrue(receptacle.isForce());
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for deferred (transactional) binding
+ */
+public class TestTransactional {
+
+	private final List<Integer> counts = new ArrayList<>();
+
+	private final boolean[] verbose = {false};
+
+	private GetOpt makeOptions() {
+		GetOpt getOpt = GetOpt.create("test", null);
+		getOpt.addFlag("verbose", on -> verbose[0] = on).addShortOpt('v');
+		getOpt.addParam("n", "count", false, Integer.class, counts::add).addShortOpt('n').addLongOpt("count");
+		return getOpt;
+	}
+
+	@Test
+	public void testParseConvertsValues() {
+		ParseResult result = makeOptions().parse("-n", "3", "--count", "x");
+		Assert.assertFalse(result.isSuccessful());
+		Assert.assertEquals(1, result.getProblems().size());
+		Assert.assertTrue(result.getProblems().get(0).startsWith("Option -n: the value 'x' must be a number"));
+		Assert.assertEquals(3, result.getOccurrences().get(0).getConvertedValue());
+	}
+
+	@Test
+	public void testCommit() {
+		ParseResult result = makeOptions().parse("-n", "3", "-v", "--count=4");
+		Assert.assertTrue(counts.isEmpty());
+		result.commit();
+		Assert.assertEquals(Arrays.asList(3, 4), counts);
+		Assert.assertTrue(verbose[0]);
+	}
+
+	@Test
+	public void testTransactionalProcessParams() {
+		GetOpt getOpt = makeOptions().setTransactional(true);
+		try {
+			getOpt.processParams("-v", "-n", "3", "-n", "x");
+			Assert.fail();
+		} catch (CommandLineProcessingException e) {
+			// nothing applied
+			Assert.assertTrue(counts.isEmpty());
+			Assert.assertFalse(verbose[0]);
+		}
+		Assert.assertEquals(Collections.singletonList("rest"), getOpt.processParams("-v", "-n", "3", "rest"));
+		Assert.assertEquals(Collections.singletonList(3), counts);
+		Assert.assertTrue(verbose[0]);
+	}
+
+	@Test
+	public void testImmediateProcessParams() {
+		GetOpt getOpt = makeOptions();
+		try {
+			getOpt.processParams("-v", "-n", "3", "-n", "x");
+			Assert.fail();
+		} catch (CommandLineProcessingException e) {
+			Assert.assertEquals(Collections.singletonList(3), counts);
+		}
+	}
+}
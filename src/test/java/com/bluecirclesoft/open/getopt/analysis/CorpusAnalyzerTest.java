@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.analysis;
+
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+import com.bluecirclesoft.open.getopt.OptionSpecification;
+
+/**
+ * Tests for the corpus analyzer
+ */
+public class CorpusAnalyzerTest {
+
+	@Test
+	public void testSplitShellWords() {
+		Assert.assertArrayEquals(new String[]{"-a", "b c", "d'e", "f\"g", "h i"},
+				CommandLineTokenizer.splitShellWords("  -a 'b c' \"d'e\" f\\\"g h\\ i "));
+		Assert.assertArrayEquals(new String[]{""}, CommandLineTokenizer.splitShellWords("''"));
+		Assert.assertArrayEquals(new String[0], CommandLineTokenizer.splitShellWords(""));
+	}
+
+	@Test
+	public void testSplitNul() {
+		Assert.assertArrayEquals(new String[]{"-a", "b c", ""}, CommandLineTokenizer.splitNul("-a\0b c\0\0"));
+		Assert.assertArrayEquals(new String[0], CommandLineTokenizer.splitNul(""));
+	}
+
+	@Test
+	public void testAnalyze() throws Exception {
+		GetOpt getOpt = GetOpt.create("test", null);
+		OptionSpecification verbose = getOpt.addFlag("verbose", on -> {
+		}).addShortOpt('v').addLongOpt("verbose");
+		OptionSpecification output = getOpt.addParam("file", "output", false, s -> {
+		}).addShortOpt('o').addLongOpt("output");
+		OptionSpecification unused = getOpt.addFlag("unused", on -> {
+		}).addLongOpt("unused");
+
+		CorpusAnalyzer analyzer = new CorpusAnalyzer(getOpt, false, 2, 1, 5, null);
+		analyzer.analyze(new StringReader("-v -o a\n--verb --output=b\n-o a x\n--bogus\n-q"));
+
+		OptionUsageStatistics statistics = analyzer.getStatistics();
+		Assert.assertEquals(5, statistics.getInvocations());
+		Assert.assertEquals(2, statistics.getFailedInvocations());
+		Assert.assertEquals(2, statistics.getOccurrences(verbose));
+		Assert.assertEquals(1, statistics.getAbbreviatedOccurrences(verbose));
+		Assert.assertEquals(3, statistics.getOccurrences(output));
+		Assert.assertEquals(0, statistics.getOccurrences(unused));
+		Assert.assertEquals(2, statistics.getProblemCount("unknown option"));
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 Blue Circle Software, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.bluecirclesoft.open.getopt.completion;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.bluecirclesoft.open.getopt.GetOpt;
+
+/**
+ * Tests for the completion script generator
+ */
+public class CompletionScriptGeneratorTest {
+
+	private GetOpt makeOptions() {
+		GetOpt getOpt = GetOpt.create("my-tool", null);
+		getOpt.addParam("file", "the output file [default: stdout]", false, s -> {
+		}).addShortOpt('o').addLongOpt("output");
+		getOpt.addFlag("don't be quiet", on -> {
+		}).addShortOpt('v').addLongOpt("verbose");
+		return getOpt;
+	}
+
+	@Test
+	public void testBash() {
+		String script = CompletionScriptGenerator.bash(makeOptions(), "my-tool");
+		Assert.assertTrue(script.contains("        -o|--output)\n"));
+		Assert.assertTrue(script.contains("compgen -W \"-o --output -v --verbose\""));
+		Assert.assertTrue(script.endsWith("complete -F _my_tool_complete my-tool\n"));
+	}
+
+	@Test
+	public void testZsh() {
+		String script = CompletionScriptGenerator.zsh(makeOptions(), "my-tool");
+		Assert.assertTrue(script.startsWith("#compdef my-tool\n"));
+		Assert.assertTrue(script.contains("  '(-o --output)--output=[the output file \\[default\\: stdout\\]]:file:_files' \\\n"));
+		Assert.assertTrue(script.contains("  '(-v --verbose)-v[don'\\''t be quiet]' \\\n"));
+	}
+
+	@Test
+	public void testFish() {
+		String script = CompletionScriptGenerator.fish(makeOptions(), "my-tool");
+		Assert.assertTrue(script.contains("complete -c my-tool -s 'o' -l 'output' -r -d 'the output file [default: stdout]'\n"));
+		Assert.assertTrue(script.contains("complete -c my-tool -s 'v' -l 'verbose' -d 'don\\'t be quiet'\n"));
+	}
+}